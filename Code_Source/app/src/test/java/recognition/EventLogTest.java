@@ -0,0 +1,127 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readerReturnsWhatWasLogged() throws IOException {
+        float[] probabilities = new float[AslClasses.NAMES.size()];
+        probabilities[3] = 0.7f;
+        probabilities[5] = 0.2f;
+        probabilities[8] = 0.1f;
+        try (EventLog log = new EventLog(directory, 1 << 20, 4, 2)) {
+            log.sessionStarted();
+            log.scores(FrameScores.topK(42, 1_000_000, probabilities, log.getTopK()));
+            log.prediction(new Prediction("D", 0.7f, 1_000_000));
+            log.slot(new CommittedSlot(3, probabilities));
+            log.edit(TranscriptEdit.append(0, 'D'));
+            log.edit(TranscriptEdit.delete(1));
+            log.edit(TranscriptEdit.snapshot(2, "HÉLLO"));
+            log.accepted("HELLO");
+            log.sessionEnded();
+        }
+
+        try (EventLogReader reader = new EventLogReader(directory)) {
+            assertEquals(1, reader.getSegments().size());
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.SESSION_START, reader.type());
+            long started = reader.timestampMicros();
+            assertTrue(started > 0);
+
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.SCORES, reader.type());
+            FrameScores scores = reader.readScores();
+            assertEquals(42, scores.sequence());
+            assertEquals(1_000_000, scores.captureMicros());
+            assertArrayEquals(new int[] {3, 5}, scores.classes());
+            assertArrayEquals(new float[] {0.7f, 0.2f}, scores.probabilities());
+
+            assertTrue(reader.next());
+            assertEquals(new Prediction("D", 0.7f, 1_000_000), reader.readPrediction());
+
+            assertTrue(reader.next());
+            CommittedSlot slot = reader.readSlot();
+            assertEquals(3, slot.classIndex());
+            assertArrayEquals(probabilities, slot.probabilities());
+
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.EDIT, reader.type());
+            assertEquals(TranscriptEdit.append(0, 'D'), reader.readEdit());
+            assertTrue(reader.next());
+            assertEquals(TranscriptEdit.delete(1), reader.readEdit());
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.SNAPSHOT, reader.type());
+            assertEquals(TranscriptEdit.snapshot(2, "HÉLLO"), reader.readEdit());
+
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.ACCEPT, reader.type());
+            assertEquals("HELLO", reader.readAccepted());
+
+            assertTrue(reader.next());
+            assertEquals(EventLog.Type.SESSION_END, reader.type());
+            assertTrue(reader.timestampMicros() >= started);
+            assertFalse(reader.next());
+            assertEquals(0, reader.getTruncatedSegments());
+        }
+    }
+
+    @Test
+    void rotatesAndKeepsNewestSegments() throws IOException {
+        try (EventLog log = new EventLog(directory, 64 * 1024, 2, 1)) {
+            // Each snapshot record is about 1 KB, so 200 of them fill three 64 KB segments.
+            String text = "A".repeat(1000);
+            for (int i = 0; i < 200; i++) {
+                log.edit(TranscriptEdit.snapshot(i, text));
+            }
+        }
+        List<Path> segments = EventLog.listSegments(directory);
+        assertEquals(2, segments.size());
+
+        try (EventLogReader reader = new EventLogReader(directory)) {
+            long previous = -1;
+            int records = 0;
+            while (reader.next()) {
+                long sequence = reader.readEdit().sequence();
+                assertEquals(previous < 0 ? sequence : previous + 1, sequence);
+                previous = sequence;
+                records++;
+            }
+            assertEquals(199, previous);
+            assertTrue(records < 200);
+        }
+    }
+
+    @Test
+    void skipsRecordCutShort() throws IOException {
+        try (EventLog log = new EventLog(directory, 1 << 20, 4, 1)) {
+            log.accepted("CAT");
+            log.accepted("DOG");
+        }
+        Path segment = EventLog.listSegments(directory).get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        try (EventLogReader reader = new EventLogReader(directory)) {
+            assertTrue(reader.next());
+            assertEquals("CAT", reader.readAccepted());
+            assertFalse(reader.next());
+            assertEquals(1, reader.getTruncatedSegments());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+class FramedMessageReaderTest {
+
+    private static FramedMessageReader reader(MessageType type, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(type.getCode());
+        out.writeInt(payload.length);
+        out.write(payload);
+        FramedMessageReader reader = new FramedMessageReader(new ByteArrayInputStream(bytes.toByteArray()), 16);
+        assertTrue(reader.next());
+        return reader;
+    }
+
+    @Test
+    void readsWellFormedMessages() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeFloat(0.75f);
+        out.writeBytes("B");
+        assertEquals(new Prediction("B", 0.75f, 42), reader(MessageType.PREDICTION, bytes.toByteArray()).readPrediction(42));
+
+        bytes.reset();
+        out.writeLong(7);
+        out.writeLong(99);
+        out.writeByte(1);
+        out.writeByte(4);
+        out.writeFloat(0.5f);
+        FrameScores scores = reader(MessageType.SCORES, bytes.toByteArray()).readScores();
+        assertEquals(7, scores.sequence());
+        assertEquals(4, scores.classes()[0]);
+    }
+
+    @Test
+    void rejectsShortMessagesWithIOException() throws IOException {
+        assertThrows(IOException.class, () -> reader(MessageType.PREDICTION, new byte[3]).readPrediction());
+        assertThrows(IOException.class, () -> reader(MessageType.TIMING, new byte[24]).readTiming());
+        assertThrows(IOException.class, () -> reader(MessageType.FLOW, new byte[14]).readFlow());
+        assertThrows(IOException.class, () -> reader(MessageType.EDIT, new byte[8]).readEdit());
+        assertThrows(IOException.class, () -> reader(MessageType.SNAPSHOT, new byte[7]).readSnapshot());
+        assertThrows(IOException.class, () -> reader(MessageType.HAND_REGION, new byte[11]).readHandRegion());
+        assertThrows(IOException.class, () -> reader(MessageType.SCORES, new byte[16]).readScores());
+
+        // The count claims two scores but only one follows.
+        byte[] scores = new byte[17 + 5];
+        scores[16] = 2;
+        assertThrows(IOException.class, () -> reader(MessageType.SCORES, scores).readScores());
+    }
+}
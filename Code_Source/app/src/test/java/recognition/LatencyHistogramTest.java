@@ -0,0 +1,72 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50, histogram.getCount());
+        assertEquals(50, histogram.getMax());
+        assertEquals(25.5, histogram.getMean(), 1e-9);
+        assertEquals(25, histogram.getValueAtPercentile(50));
+        assertEquals(50, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    void largeValuesStayWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = {100, 1_000, 12_345, 987_654, 40_000_000_000L};
+        for (long value : values) {
+            histogram.record(value);
+        }
+        for (int i = 0; i < values.length; i++) {
+            long reported = histogram.getValueAtPercentile(100.0 * (i + 1) / values.length);
+            assertTrue(reported >= values[i] && reported <= values[i] * 1.03,
+                    values[i] + " reported as " + reported);
+        }
+        assertEquals(40_000_000_000L, histogram.getMax());
+    }
+
+    @Test
+    void bucketsCoverEveryValueInOrder() {
+        long previous = -1;
+        for (long value : new long[] {0, 63, 64, 65, 127, 128, 1L << 20, (1L << 20) + 12_345, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            long highest = LatencyHistogram.highestValueAt(index);
+            assertTrue(highest >= value, value + " above its bucket's highest value " + highest);
+            assertTrue(highest >= previous, "buckets out of order at " + value);
+            previous = highest;
+        }
+        assertEquals(63, LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(63)));
+        assertEquals(64, LatencyHistogram.highestValueAt(LatencyHistogram.indexOf(64)) - 1);
+    }
+
+    @Test
+    void negativeValuesCountAsZeroAndResetClears() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+}
@@ -0,0 +1,96 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LexiconTest {
+
+    @TempDir
+    Path directory;
+
+    private static LexiconBuilder builder() {
+        LexiconBuilder builder = new LexiconBuilder();
+        builder.add("hello", 50);
+        builder.add("help", 20);
+        builder.add("he", 100);
+        builder.add("cat", 10);
+        return builder;
+    }
+
+    private static int find(Lexicon lexicon, String word) {
+        int node = Lexicon.ROOT;
+        for (int i = 0; i < word.length() && node != Lexicon.NO_NODE; i++) {
+            node = lexicon.child(node, word.charAt(i) - 'A');
+        }
+        return node;
+    }
+
+    @Test
+    void builderRejectsWordsItCannotStore() {
+        LexiconBuilder builder = new LexiconBuilder();
+        assertFalse(builder.add("", 1));
+        assertFalse(builder.add("don't", 1));
+        assertFalse(builder.add("A".repeat(LexiconBuilder.MAX_WORD_LENGTH + 1), 1));
+        assertFalse(builder.add("cat", 0));
+        assertTrue(builder.add("cat", 1));
+        assertTrue(builder.add("CAT", 2));
+        assertEquals(1, builder.getWordCount());
+    }
+
+    @Test
+    void wrapsBuiltTrie() throws IOException {
+        Lexicon lexicon = Lexicon.wrap(builder().toBuffer());
+        assertEquals(4, lexicon.wordCount());
+        // root, C, A, T, H, E, L, L, O, P
+        assertEquals(10, lexicon.nodeCount());
+
+        int he = find(lexicon, "HE");
+        int hel = find(lexicon, "HEL");
+        assertTrue(lexicon.isWord(he));
+        assertFalse(lexicon.isWord(hel));
+        assertTrue(lexicon.isWord(find(lexicon, "HELLO")));
+        assertEquals(Lexicon.NO_NODE, find(lexicon, "HX"));
+        assertEquals(Lexicon.NO_NODE, find(lexicon, "HELLOS"));
+        assertEquals('P' - 'A', lexicon.letter(find(lexicon, "HELP")));
+        assertEquals(2, lexicon.childCount(hel));
+    }
+
+    @Test
+    void scoresFollowCounts() throws IOException {
+        Lexicon lexicon = Lexicon.wrap(builder().toBuffer());
+        int he = find(lexicon, "HE");
+        int hello = find(lexicon, "HELLO");
+        int help = find(lexicon, "HELP");
+        assertTrue(lexicon.wordScore(he) > lexicon.wordScore(hello));
+        assertTrue(lexicon.wordScore(hello) > lexicon.wordScore(help));
+        assertEquals(Math.log(100.0 / 180), lexicon.wordScore(he), 0.01);
+        assertEquals(lexicon.wordScore(he), lexicon.bestScore(Lexicon.ROOT), 1e-6);
+        assertEquals(lexicon.wordScore(hello), lexicon.bestScore(find(lexicon, "HEL")), 1e-6);
+    }
+
+    @Test
+    void opensWrittenFile() throws IOException {
+        Path path = directory.resolve("lexicon.bin");
+        builder().write(path);
+        Lexicon lexicon = Lexicon.open(path);
+        assertEquals(4, lexicon.wordCount());
+        assertTrue(lexicon.isWord(find(lexicon, "CAT")));
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        assertThrows(IOException.class, () -> Lexicon.wrap(ByteBuffer.allocate(Lexicon.HEADER_SIZE)));
+        ByteBuffer truncated = builder().toBuffer();
+        truncated.limit(truncated.limit() - 1);
+        assertThrows(IOException.class, () -> Lexicon.wrap(truncated));
+    }
+}
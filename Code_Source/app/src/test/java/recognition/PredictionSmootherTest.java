@@ -0,0 +1,88 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class PredictionSmootherTest {
+
+    private static float[] peaked(int numClasses, int index, float probability) {
+        float[] probabilities = new float[numClasses];
+        float rest = (1f - probability) / (numClasses - 1);
+        for (int i = 0; i < numClasses; i++) {
+            probabilities[i] = i == index ? probability : rest;
+        }
+        return probabilities;
+    }
+
+    @Test
+    void commitsOnceAfterStableFrames() {
+        PredictionSmoother smoother = new PredictionSmoother(3, 4, 0.6f, 3, PredictionSmoother.MEAN);
+        float[] frame = peaked(3, 1, 0.9f);
+        assertFalse(smoother.update(frame).isCommitted());
+        assertFalse(smoother.update(frame).isCommitted());
+        PredictionSmoother.Result result = smoother.update(frame);
+        assertTrue(result.isCommitted());
+        assertEquals(1, result.committed());
+        assertEquals(0.9f, result.confidence(), 1e-6f);
+        for (int i = 0; i < 10; i++) {
+            assertFalse(smoother.update(frame).isCommitted(), "a held sign commits only once");
+        }
+    }
+
+    @Test
+    void lowConfidenceNeverCommitsAndRestartsTheCount() {
+        PredictionSmoother smoother = new PredictionSmoother(3, 1, 0.6f, 2, PredictionSmoother.MEAN);
+        float[] confident = peaked(3, 2, 0.8f);
+        float[] unsure = peaked(3, 2, 0.5f);
+        assertFalse(smoother.update(confident).isCommitted());
+        PredictionSmoother.Result result = smoother.update(unsure);
+        assertEquals(2, result.index());
+        assertFalse(result.isCommitted());
+        assertFalse(smoother.update(confident).isCommitted());
+        assertEquals(2, smoother.update(confident).committed());
+    }
+
+    @Test
+    void sameClassCommitsAgainAfterAnotherOne() {
+        PredictionSmoother smoother = new PredictionSmoother(2, 1, 0.5f, 1, PredictionSmoother.EMA);
+        assertEquals(0, smoother.update(peaked(2, 0, 0.9f)).committed());
+        assertEquals(1, smoother.update(peaked(2, 1, 0.9f)).committed());
+        assertEquals(0, smoother.update(peaked(2, 0, 0.9f)).committed());
+    }
+
+    @Test
+    void majorityVotesOverTheWindow() {
+        PredictionSmoother smoother = new PredictionSmoother(2, 3, 0.6f, 1, PredictionSmoother.MAJORITY);
+        smoother.update(peaked(2, 0, 0.9f));
+        smoother.update(peaked(2, 0, 0.9f));
+        PredictionSmoother.Result result = smoother.update(peaked(2, 1, 0.9f));
+        assertEquals(0, result.index());
+        assertEquals(2f / 3, result.confidence(), 1e-6f);
+        result = smoother.update(peaked(2, 1, 0.9f));
+        assertEquals(1, result.index());
+        assertEquals(1, result.committed());
+    }
+
+    @Test
+    void windowMeanAveragesRawFramesAndResetForgetsThem() {
+        PredictionSmoother smoother = new PredictionSmoother(2, 2, 0.5f, 1, PredictionSmoother.EMA);
+        smoother.update(new float[] {1f, 0f});
+        smoother.update(new float[] {0.5f, 0.5f});
+        smoother.update(new float[] {0f, 1f});
+        assertArrayEquals(new float[] {0.25f, 0.75f}, smoother.windowMean(), 1e-6f);
+
+        smoother.reset();
+        smoother.update(new float[] {0.2f, 0.8f});
+        assertArrayEquals(new float[] {0.2f, 0.8f}, smoother.windowMean(), 1e-6f);
+    }
+
+    @Test
+    void rejectsUnknownMethod() {
+        assertThrows(IllegalArgumentException.class, () -> new PredictionSmoother(2, 3, 0.5f, 1, "median"));
+    }
+}
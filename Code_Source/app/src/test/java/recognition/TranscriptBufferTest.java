@@ -0,0 +1,88 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class TranscriptBufferTest {
+
+    @Test
+    void appliesAppendsAndDeletes() {
+        TranscriptBuffer buffer = new TranscriptBuffer();
+        assertTrue(buffer.apply(TranscriptEdit.append(0, 'H')));
+        assertTrue(buffer.apply(TranscriptEdit.append(1, 'I')));
+        assertTrue(buffer.apply(TranscriptEdit.append(2, 'X')));
+        assertTrue(buffer.apply(TranscriptEdit.delete(3)));
+        assertEquals("HI", buffer.toString());
+        assertEquals(3, buffer.getSequence());
+
+        assertTrue(buffer.apply(TranscriptEdit.delete(4)));
+        assertTrue(buffer.apply(TranscriptEdit.delete(5)));
+        assertTrue(buffer.apply(TranscriptEdit.delete(6)));
+        assertEquals("", buffer.toString());
+    }
+
+    @Test
+    void gapIgnoresEditsUntilSnapshot() {
+        TranscriptBuffer buffer = new TranscriptBuffer();
+        buffer.apply(TranscriptEdit.append(0, 'A'));
+        assertFalse(buffer.apply(TranscriptEdit.append(2, 'C')));
+        assertFalse(buffer.isSynced());
+        assertFalse(buffer.apply(TranscriptEdit.append(3, 'D')));
+        assertEquals(2, buffer.getMissedEdits());
+        assertEquals("A", buffer.toString());
+
+        assertTrue(buffer.apply(TranscriptEdit.snapshot(3, "ABCD")));
+        assertTrue(buffer.isSynced());
+        assertTrue(buffer.apply(TranscriptEdit.append(4, 'E')));
+        assertEquals("ABCDE", buffer.toString());
+    }
+
+    @Test
+    void growsPastInitialCapacityAndKeepsTextAfterCursor() {
+        TranscriptBuffer buffer = new TranscriptBuffer();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            char c = (char) ('A' + i % 26);
+            buffer.apply(TranscriptEdit.append(i, c));
+            expected.append(c);
+        }
+        assertEquals(expected.toString(), buffer.toString());
+        assertEquals(1000, buffer.length());
+        assertEquals("XYZABCDEFGHIJKL", buffer.tail(15));
+
+        buffer.moveCursor(1);
+        buffer.insert('!');
+        buffer.deleteBefore();
+        buffer.deleteBefore();
+        buffer.moveCursor(buffer.length());
+        assertEquals(expected.substring(1), buffer.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> buffer.moveCursor(buffer.length() + 1));
+    }
+
+    @Test
+    void largeSnapshotReplacesText() {
+        TranscriptBuffer buffer = new TranscriptBuffer();
+        buffer.apply(TranscriptEdit.append(0, 'Q'));
+        String text = "HELLO ".repeat(100);
+        buffer.apply(TranscriptEdit.snapshot(7, text));
+        assertEquals(text, buffer.toString());
+        assertTrue(buffer.apply(TranscriptEdit.append(8, 'W')));
+        assertEquals(text + "W", buffer.toString());
+    }
+
+    @Test
+    void clearStartsOver() {
+        TranscriptBuffer buffer = new TranscriptBuffer();
+        buffer.apply(TranscriptEdit.append(0, 'A'));
+        buffer.apply(TranscriptEdit.append(5, 'B'));
+        buffer.clear();
+        assertTrue(buffer.isSynced());
+        assertEquals("", buffer.toString());
+        assertTrue(buffer.apply(TranscriptEdit.append(9, 'C')));
+        assertEquals("C", buffer.toString());
+    }
+}
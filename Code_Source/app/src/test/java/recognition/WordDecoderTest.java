@@ -0,0 +1,97 @@
+package recognition;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class WordDecoderTest {
+
+    private WordDecoder decoder;
+
+    @BeforeEach
+    void buildLexicon() throws IOException {
+        LexiconBuilder builder = new LexiconBuilder();
+        builder.add("hello", 50);
+        builder.add("help", 20);
+        builder.add("cat", 30);
+        builder.add("cot", 1);
+        decoder = new WordDecoder(Lexicon.wrap(builder.toBuffer()));
+    }
+
+    /** A slot committed as {@code label}, with {@code runnerUp} as the next most likely class. */
+    private static CommittedSlot slot(String label, String runnerUp) {
+        float[] probabilities = new float[AslClasses.NAMES.size()];
+        int index = AslClasses.NAMES.indexOf(label);
+        probabilities[index] = runnerUp == null ? 1f : 0.6f;
+        if (runnerUp != null) {
+            probabilities[AslClasses.NAMES.indexOf(runnerUp)] = 0.4f;
+        }
+        return new CommittedSlot(index, probabilities);
+    }
+
+    private static CommittedSlot slot(String label) {
+        return slot(label, null);
+    }
+
+    private List<String> words(int max) {
+        return decoder.completions(max).stream().map(WordDecoder.Candidate::word).collect(Collectors.toList());
+    }
+
+    @Test
+    void suggestsCompletionsMostLikelyFirst() {
+        assertTrue(decoder.completions(5).isEmpty());
+        decoder.update(slot("H"));
+        decoder.update(slot("E"));
+        decoder.update(slot("L"));
+        assertEquals("HEL", decoder.bestPrefix());
+        assertEquals(3, decoder.depth());
+        // Words the slots do not spell still come up, far behind, since each misread letter only
+        // costs its floor probability.
+        List<WordDecoder.Candidate> candidates = decoder.completions(4);
+        assertEquals(List.of("HELLO", "HELP", "CAT", "COT"), words(4));
+        assertTrue(candidates.get(1).score() - candidates.get(2).score() > 10f);
+        assertEquals(List.of("HELLO"), words(1));
+    }
+
+    @Test
+    void oneSlotCanStandForADoubleLetter() {
+        for (String letter : new String[] {"H", "E", "L", "O"}) {
+            decoder.update(slot(letter));
+        }
+        assertEquals("HELLO", decoder.bestPrefix());
+        assertEquals(List.of("HELLO"), words(1));
+    }
+
+    @Test
+    void recoversMisreadLetterFromRunnerUp() {
+        decoder.update(slot("C"));
+        decoder.update(slot("X", "A"));
+        decoder.update(slot("T"));
+        assertEquals("CAT", decoder.bestPrefix());
+        assertEquals("CAT", words(1).get(0));
+    }
+
+    @Test
+    void deleteStepsBackAndSpaceStartsOver() {
+        decoder.update(slot("C"));
+        decoder.update(slot("O"));
+        decoder.update(slot(AslClasses.NOTHING));
+        assertEquals(2, decoder.depth());
+        decoder.update(slot(AslClasses.DELETE));
+        assertEquals("C", decoder.bestPrefix());
+        decoder.update(slot("A"));
+        assertEquals("CA", decoder.bestPrefix());
+        assertEquals(List.of("CAT", "COT"), words(2));
+
+        decoder.update(slot(AslClasses.SPACE));
+        assertEquals(0, decoder.depth());
+        assertEquals("", decoder.bestPrefix());
+        assertTrue(decoder.completions(5).isEmpty());
+    }
+}
@@ -0,0 +1,41 @@
+import argparse
+import os
+
+import cv2
+
+RESOLUTIONS = {'480p': (640, 480), '720p': (1280, 720), '1080p': (1920, 1080)}
+
+
+def main():
+    """Record one webcam frame per resolution as the JPEG fixtures used by the benchmarks."""
+    parser = argparse.ArgumentParser(description="Record camera frames for the JMH benchmarks.")
+    parser.add_argument('--camera', type=int, default=0)
+    parser.add_argument('--output', default=os.path.join(os.path.dirname(os.path.abspath(__file__)), 'fixtures'))
+    parser.add_argument('--quality', type=int, default=80, help="JPEG quality, as asl_recognition.py sends frames")
+    args = parser.parse_args()
+
+    os.makedirs(args.output, exist_ok=True)
+    cap = cv2.VideoCapture(args.camera)
+    if not cap.isOpened():
+        raise SystemExit(f"Cannot access camera {args.camera}.")
+    try:
+        for name, (width, height) in RESOLUTIONS.items():
+            cap.set(cv2.CAP_PROP_FRAME_WIDTH, width)
+            cap.set(cv2.CAP_PROP_FRAME_HEIGHT, height)
+            for _ in range(10):  # let exposure settle after the mode change
+                ret, frame = cap.read()
+            if not ret:
+                print(f"Could not read a {name} frame.")
+                continue
+            if (frame.shape[1], frame.shape[0]) != (width, height):
+                frame = cv2.resize(frame, (width, height))
+            frame = cv2.flip(frame, 1)
+            path = os.path.join(args.output, f"frame_{name}.jpg")
+            cv2.imwrite(path, frame, [int(cv2.IMWRITE_JPEG_QUALITY), args.quality])
+            print(f"Wrote {path}")
+    finally:
+        cap.release()
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import recognition.FramedMessageReader;
+import recognition.MessageType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost per frame of the binary protocol: a recorded stream of FRAME messages, each followed by a
+ * PREDICTION as asl_recognition.py sends them, read through FramedMessageReader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final int FRAMES = 32;
+
+    @Param({"480p", "720p", "1080p"})
+    public String resolution;
+
+    private byte[] stream;
+
+    @Setup
+    public void setUp() throws IOException {
+        byte[] jpeg = FrameFixtures.jpeg(resolution);
+        byte[] label = "A".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int i = 0; i < FRAMES; i++) {
+            out.writeByte(MessageType.FRAME.getCode());
+            out.writeInt(jpeg.length);
+            out.write(jpeg);
+            out.writeByte(MessageType.PREDICTION.getCode());
+            out.writeInt(4 + label.length);
+            out.writeFloat(0.9f);
+            out.write(label);
+        }
+        stream = bytes.toByteArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void readFrames(Blackhole blackhole) throws IOException {
+        BlackholeListener listener = new BlackholeListener(blackhole);
+        try (FramedMessageReader reader = new FramedMessageReader(new ByteArrayInputStream(stream), 64 * 1024)) {
+            while (reader.next()) {
+                if (reader.type() == MessageType.FRAME) {
+                    listener.onEncodedFrame(reader.payload(), 0);
+                } else {
+                    listener.onPrediction(reader.readPrediction());
+                }
+            }
+        }
+    }
+}
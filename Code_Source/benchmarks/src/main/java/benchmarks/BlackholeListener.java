@@ -0,0 +1,56 @@
+package benchmarks;
+
+import org.openjdk.jmh.infra.Blackhole;
+import recognition.CommittedSlot;
+import recognition.HandRegion;
+import recognition.Prediction;
+import recognition.RecognizerListener;
+import recognition.TranscriptEdit;
+
+import java.nio.ByteBuffer;
+
+/** Hands every recognizer callback to a JMH Blackhole so nothing is optimised away. */
+final class BlackholeListener implements RecognizerListener {
+
+    private final Blackhole blackhole;
+
+    BlackholeListener(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onEncodedFrame(ByteBuffer jpeg, long captureMicros) {
+        blackhole.consume(jpeg.remaining());
+        blackhole.consume(jpeg);
+    }
+
+    @Override
+    public void onPrediction(Prediction prediction) {
+        blackhole.consume(prediction);
+    }
+
+    @Override
+    public void onTranscriptEdit(TranscriptEdit edit) {
+        blackhole.consume(edit);
+    }
+
+    @Override
+    public void onCommittedSlot(CommittedSlot slot) {
+        blackhole.consume(slot);
+    }
+
+    @Override
+    public void onHandRegion(HandRegion region) {
+        blackhole.consume(region);
+    }
+
+    @Override
+    public void onStatus(String message) {
+        blackhole.consume(message);
+    }
+
+    @Override
+    public void onError(String title, String message) {
+        throw new IllegalStateException(title + ": " + message);
+    }
+}
@@ -0,0 +1,136 @@
+package benchmarks;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Camera frames used by the benchmarks. Recorded frames are read from
+ * {@code <speakurhands.fixtures>/frame_<resolution>.jpg} (default directory: benchmarks/fixtures,
+ * where record_fixtures.py writes them, found from the jar's location); if a file is missing a synthetic frame is encoded instead, at the
+ * JPEG quality asl_recognition.py uses.
+ */
+public final class FrameFixtures {
+
+    public static final String FIXTURE_DIR_PROPERTY = "speakurhands.fixtures";
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private FrameFixtures() {
+    }
+
+    public static int width(String resolution) {
+        switch (resolution) {
+            case "480p": return 640;
+            case "720p": return 1280;
+            case "1080p": return 1920;
+            default: throw new IllegalArgumentException("Unknown resolution: " + resolution);
+        }
+    }
+
+    public static int height(String resolution) {
+        switch (resolution) {
+            case "480p": return 480;
+            case "720p": return 720;
+            case "1080p": return 1080;
+            default: throw new IllegalArgumentException("Unknown resolution: " + resolution);
+        }
+    }
+
+    /** @return the JPEG bytes of the fixture frame */
+    public static byte[] jpeg(String resolution) {
+        String directory = System.getProperty(FIXTURE_DIR_PROPERTY);
+        Path recorded = (directory != null ? Paths.get(directory) : defaultDirectory()).resolve("frame_" + resolution + ".jpg");
+        try {
+            if (Files.exists(recorded)) {
+                return Files.readAllBytes(recorded);
+            }
+            return encode(synthetic(width(resolution), height(resolution)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** @return benchmarks/fixtures next to target/, where benchmarks.jar or the compiled classes are */
+    private static Path defaultDirectory() {
+        try {
+            Path location = Paths.get(FrameFixtures.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return location.getParent().getParent().resolve("fixtures");
+        } catch (URISyntaxException | RuntimeException e) {
+            return Paths.get("benchmarks", "fixtures");
+        }
+    }
+
+    /** @return the fixture frame as BGRA pixels, the layout of the shared frame ring and PixelBuffer */
+    public static byte[] bgra(String resolution) {
+        try {
+            BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(jpeg(resolution)));
+            BufferedImage bgr = new BufferedImage(decoded.getWidth(), decoded.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = bgr.createGraphics();
+            g.drawImage(decoded, 0, 0, null);
+            g.dispose();
+            byte[] source = ((DataBufferByte) bgr.getRaster().getDataBuffer()).getData();
+            byte[] pixels = new byte[decoded.getWidth() * decoded.getHeight() * 4];
+            for (int i = 0, j = 0; i < source.length; i += 3, j += 4) {
+                pixels[j] = source[i];
+                pixels[j + 1] = source[i + 1];
+                pixels[j + 2] = source[i + 2];
+                pixels[j + 3] = (byte) 0xFF;
+            }
+            return pixels;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Background gradient, a few shapes and sensor-like noise, so JPEG sizes resemble a webcam frame. */
+    private static BufferedImage synthetic(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(200, 200, 190), width, height, new Color(90, 80, 70)));
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(224, 172, 140));
+        g.fillOval(width / 3, height / 4, width / 4, height / 2);
+        g.setColor(new Color(40, 40, 60));
+        g.fillRect(width / 10, height / 2, width / 6, height / 3);
+        g.dispose();
+
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        Random random = new Random(42);
+        for (int i = 0; i < pixels.length; i++) {
+            int value = (pixels[i] & 0xFF) + random.nextInt(17) - 8;
+            pixels[i] = (byte) Math.max(0, Math.min(255, value));
+        }
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import recognition.PixelFrameExchange;
+import recognition.SharedFrameRing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The raw-pixel transports that replace JPEG frames: reading the newest frame from the shared
+ * memory ring written by shared_frame_ring.py, and a publish/read round trip through the
+ * in-process triple buffer used by OnnxRecognizer. Both copy into a direct buffer as PixelBuffer needs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameTransportBenchmark {
+
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_HEADER_SIZE = 64;
+    private static final int SLOTS = 4;
+
+    @Param({"480p", "720p", "1080p"})
+    public String resolution;
+
+    private Path ringPath;
+    private SharedFrameRing ring;
+    private PixelFrameExchange exchange;
+    private byte[] pixels;
+    private ByteBuffer target;
+
+    @Setup
+    public void setUp() throws IOException {
+        int width = FrameFixtures.width(resolution);
+        int height = FrameFixtures.height(resolution);
+        pixels = FrameFixtures.bgra(resolution);
+        target = ByteBuffer.allocateDirect(pixels.length);
+        exchange = new PixelFrameExchange(width, height);
+        ringPath = Files.createTempFile("speakurhands-bench", ".ring");
+        writeRing(ringPath, width, height, pixels);
+        ring = SharedFrameRing.tryOpen(ringPath);
+    }
+
+    /** Writes a ring with one published frame, in the layout of shared_frame_ring.py. */
+    private static void writeRing(Path path, int width, int height, byte[] pixels) throws IOException {
+        long slotSize = SLOT_HEADER_SIZE + pixels.length;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + slotSize * SLOTS);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            long sequence = 1;
+            int slot = (int) (HEADER_SIZE + (sequence % SLOTS) * slotSize);
+            buffer.putLong(slot, sequence);
+            buffer.putLong(slot + 8, System.nanoTime() / 1000);
+            buffer.put(slot + SLOT_HEADER_SIZE, pixels);
+            buffer.putLong(slot + 16, sequence);
+            buffer.putInt(4, SharedFrameRing.VERSION);
+            buffer.putInt(8, SLOTS);
+            buffer.putInt(12, width);
+            buffer.putInt(16, height);
+            buffer.putInt(20, 4);
+            buffer.putLong(24, slotSize);
+            buffer.putLong(32, sequence);
+            buffer.putInt(0, SharedFrameRing.MAGIC);
+            buffer.force();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ring.close();
+        Files.deleteIfExists(ringPath);
+    }
+
+    @Benchmark
+    public long sharedRingRead() {
+        return ring.readLatest(target);
+    }
+
+    @Benchmark
+    public long tripleBufferRoundTrip() {
+        exchange.beginWrite().put(pixels);
+        exchange.commitWrite();
+        return exchange.readLatest(target);
+    }
+}
@@ -0,0 +1,67 @@
+package benchmarks;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JPEG decoding as CameraController.onEncodedFrame does it (a JavaFX Image from a stream), and
+ * ImageIO as a reference that needs no toolkit. The JavaFX toolkit runs on the headless Monocle platform.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {
+        "-Dglass.platform=Monocle", "-Dmonocle.platform=Headless", "-Dprism.order=sw", "-Djava.awt.headless=true"})
+public class JpegDecodeBenchmark {
+
+    @Param({"480p", "720p", "1080p"})
+    public String resolution;
+
+    private byte[] jpeg;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        jpeg = FrameFixtures.jpeg(resolution);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyStarted) {
+            started.countDown();
+        }
+        started.await();
+    }
+
+    @Benchmark
+    public Image javafxImage() {
+        Image image = new Image(new ByteArrayInputStream(jpeg));
+        if (image.isError()) {
+            throw new IllegalStateException("Decoding failed", image.getException());
+        }
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage imageIo() throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(jpeg));
+    }
+}
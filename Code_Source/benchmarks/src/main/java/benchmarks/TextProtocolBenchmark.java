@@ -0,0 +1,57 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import recognition.TextMessageParser;
+
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one FRAME_B64 line of the text protocol: the whole parse path and its two main steps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextProtocolBenchmark {
+
+    @Param({"480p", "720p", "1080p"})
+    public String resolution;
+
+    private String line;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        encoded = Base64.getEncoder().encodeToString(FrameFixtures.jpeg(resolution));
+        line = "FRAME_B64:" + encoded;
+    }
+
+    @Benchmark
+    public void parseLine(Blackhole blackhole) {
+        new TextMessageParser(new BlackholeListener(blackhole)).parse(line);
+    }
+
+    @Benchmark
+    public String[] splitLine() {
+        return line.split(":", 2);
+    }
+
+    @Benchmark
+    public byte[] decodeBase64() {
+        return Base64.getDecoder().decode(encoded);
+    }
+}
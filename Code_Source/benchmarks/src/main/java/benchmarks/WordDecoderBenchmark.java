@@ -0,0 +1,87 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import recognition.AslClasses;
+import recognition.CommittedSlot;
+import recognition.Lexicon;
+import recognition.LexiconBuilder;
+import recognition.WordDecoder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one word decoder step, the beam update plus the completion search the camera view runs
+ * per committed slot, against a memory-resident lexicon of random words with Zipf-like counts.
+ * Slots are noisy, with the committed letter on top and the rest of the mass spread over runners-up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WordDecoderBenchmark {
+
+    private static final int SLOTS = 1024;
+    private static final int WORD_LENGTH = 8;
+
+    @Param({"10000", "100000", "250000"})
+    public int words;
+
+    private WordDecoder decoder;
+    private CommittedSlot[] slots;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        LexiconBuilder builder = new LexiconBuilder();
+        while (builder.getWordCount() < words) {
+            StringBuilder word = new StringBuilder();
+            int length = 2 + random.nextInt(10);
+            for (int i = 0; i < length; i++) {
+                word.append((char) ('A' + random.nextInt(26)));
+            }
+            builder.add(word.toString(), 1 + (long) (1e6 / (1 + builder.getWordCount())));
+        }
+        decoder = new WordDecoder(Lexicon.wrap(builder.toBuffer()));
+
+        slots = new CommittedSlot[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            float[] probabilities = new float[AslClasses.NAMES.size()];
+            float sum = 0f;
+            for (int c = 0; c < probabilities.length; c++) {
+                probabilities[c] = random.nextFloat() * random.nextFloat() * random.nextFloat();
+                sum += probabilities[c];
+            }
+            int letter = random.nextInt(26);
+            for (int c = 0; c < probabilities.length; c++) {
+                probabilities[c] = 0.4f * probabilities[c] / sum;
+            }
+            probabilities[letter] += 0.6f;
+            slots[i] = new CommittedSlot(letter, probabilities);
+        }
+    }
+
+    @Benchmark
+    public List<WordDecoder.Candidate> step() {
+        if (decoder.depth() == WORD_LENGTH) {
+            decoder.reset();
+        }
+        decoder.update(slots[next++ & (SLOTS - 1)]);
+        return decoder.completions(4);
+    }
+}
@@ -2,19 +2,22 @@ package application;
 
 
 import java.io.IOException;
+import java.util.List;
 
 import javafx.animation.FadeTransition;
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 import javafx.util.Duration;
+import recognition.PipelineMetrics;
+import recognition.RecognizerService;
 
 
 public class Main extends Application {
     private static Stage primaryStage;
+    private static RecognizerService recognizerService;
+    private static Navigator navigator;
 
     @Override
     public void start(Stage stage) {
@@ -26,12 +29,21 @@ public class Main extends Application {
             stage.getIcons().add(img);
 
             primaryStage = stage; 
+            navigator = new Navigator(stage);
+            PipelineMetrics.get().registerMBean();
+            recognizerService = RecognizerService.fromSystemProperties();
+            if (Boolean.parseBoolean(System.getProperty("speakurhands.recognizer.preload", "true"))) {
+                recognizerService.preload();
+            }
             changeScene("/views/home.fxml"); 
             primaryStage.setTitle("Speak your hands");
             
             primaryStage.setWidth(800);
             primaryStage.setHeight(600);
             primaryStage.show();
+            if (Boolean.parseBoolean(System.getProperty("speakurhands.preloadPages", "true"))) {
+                navigator.preload(List.of("/views/secondPage.fxml", "/views/learn.fxml", "/views/asl_quiz.fxml", "/views/camera.fxml"));
+            }
 
         
             Button startButton = (Button) primaryStage.getScene().lookup("#start");
@@ -45,12 +57,24 @@ public class Main extends Application {
     
     
 
-    public static void changeScene(String fxmlFile) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(Main.class.getResource(fxmlFile));
-        Scene scene = new Scene(fxmlLoader.load());
-        scene.getStylesheets().add(Main.class.getResource("/views/application.css").toExternalForm());
+    public static RecognizerService getRecognizerService() {
+        return recognizerService;
+    }
+
+    @Override
+    public void stop() {
+        if (navigator != null) {
+            navigator.hideCurrent();
+            System.err.println(navigator.formatTimings());
+        }
+        if (recognizerService != null) {
+            recognizerService.shutdown();
+        }
+    }
 
-        primaryStage.setScene(scene);
+    /** Shows a page through the navigator; each page is parsed once and then reused. */
+    public static void changeScene(String fxmlFile) throws IOException {
+        navigator.show(fxmlFile);
     }
 
 
@@ -0,0 +1,16 @@
+package application;
+
+/**
+ * Implemented by controllers of cached pages that need to know when their page is shown or left.
+ * Both callbacks run on the FX thread; a page is loaded once and may be shown many times.
+ */
+public interface NavigationAware {
+
+    /** Called after the page's scene has been put on the stage. */
+    default void onShow() {
+    }
+
+    /** Called before another page replaces this one, and when the application stops while it is shown. */
+    default void onHide() {
+    }
+}
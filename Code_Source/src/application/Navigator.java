@@ -0,0 +1,122 @@
+package application;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import recognition.LatencyHistogram;
+
+/**
+ * Shows pages on the primary stage, parsing each FXML file and building its scene only once.
+ *
+ * Cached pages keep their controllers, so controllers that hold resources implement
+ * {@link NavigationAware} to pause and resume them instead of being rebuilt. Pages can be
+ * preloaded one per pulse after startup. The time from a navigation request until the
+ * scene is on the stage is kept per page and printed when the application stops.
+ */
+public class Navigator {
+
+    public static final String STYLESHEET = "/views/application.css";
+
+    /** A parsed page: its scene and the controller FXMLLoader created for it. */
+    private record Page(Scene scene, Object controller) {
+    }
+
+    private final Stage stage;
+    private final Map<String, Page> pages = new LinkedHashMap<>();
+    private final Map<String, LatencyHistogram> timings = new LinkedHashMap<>();
+    private Page current;
+
+    public Navigator(Stage stage) {
+        this.stage = stage;
+    }
+
+    /** Shows a page, loading it first if it is not cached. Must be called on the FX thread. */
+    public void show(String fxmlFile) throws IOException {
+        long started = System.nanoTime();
+        Page page = pages.get(fxmlFile);
+        boolean cached = page != null;
+        if (!cached) {
+            page = load(fxmlFile);
+        }
+        if (page == current) {
+            return;
+        }
+        if (current != null && current.controller() instanceof NavigationAware) {
+            ((NavigationAware) current.controller()).onHide();
+        }
+        current = page;
+        stage.setScene(page.scene());
+        if (page.controller() instanceof NavigationAware) {
+            ((NavigationAware) page.controller()).onShow();
+        }
+        long micros = (System.nanoTime() - started) / 1000;
+        timings.computeIfAbsent(fxmlFile, file -> new LatencyHistogram()).record(micros);
+        if (!cached) {
+            System.err.println(String.format("Navigation: loaded %s in %.1f ms", fxmlFile, micros / 1000.0));
+        }
+    }
+
+    /** Loads the pages on the FX thread, one per pulse so the UI stays responsive, for later navigation to find cached. */
+    public void preload(List<String> fxmlFiles) {
+        Deque<String> remaining = new ArrayDeque<>(fxmlFiles);
+        preloadNext(remaining);
+    }
+
+    private void preloadNext(Deque<String> remaining) {
+        String fxmlFile = remaining.poll();
+        if (fxmlFile == null) {
+            return;
+        }
+        Platform.runLater(() -> {
+            if (!pages.containsKey(fxmlFile)) {
+                long started = System.nanoTime();
+                try {
+                    load(fxmlFile);
+                    System.err.println(String.format("Navigation: preloaded %s in %.1f ms",
+                            fxmlFile, (System.nanoTime() - started) / 1e6));
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Warning: could not preload " + fxmlFile + ": " + e.getMessage());
+                }
+            }
+            preloadNext(remaining);
+        });
+    }
+
+    private Page load(String fxmlFile) throws IOException {
+        URL resource = Navigator.class.getResource(fxmlFile);
+        if (resource == null) {
+            throw new IOException("Page not found: " + fxmlFile);
+        }
+        FXMLLoader fxmlLoader = new FXMLLoader(resource);
+        Scene scene = new Scene(fxmlLoader.load());
+        scene.getStylesheets().add(Navigator.class.getResource(STYLESHEET).toExternalForm());
+        Page page = new Page(scene, fxmlLoader.getController());
+        pages.put(fxmlFile, page);
+        return page;
+    }
+
+    /** Hides the current page, so its controller releases what it holds. */
+    public void hideCurrent() {
+        if (current != null && current.controller() instanceof NavigationAware) {
+            ((NavigationAware) current.controller()).onHide();
+        }
+        current = null;
+    }
+
+    /** @return one line per page: navigations, median and slowest time until the scene was on the stage */
+    public String formatTimings() {
+        StringBuilder text = new StringBuilder("Navigation timings (ms):");
+        timings.forEach((fxmlFile, histogram) -> text.append(String.format("%n  %-24s n=%d p50=%.1f max=%.1f",
+                fxmlFile, histogram.getCount(), histogram.getValueAtPercentile(50) / 1000.0, histogram.getMax() / 1000.0)));
+        return text.toString();
+    }
+}
@@ -0,0 +1,148 @@
+package assets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.scene.image.Image;
+
+/**
+ * Application-wide store for the quiz images under {@link #IMAGE_DIRECTORY}.
+ *
+ * The list of available images is built once, from the directory's index.txt when it is
+ * packaged and otherwise by probing the known file names. Images are decoded on background
+ * threads at the size they are displayed at and kept in a bounded LRU cache, so callers on
+ * the FX thread take what is ready and start loading what comes next instead of waiting on I/O.
+ */
+public final class ImageAssetStore {
+
+    public static final String IMAGE_DIRECTORY = "/asl_alphabet_test";
+    private static final String INDEX_FILE = "index.txt";
+    private static final String IMAGE_SUFFIX = "_test.jpg";
+    private static final int MAX_CACHED_IMAGES = 64;
+    private static final int LOADER_THREADS = 2;
+
+    private static final ImageAssetStore INSTANCE = new ImageAssetStore();
+
+    private final ExecutorService loader = Executors.newFixedThreadPool(LOADER_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "image-asset-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, CompletableFuture<Image>> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Image>> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+    private volatile List<String> index;
+
+    private ImageAssetStore() {
+    }
+
+    public static ImageAssetStore get() {
+        return INSTANCE;
+    }
+
+    /** @return the file names of the available images, e.g. "A_test.jpg"; built on the first call */
+    public List<String> listImages() {
+        List<String> current = index;
+        if (current == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = Collections.unmodifiableList(buildIndex());
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    private List<String> buildIndex() {
+        List<String> filenames = readIndexFile();
+        if (filenames != null) {
+            return filenames;
+        }
+        filenames = new ArrayList<>();
+        List<String> baseNames = new ArrayList<>();
+        for (char letter = 'A'; letter <= 'Z'; letter++) {
+            baseNames.add(String.valueOf(letter));
+        }
+        baseNames.add("del");
+        baseNames.add("space");
+        for (String baseName : baseNames) {
+            if (ImageAssetStore.class.getResource(IMAGE_DIRECTORY + "/" + baseName + IMAGE_SUFFIX) != null) {
+                filenames.add(baseName + IMAGE_SUFFIX);
+            }
+        }
+        return filenames;
+    }
+
+    private List<String> readIndexFile() {
+        InputStream in = ImageAssetStore.class.getResourceAsStream(IMAGE_DIRECTORY + "/" + INDEX_FILE);
+        if (in == null) {
+            return null;
+        }
+        List<String> filenames = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    filenames.add(line);
+                }
+            }
+            return filenames;
+        } catch (IOException e) {
+            System.err.println("Warning: could not read " + IMAGE_DIRECTORY + "/" + INDEX_FILE + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Starts decoding an image at the given display size, or returns the pending or finished load.
+     * The future completes with null if the image is missing or cannot be decoded.
+     */
+    public CompletableFuture<Image> load(String filename, int width, int height) {
+        String key = filename + "@" + width + "x" + height;
+        synchronized (cache) {
+            CompletableFuture<Image> future = cache.get(key);
+            if (future == null) {
+                future = CompletableFuture.supplyAsync(() -> decode(filename, width, height), loader);
+                cache.put(key, future);
+            }
+            return future;
+        }
+    }
+
+    /** @return the decoded image if it is already in the cache, otherwise null; never blocks */
+    public Image getIfReady(String filename, int width, int height) {
+        CompletableFuture<Image> future = load(filename, width, height);
+        return future.isDone() ? future.getNow(null) : null;
+    }
+
+    private Image decode(String filename, int width, int height) {
+        URL imageUrl = ImageAssetStore.class.getResource(IMAGE_DIRECTORY + "/" + filename);
+        if (imageUrl == null) {
+            System.err.println("Error: Resource not found: " + IMAGE_DIRECTORY + "/" + filename); // KEEP
+            return null;
+        }
+        Image image = new Image(imageUrl.toExternalForm(), width, height, true, true, false);
+        if (image.isError()) {
+            System.err.println("Error loading image from URL: " + imageUrl.toExternalForm()); // KEEP
+            return null;
+        }
+        return image;
+    }
+}
@@ -0,0 +1,136 @@
+package assets;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+
+/**
+ * All quiz images downscaled into one image, so option thumbnails are viewport slices of a
+ * single decode instead of full-size JPEGs scaled at render time.
+ *
+ * The atlas is read from {@link #ATLAS_IMAGE} and {@link #ATLAS_INDEX} next to the images,
+ * which {@link ThumbnailAtlasBuilder} writes at build time. Without them it is assembled in
+ * memory on first use from the individual images, each decoded once at cell size.
+ */
+public final class ThumbnailAtlas {
+
+    public static final String ATLAS_IMAGE = "atlas.jpg";
+    public static final String ATLAS_INDEX = "atlas.txt";
+    public static final int CELL_SIZE = 150;
+
+    private static CompletableFuture<ThumbnailAtlas> loading;
+
+    private final Image image;
+    private final Map<String, Rectangle2D> cells;
+
+    private ThumbnailAtlas(Image image, Map<String, Rectangle2D> cells) {
+        this.image = image;
+        this.cells = cells;
+    }
+
+    /** @return the atlas, loaded or built on a background thread the first time this is called; null if that failed */
+    public static synchronized CompletableFuture<ThumbnailAtlas> load() {
+        if (loading == null) {
+            loading = CompletableFuture.supplyAsync(ThumbnailAtlas::loadOrBuild, runnable -> {
+                Thread thread = new Thread(runnable, "thumbnail-atlas-loader");
+                thread.setDaemon(true);
+                thread.start();
+            }).exceptionally(e -> {
+                System.err.println("Error: could not load the thumbnail atlas: " + e.getMessage());
+                return null;
+            });
+        }
+        return loading;
+    }
+
+    /**
+     * Shows the thumbnail of an image in the view.
+     * @return false if the atlas has no thumbnail for this file name
+     */
+    public boolean applyTo(ImageView view, String filename) {
+        Rectangle2D cell = cells.get(filename);
+        if (cell == null) {
+            return false;
+        }
+        view.setImage(image);
+        view.setViewport(cell);
+        return true;
+    }
+
+    private static ThumbnailAtlas loadOrBuild() {
+        String directory = ImageAssetStore.IMAGE_DIRECTORY;
+        URL imageUrl = ThumbnailAtlas.class.getResource(directory + "/" + ATLAS_IMAGE);
+        InputStream index = imageUrl == null ? null : ThumbnailAtlas.class.getResourceAsStream(directory + "/" + ATLAS_INDEX);
+        if (index != null) {
+            try {
+                Map<String, Rectangle2D> cells = readIndex(index);
+                Image image = new Image(imageUrl.toExternalForm(), false);
+                if (!image.isError()) {
+                    return new ThumbnailAtlas(image, cells);
+                }
+                System.err.println("Warning: could not decode " + imageUrl + "; building the thumbnail atlas from the images.");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Warning: invalid thumbnail atlas index: " + e.getMessage());
+            }
+        }
+        return build(ImageAssetStore.get().listImages());
+    }
+
+    static Map<String, Rectangle2D> readIndex(InputStream in) throws IOException {
+        Map<String, Rectangle2D> cells = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                // filename x y width height
+                String[] fields = line.split("\\s+");
+                cells.put(fields[0], new Rectangle2D(Double.parseDouble(fields[1]), Double.parseDouble(fields[2]),
+                        Double.parseDouble(fields[3]), Double.parseDouble(fields[4])));
+            }
+        }
+        return cells;
+    }
+
+    private static ThumbnailAtlas build(List<String> filenames) {
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(filenames.size())));
+        int rows = Math.max(1, (filenames.size() + columns - 1) / columns);
+        WritableImage atlas = new WritableImage(columns * CELL_SIZE, rows * CELL_SIZE);
+        PixelWriter writer = atlas.getPixelWriter();
+        Map<String, Rectangle2D> cells = new HashMap<>();
+        for (int i = 0; i < filenames.size(); i++) {
+            String filename = filenames.get(i);
+            URL url = ThumbnailAtlas.class.getResource(ImageAssetStore.IMAGE_DIRECTORY + "/" + filename);
+            if (url == null) {
+                continue;
+            }
+            Image thumbnail = new Image(url.toExternalForm(), CELL_SIZE, CELL_SIZE, true, true, false);
+            if (thumbnail.isError()) {
+                System.err.println("Error loading image from URL: " + url.toExternalForm()); // KEEP
+                continue;
+            }
+            int x = (i % columns) * CELL_SIZE;
+            int y = (i / columns) * CELL_SIZE;
+            int width = (int) thumbnail.getWidth();
+            int height = (int) thumbnail.getHeight();
+            writer.setPixels(x, y, width, height, thumbnail.getPixelReader(), 0, 0);
+            cells.put(filename, new Rectangle2D(x, y, width, height));
+        }
+        return new ThumbnailAtlas(atlas, cells);
+    }
+}
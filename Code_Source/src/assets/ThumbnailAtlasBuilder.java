@@ -0,0 +1,108 @@
+package assets;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Build step for {@link ThumbnailAtlas}: packs every *_test.jpg of the quiz image directory
+ * into atlas.jpg, with atlas.txt giving each image's cell, and writes the index.txt that
+ * {@link ImageAssetStore} lists the images from.
+ *
+ * Usage: ThumbnailAtlasBuilder [image directory, default src/asl_alphabet_test]
+ */
+public class ThumbnailAtlasBuilder {
+
+    private static final float JPEG_QUALITY = 0.9f;
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "src" + ImageAssetStore.IMAGE_DIRECTORY);
+        List<Path> images;
+        try (Stream<Path> files = Files.list(directory)) {
+            images = files.filter(path -> path.getFileName().toString().endsWith("_test.jpg"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        if (images.isEmpty()) {
+            System.err.println("No *_test.jpg images in " + directory.toAbsolutePath());
+            System.exit(1);
+        }
+
+        int cell = ThumbnailAtlas.CELL_SIZE;
+        int columns = (int) Math.ceil(Math.sqrt(images.size()));
+        int rows = (images.size() + columns - 1) / columns;
+        BufferedImage atlas = new BufferedImage(columns * cell, rows * cell, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = atlas.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, atlas.getWidth(), atlas.getHeight());
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+
+        List<String> indexLines = new ArrayList<>();
+        List<String> filenames = new ArrayList<>();
+        for (int i = 0; i < images.size(); i++) {
+            Path path = images.get(i);
+            BufferedImage image = ImageIO.read(path.toFile());
+            if (image == null) {
+                System.err.println("Skipping unreadable image " + path);
+                continue;
+            }
+            // Same fit as Image(url, cell, cell, preserveRatio = true, ...) at runtime.
+            double scale = Math.min((double) cell / image.getWidth(), (double) cell / image.getHeight());
+            int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+            int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+            int x = (i % columns) * cell;
+            int y = (i / columns) * cell;
+            graphics.drawImage(image, x, y, width, height, null);
+            String filename = path.getFileName().toString();
+            filenames.add(filename);
+            indexLines.add(filename + " " + x + " " + y + " " + width + " " + height);
+        }
+        graphics.dispose();
+
+        writeJpeg(atlas, directory.resolve(ThumbnailAtlas.ATLAS_IMAGE).toFile());
+        writeLines(directory.resolve(ThumbnailAtlas.ATLAS_INDEX),
+                "# filename x y width height, cells of " + cell + " px", indexLines);
+        writeLines(directory.resolve("index.txt"), "# quiz images, listed by ThumbnailAtlasBuilder", filenames);
+        System.out.println("Packed " + indexLines.size() + " images into " + directory.resolve(ThumbnailAtlas.ATLAS_IMAGE)
+                + " (" + atlas.getWidth() + "x" + atlas.getHeight() + ")");
+    }
+
+    private static void writeJpeg(BufferedImage image, File file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void writeLines(Path path, String header, List<String> lines) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.println(header);
+            lines.forEach(out::println);
+        }
+    }
+}
@@ -1,4 +1,5 @@
 package controllers;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
@@ -13,9 +14,14 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import application.Main;
-public class ASLQuizController implements Initializable {
+import application.NavigationAware;
+import assets.ImageAssetStore;
+import assets.ThumbnailAtlas;
+public class ASLQuizController implements Initializable, NavigationAware {
     @FXML
     private Label scoreLabel;
     @FXML
@@ -28,7 +34,11 @@ public class ASLQuizController implements Initializable {
     private Button nextButton;
     @FXML
     private StackPane imagePane;
-    private final String IMAGE_RESOURCE_PATH = "/asl_alphabet_test";
+    private final String IMAGE_RESOURCE_PATH = ImageAssetStore.IMAGE_DIRECTORY;
+    private static final int QUESTION_IMAGE_SIZE = 200;
+    private static final int OPTION_IMAGE_SIZE = 150;
+    private static final int ANSWER_IMAGE_SIZE = 100;
+    private final ImageAssetStore imageStore = ImageAssetStore.get();
     private int score = 0;
     private int questionIndex = 0;
     private List<Question> questions;
@@ -38,9 +48,19 @@ public class ASLQuizController implements Initializable {
     private final int TOTAL_QUESTIONS = 10;
     @Override
     public void initialize(URL url, ResourceBundle rb) {
+        // One-time styling: the cached page runs setupQuiz() again on every visit.
+        scoreLabel.getStyleClass().add("label");
+        questionLabel.getStyleClass().add("label");
+        nextButton.getStyleClass().add("button");
+        optionsHBox.setAlignment(Pos.CENTER);
+    }
+    /** The page is cached by the navigator, so every visit starts a new quiz. */
+    @Override
+    public void onShow() {
         setupQuiz();
     }
     private void setupQuiz() {
+        ThumbnailAtlas.load();
          List<Question> generatedQuestions = null;
         try {
             generatedQuestions = generateQuestions();
@@ -64,7 +84,6 @@ public class ASLQuizController implements Initializable {
         }
         optionsGroup = new ToggleGroup();
         optionButtons = new RadioButton[NUM_OPTIONS];
-        optionsHBox.setAlignment(Pos.CENTER);
         optionsHBox.getChildren().clear();
         for (int i = 0; i < NUM_OPTIONS; i++) {
             optionButtons[i] = new RadioButton();
@@ -79,10 +98,13 @@ public class ASLQuizController implements Initializable {
             }
         });
         scoreLabel.setText("Score: 0");
+        score = 0;
         questionIndex = 0;
-        scoreLabel.getStyleClass().add("label");
-        questionLabel.getStyleClass().add("label");
-        nextButton.getStyleClass().add("button");
+        optionsHBox.setVisible(true);
+        optionsHBox.setManaged(true);
+        nextButton.setVisible(true);
+        nextButton.setManaged(true);
+        preloadQuestion(0);
         loadQuestion();
     }
      private void disableQuiz() {
@@ -138,7 +160,7 @@ public class ASLQuizController implements Initializable {
             Collections.shuffle(incorrectLettersPool);
             options.addAll(incorrectLettersPool.subList(0, Math.min(NUM_OPTIONS - 1, incorrectLettersPool.size())));
             Collections.shuffle(options);
-            questionList.add(new ImageToLetterQuestion(IMAGE_RESOURCE_PATH + "/" + imageFilename, correctAnswerLetter, options));
+            questionList.add(new ImageToLetterQuestion(imageFilename, correctAnswerLetter, options));
         }
         List<String> lettersForLI = new ArrayList<>(availableLettersList);
         lettersForLI.removeAll(lettersForIL);
@@ -160,22 +182,7 @@ public class ASLQuizController implements Initializable {
         return questionList;
     }
     private List<String> getImageFilenamesFromResources() {
-        List<String> filenames = new ArrayList<>();
-        List<String> potentialBaseNames = new ArrayList<>();
-        List<String> alphabet = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H", "I", "J", "K", "L", "M", "N", "O", "P", "Q", "R", "S", "T", "U", "V", "W", "X", "Y", "Z");
-        alphabet.forEach(letter -> potentialBaseNames.add(letter));
-        potentialBaseNames.add("del");
-        potentialBaseNames.add("space");
-        List<String> potentialFullFilenames = new ArrayList<>();
-        for(String baseName : potentialBaseNames) {
-            potentialFullFilenames.add(baseName + "_test.jpg");
-        }
-        for (String filename : potentialFullFilenames) {
-             URL imageUrl = getClass().getResource(IMAGE_RESOURCE_PATH + "/" + filename);
-             if (imageUrl != null) {
-                 filenames.add(filename);
-             }
-        }
+        List<String> filenames = imageStore.listImages();
          if(filenames.isEmpty()){
              System.err.println("CRITICAL ERROR: No image files found in resources at " + IMAGE_RESOURCE_PATH); // KEEP
          }
@@ -223,13 +230,14 @@ public class ASLQuizController implements Initializable {
                  rb.getStyleClass().clear();
              }
             if (currentQuestion instanceof ImageToLetterQuestion) {
-                 Image mainImage = currentQuestion.getImage();
-                 if (mainImage != null && !mainImage.isError()) {
+                 String imageFilename = ((ImageToLetterQuestion) currentQuestion).getImageFilename();
+                 imageView.setImage(null);
+                 showWhenLoaded(imageStore.load(imageFilename, QUESTION_IMAGE_SIZE, QUESTION_IMAGE_SIZE), mainImage -> {
                      imageView.setImage(mainImage);
-                 } else {
-                     imageView.setImage(null);
-                     System.err.println("ERROR: Failed to load main image for ImageToLetter question."); // KEEP
-                 }
+                     if (mainImage == null) {
+                         System.err.println("ERROR: Failed to load main image for ImageToLetter question."); // KEEP
+                     }
+                 });
                 imagePane.setVisible(true);
                 imagePane.setManaged(true);
                 imageView.setVisible(true);
@@ -247,25 +255,27 @@ public class ASLQuizController implements Initializable {
                 rb.setManaged(true);
                 if (currentQuestion instanceof LetterToImageQuestion) {
                     String imageFilenameOption = options.get(i);
-                    Image optionImage = getImageFromResource(IMAGE_RESOURCE_PATH + "/" + imageFilenameOption);
-                    if (optionImage != null && !optionImage.isError()) {
-                        ImageView optionImageView = new ImageView(optionImage);
-                        optionImageView.setFitWidth(150);
-                        optionImageView.setFitHeight(150);
-                        rb.setGraphic(optionImageView);
-                        rb.setText(null);
-                        rb.setUserData(imageFilenameOption);
-                        rb.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
-                         rb.getStyleClass().add("radio-button");
-                         rb.getStyleClass().add("radio-button-image");
-                    } else {
-                         System.err.println("Q" + questionIndex + " ERROR: Failed to load image for option " + i + ": " + IMAGE_RESOURCE_PATH + "/" + imageFilenameOption); // KEEP
-                         rb.setGraphic(null);
-                         rb.setText("[Image Error]");
-                         rb.setUserData(null);
-                         rb.setContentDisplay(ContentDisplay.TEXT_ONLY);
-                          rb.getStyleClass().add("radio-button");
-                    }
+                    int optionIndex = i;
+                    // The view keeps its size while the image is still decoding, so the layout does not jump.
+                    ImageView optionImageView = new ImageView();
+                    optionImageView.setFitWidth(OPTION_IMAGE_SIZE);
+                    optionImageView.setFitHeight(OPTION_IMAGE_SIZE);
+                    rb.setGraphic(optionImageView);
+                    rb.setText(null);
+                    rb.setUserData(imageFilenameOption);
+                    rb.setContentDisplay(ContentDisplay.GRAPHIC_ONLY);
+                     rb.getStyleClass().add("radio-button");
+                     rb.getStyleClass().add("radio-button-image");
+                    showWhenLoaded(ThumbnailAtlas.load(), atlas -> {
+                        if (atlas == null || !atlas.applyTo(optionImageView, imageFilenameOption)) {
+                             System.err.println("Q" + questionIndex + " ERROR: Failed to load image for option " + optionIndex + ": " + IMAGE_RESOURCE_PATH + "/" + imageFilenameOption); // KEEP
+                             rb.setGraphic(null);
+                             rb.setText("[Image Error]");
+                             rb.setUserData(null);
+                             rb.setContentDisplay(ContentDisplay.TEXT_ONLY);
+                             rb.getStyleClass().remove("radio-button-image");
+                        }
+                    });
                 } else {
                     String letterOption = options.get(i);
                     rb.setText(letterOption);
@@ -275,33 +285,37 @@ public class ASLQuizController implements Initializable {
                      rb.getStyleClass().add("radio-button");
                 }
             }
+            preloadQuestion(questionIndex + 1);
         }
     }
-    private Image getImageFromResource(String resourcePath) {
-         try {
-            URL imageUrl = getClass().getResource(resourcePath);
-            if (imageUrl == null) {
-                 System.err.println("Error: Resource not found: " + resourcePath + " for Q" + questionIndex + "."); // KEEP
-                 return null;
+    /**
+     * Runs show on the FX thread with the loaded image or atlas, or null if it failed to load: right away if it is
+     * already there, otherwise once it is decoded and only if the quiz is still on the same question.
+     */
+    private <T> void showWhenLoaded(CompletableFuture<T> asset, Consumer<T> show) {
+        if (asset.isDone()) {
+            show.accept(asset.getNow(null));
+            return;
+        }
+        int forQuestion = questionIndex;
+        asset.thenAcceptAsync(loaded -> {
+            if (questionIndex == forQuestion) {
+                show.accept(loaded);
             }
-            Image img = new Image(imageUrl.toExternalForm(), true);
-             img.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-                 if (newProgress.doubleValue() >= 1.0) {
-                      if (img.isError()) {
-                          System.err.println("Async Error loading image from URL: " + imageUrl.toExternalForm() + " for Q" + questionIndex + "."); // KEEP
-                      } else {
-                      }
-                 }
-             });
-             if (img.isError()) {
-                 System.err.println("Initial error state loading image from URL: " + imageUrl.toExternalForm() + " for Q" + questionIndex + "."); // KEEP
-                 return null;
-             }
-             return img;
-         } catch (Exception e) {
-             System.err.println("Error loading image resource: " + resourcePath + " - " + e.getMessage() + " for Q" + questionIndex + "."); // KEEP
-             return null;
-         }
+        }, Platform::runLater);
+    }
+    /**
+     * Starts decoding the image a question shows, so it is ready when it comes up. Option and answer
+     * thumbnails come from the thumbnail atlas, loaded once for the whole quiz.
+     */
+    private void preloadQuestion(int index) {
+        if (questions == null || index >= questions.size() || index >= TOTAL_QUESTIONS) {
+            return;
+        }
+        Question question = questions.get(index);
+        if (question instanceof ImageToLetterQuestion) {
+            imageStore.load(((ImageToLetterQuestion) question).getImageFilename(), QUESTION_IMAGE_SIZE, QUESTION_IMAGE_SIZE);
+        }
     }
     @FXML
     private void checkAnswer() {
@@ -382,19 +396,19 @@ public class ASLQuizController implements Initializable {
         alert.setTitle("Incorrect!");
         alert.setHeaderText(null);
         String message = "The correct answer was: " + correctAnswerLetter;
-        ImageView correctImageView = null;
         if (question instanceof LetterToImageQuestion) {
             String correctImageFilename = correctAnswerLetter + "_test.jpg";
-            Image correctAnswerImage = getImageFromResource(IMAGE_RESOURCE_PATH + "/" + correctImageFilename);
-            if (correctAnswerImage != null && !correctAnswerImage.isError()) {
-                 correctImageView = new ImageView(correctAnswerImage);
-                 correctImageView.setFitWidth(100);
-                 correctImageView.setFitHeight(100);
-                 alert.setGraphic(correctImageView);
-            } else {
-                 message += " (Correct image '" + correctImageFilename + "' not found or failed to load)";
-            }
+            ImageView correctImageView = new ImageView();
+            correctImageView.setFitWidth(ANSWER_IMAGE_SIZE);
+            correctImageView.setFitHeight(ANSWER_IMAGE_SIZE);
+            alert.setGraphic(correctImageView);
              alert.setContentText(message);
+            showWhenLoaded(ThumbnailAtlas.load(), atlas -> {
+                if (atlas == null || !atlas.applyTo(correctImageView, correctImageFilename)) {
+                     alert.setGraphic(null);
+                     alert.setContentText(message + " (Correct image '" + correctImageFilename + "' not found or failed to load)");
+                }
+            });
         } else {
              alert.setGraphic(null);
              alert.setContentText(message);
@@ -465,41 +479,22 @@ public class ASLQuizController implements Initializable {
         }
     }
     static class ImageToLetterQuestion extends Question {
-        private final String imageResourcePath;
-        public ImageToLetterQuestion(String imageResourcePath, String correctAnswer, List<String> options) {
+        private final String imageFilename;
+        public ImageToLetterQuestion(String imageFilename, String correctAnswer, List<String> options) {
             super(correctAnswer, options);
-            this.imageResourcePath = imageResourcePath;
+            this.imageFilename = imageFilename;
+        }
+        public String getImageFilename() {
+            return imageFilename;
         }
         @Override
         public String getQuestionText() {
             return "Which letter is represented by the image?";
         }
+        /** @return the image at quiz size if it is already decoded, otherwise null; never blocks */
         @Override
         public Image getImage() {
-            try {
-                 URL imageUrl = getClass().getResource(imageResourcePath);
-                 if (imageUrl == null) {
-                      System.err.println("Error: Resource not found for ImageToLetter question: " + imageResourcePath); // KEEP
-                      return null;
-                 }
-                 Image img = new Image(imageUrl.toExternalForm(), true);
-                 img.progressProperty().addListener((obs, oldProgress, newProgress) -> {
-                     if (newProgress.doubleValue() >= 1.0) {
-                          if (img.isError()) {
-                              System.err.println("Async Error loading image from URL (ImageToLetter): " + imageUrl.toExternalForm()); // KEEP
-                          } else {
-                          }
-                     }
-                 });
-                 if (img.isError()) {
-                     System.err.println("Initial error state loading image from URL (ImageToLetter): " + imageUrl.toExternalForm()); // KEEP
-                     return null;
-                 }
-                 return img;
-            } catch (Exception e) {
-                 System.err.println("Error loading question image (ImageToLetter): " + imageResourcePath + " - " + e.getMessage()); // KEEP
-                return null;
-            }
+            return ImageAssetStore.get().getIfReady(imageFilename, QUESTION_IMAGE_SIZE, QUESTION_IMAGE_SIZE);
         }
     }
     static class LetterToImageQuestion extends Question {
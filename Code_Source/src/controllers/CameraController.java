@@ -2,172 +2,346 @@ package controllers;
 
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.Image;
+import javafx.scene.image.PixelBuffer;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.HBox;
+import javafx.scene.shape.Rectangle;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import application.Main;
+import application.NavigationAware;
 import javafx.stage.Stage;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
-import java.util.Base64;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.ResourceBundle;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javafx.scene.control.Alert;
 import java.io.ByteArrayInputStream;
+import recognition.CommittedSlot;
+import recognition.HandRegion;
+import recognition.Lexicon;
+import recognition.LatestValueSlot;
+import recognition.PipelineMetrics;
+import recognition.PixelFrameSource;
+import recognition.Prediction;
+import recognition.RecognizerListener;
+import recognition.RecognizerService;
+import recognition.TranscriptBuffer;
+import recognition.TranscriptEdit;
+import recognition.WordDecoder;
 
-public class CameraController implements Initializable {
+public class CameraController implements Initializable, RecognizerListener, NavigationAware {
 
     @FXML private Label predictionLabel;
     @FXML private Label translationLabel;
     @FXML private ImageView cameraView;
+    @FXML private Rectangle handRegionBox;
+    @FXML private Label metricsOverlay;
+    @FXML private HBox suggestionsBox;
 
-    private Process pythonProcess;
-    private BufferedReader pythonInputReader;
-    private Thread pythonOutputReaderThread;
-    private ExecutorService monitorExecutor;
-    private Future<?> monitorFuture;
+    private static final long OVERLAY_REFRESH_NANOS = 500_000_000L;
+    private static final int TRANSLATION_DISPLAY_CHARS = 80;
+    private static final int SUGGESTIONS = 4;
+
+    /** A decoded frame waiting for the next pulse, with the times needed for latency metrics. */
+    private record DisplayFrame(Image image, long captureMicros, long receivedNanos, long readyNanos) {
+    }
+
+    private RecognizerService recognizerService;
     private final AtomicBoolean isShuttingDownIntentionally = new AtomicBoolean(false);
 
+    private PixelFrameSource pixelFrames;
+    private PixelBuffer<ByteBuffer> framePixels;
+    private long lastFrameSequence;
+    // Set once opening the raw frames failed, so the error is reported once instead of on every pulse.
+    private boolean pixelFramesFailed;
+    private final PipelineMetrics metrics = PipelineMetrics.get();
+    private final boolean showMetrics = Boolean.getBoolean("speakurhands.metricsOverlay");
+    private long lastOverlayRefresh;
+
+    // Producer threads only publish into these slots; the display timer drains them once per pulse.
+    private final LatestValueSlot<DisplayFrame> frameSlot = new LatestValueSlot<>();
+    private final LatestValueSlot<Prediction> predictionSlot = new LatestValueSlot<>();
+    private final LatestValueSlot<String> translationSlot = new LatestValueSlot<>();
+    private final LatestValueSlot<HandRegion> handRegionSlot = new LatestValueSlot<>();
+    private final LatestValueSlot<List<WordDecoder.Candidate>> suggestionSlot = new LatestValueSlot<>();
+    private AnimationTimer displayTimer;
+    // Only touched by the recognizer thread that delivers edits; the label shows a copy of its tail.
+    private final TranscriptBuffer transcript = new TranscriptBuffer();
+    // Fed on the recognizer thread and reset from the FX thread when a suggestion is accepted; null without a lexicon.
+    private WordDecoder wordDecoder;
+
     @Override
     public void initialize(URL url, ResourceBundle rb) {
         predictionLabel.setText("Prediction: Waiting...");
         translationLabel.setText("Translation: ");
-        startPythonProcess();
+        metricsOverlay.setVisible(showMetrics);
+        Lexicon lexicon = Lexicon.fromSystemProperties();
+        if (lexicon != null) {
+            wordDecoder = new WordDecoder(lexicon);
+        }
+    }
+
+    /** The page is cached by the navigator: capture resumes each time it is shown instead of the view being rebuilt. */
+    @Override
+    public void onShow() {
+        // Attaching resets the translation, so the word being decoded starts over too.
+        resetWordDecoder();
+        pixelFramesFailed = false;
+        startDisplayTimer();
+        startRecognizer();
+    }
+
+    @Override
+    public void onHide() {
+        stopRecognizer();
     }
 
-    private void startPythonProcess() {
+    private void startRecognizer() {
         isShuttingDownIntentionally.set(false);
-        try {
-            String pythonCommand = "python";
-            String pythonScriptRelativePath = "src/controllers/asl_recognition.py";
-
-            ProcessBuilder pb = new ProcessBuilder(pythonCommand, pythonScriptRelativePath);
-            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
-            pythonProcess = pb.start();
-
-            pythonInputReader = new BufferedReader(new InputStreamReader(pythonProcess.getInputStream()));
-
-            pythonOutputReaderThread = new Thread(() -> {
-                String line;
-                try {
-                    while (!isShuttingDownIntentionally.get() && (line = pythonInputReader.readLine()) != null) {
-                        parsePythonOutput(line);
-                    }
-                } catch (IOException e) {
-                    if (!isShuttingDownIntentionally.get()) {
-                        showError("Error Reading Python Output", "Failed to read data from script: " + e.getMessage());
-                    }
-                } finally {
-                    try {
-                        if (pythonInputReader != null) pythonInputReader.close();
-                    } catch (IOException ignored) {}
-                }
-            });
-            pythonOutputReaderThread.setDaemon(true);
-            pythonOutputReaderThread.start();
-
-            monitorExecutor = Executors.newSingleThreadExecutor();
-            monitorFuture = monitorExecutor.submit(() -> {
-                try {
-                    int exitCode = pythonProcess.waitFor();
-                    if (exitCode != 0 && !isShuttingDownIntentionally.get()) {
-                        showError("Python Script Error", "Script terminated unexpectedly (code: " + exitCode + ")");
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                } catch (Exception e) {
-                    if (!isShuttingDownIntentionally.get()) {
-                         showError("Process Monitoring Error", "Unexpected error waiting for script: " + e.getMessage());
-                    }
-                }
-            });
-        } catch (IOException e) {
-            showError("Python Startup Error", "Could not start script: " + e.getMessage());
-        }
-    }
-
-    private void parsePythonOutput(String line) {
-        String[] parts = line.split(":", 2);
-        if (parts.length != 2) return;
-
-        String key = parts[0].trim();
-        String value = parts[1].trim();
-
-        Platform.runLater(() -> {
-            switch (key) {
-                case "FRAME_B64":
-                    try {
-                        byte[] imageBytes = Base64.getDecoder().decode(value);
-                        Image fxImage = new Image(new ByteArrayInputStream(imageBytes));
-                        cameraView.setImage(fxImage);
-                    } catch (Exception e) {
-                         if (!isShuttingDownIntentionally.get()) {
-                             showError("Image Display Error", "Could not decode/display frame: " + e.getMessage());
-                         }
-                    }
-                    break;
-                case "PREDICTION":
-                    predictionLabel.setText("Prediction: " + value);
-                    break;
-                case "TRANSLATION":
-                    translationLabel.setText("Translation: " + value);
-                    break;
-            }
-        });
+        recognizerService = Main.getRecognizerService();
+        recognizerService.attach(this);
     }
 
-    @FXML
-    private void goBackToHome() {
-        isShuttingDownIntentionally.set(true);
-        stopPythonProcess();
+    @Override
+    public void onEncodedFrame(ByteBuffer jpeg, long captureMicros) {
         try {
-            Main.changeScene("/views/secondPage.fxml");
+            // Decode on the recognizer thread straight from its buffer.
+            long decodeStarted = System.nanoTime();
+            Image image = new Image(new ByteArrayInputStream(jpeg.array(), jpeg.arrayOffset() + jpeg.position(), jpeg.remaining()));
+            long decoded = System.nanoTime();
+            metrics.record(PipelineMetrics.Stage.DECODE, (decoded - decodeStarted) / 1000);
+            if (frameSlot.publish(new DisplayFrame(image, captureMicros, decodeStarted, decoded))) {
+                metrics.framesDropped(1);
+                frameConsumed(-1);
+            }
         } catch (Exception e) {
-           showError("Navigation Error", "Could not load previous page: " + e.getMessage());
+            frameConsumed(-1);
+            showError("Image Display Error", "Could not decode/display frame: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void onPrediction(Prediction prediction) {
+        predictionSlot.publish(prediction);
+    }
+
+    @Override
+    public void onTranscriptEdit(TranscriptEdit edit) {
+        if (transcript.apply(edit)) {
+            String tail = transcript.tail(TRANSLATION_DISPLAY_CHARS);
+            translationSlot.publish(transcript.length() > tail.length() ? "\u2026" + tail : tail);
+        }
+    }
+
+    @Override
+    public void onCommittedSlot(CommittedSlot slot) {
+        if (wordDecoder == null) return;
+        List<WordDecoder.Candidate> suggestions;
+        long started = System.nanoTime();
+        synchronized (wordDecoder) {
+            wordDecoder.update(slot);
+            suggestions = wordDecoder.completions(SUGGESTIONS);
         }
+        metrics.record(PipelineMetrics.Stage.WORD_DECODE, (System.nanoTime() - started) / 1000);
+        suggestionSlot.publish(suggestions);
     }
 
-    private void stopPythonProcess() {
-         isShuttingDownIntentionally.set(true);
+    private void resetWordDecoder() {
+        if (wordDecoder == null) return;
+        synchronized (wordDecoder) {
+            wordDecoder.reset();
+        }
+        suggestionSlot.publish(List.of());
+    }
 
-        if (monitorFuture != null && !monitorFuture.isDone()) {
-            monitorFuture.cancel(true);
+    /** Replaces the word being signed with the suggestion, so a long word does not have to be spelled out. */
+    private void acceptSuggestion(String word) {
+        if (recognizerService == null) return;
+        recognizerService.acceptWord(word);
+        resetWordDecoder();
+    }
+
+    private void showSuggestions(List<WordDecoder.Candidate> suggestions) {
+        suggestionsBox.getChildren().clear();
+        for (WordDecoder.Candidate candidate : suggestions) {
+            Button button = new Button(candidate.word());
+            button.getStyleClass().add("suggestion");
+            button.setOnAction(event -> acceptSuggestion(candidate.word()));
+            suggestionsBox.getChildren().add(button);
         }
-        if (monitorExecutor != null && !monitorExecutor.isShutdown()) {
-            monitorExecutor.shutdownNow();
-             try {
-                monitorExecutor.awaitTermination(500, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public void onHandRegion(HandRegion region) {
+        handRegionSlot.publish(region);
+    }
+
+    @Override
+    public void onStatus(String message) {
+        // RecognizerService logs status; the camera page has nothing to show for it.
+    }
+
+    @Override
+    public void onError(String title, String message) {
+        showError(title, message);
+    }
+
+    private void startDisplayTimer() {
+        displayTimer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                drainMailbox();
             }
+        };
+        displayTimer.start();
+    }
+
+    private void drainMailbox() {
+        if (!pollPixelFrames()) {
+            DisplayFrame frame = frameSlot.take();
+            if (frame != null) {
+                cameraView.setImage(frame.image());
+                metrics.record(PipelineMetrics.Stage.RENDER_WAIT, (System.nanoTime() - frame.readyNanos()) / 1000);
+                metrics.recordSince(PipelineMetrics.Stage.FRAME_LATENCY, frame.captureMicros());
+                metrics.frameDisplayed();
+                frameConsumed((System.nanoTime() - frame.receivedNanos()) / 1000);
+            }
+        }
+        Prediction prediction = predictionSlot.take();
+        if (prediction != null) {
+            predictionLabel.setText("Prediction: " + prediction.label());
+            metrics.recordSince(PipelineMetrics.Stage.PREDICTION_LATENCY, prediction.captureMicros());
         }
+        String translation = translationSlot.take();
+        if (translation != null) {
+            translationLabel.setText("Translation: " + translation);
+        }
+        List<WordDecoder.Candidate> suggestions = suggestionSlot.take();
+        if (suggestions != null) {
+            showSuggestions(suggestions);
+        }
+        HandRegion region = handRegionSlot.take();
+        if (region != null) {
+            showHandRegion(region);
+        }
+        if (showMetrics) {
+            refreshMetricsOverlay();
+        }
+    }
 
-        if (pythonProcess != null && pythonProcess.isAlive()) {
-            pythonProcess.destroy();
-            try {
-                if (!pythonProcess.waitFor(1, TimeUnit.SECONDS)) {
-                    pythonProcess.destroyForcibly();
-                }
-            } catch (InterruptedException e) {
-                pythonProcess.destroyForcibly();
-                Thread.currentThread().interrupt();
+    /** Returns the frame's credit to the recognizer, so it may send the next one. */
+    private void frameConsumed(long renderMicros) {
+        RecognizerService service = recognizerService;
+        if (service != null) {
+            service.frameConsumed(renderMicros);
+        }
+    }
+
+    private void refreshMetricsOverlay() {
+        long now = System.nanoTime();
+        if (now - lastOverlayRefresh < OVERLAY_REFRESH_NANOS) return;
+        lastOverlayRefresh = now;
+        metricsOverlay.setText(metrics.format());
+    }
+
+    /** Maps the hand box from camera pixels onto the scaled camera view. */
+    private void showHandRegion(HandRegion region) {
+        if (region.isEmpty() || region.frameWidth() == 0 || region.frameHeight() == 0) {
+            handRegionBox.setVisible(false);
+            return;
+        }
+        double scaleX = cameraView.getLayoutBounds().getWidth() / region.frameWidth();
+        double scaleY = cameraView.getLayoutBounds().getHeight() / region.frameHeight();
+        handRegionBox.setX(region.x() * scaleX);
+        handRegionBox.setY(region.y() * scaleY);
+        handRegionBox.setWidth(region.width() * scaleX);
+        handRegionBox.setHeight(region.height() * scaleY);
+        handRegionBox.setVisible(true);
+    }
+
+    /** @return true if the recognizer delivers raw pixel frames, which then replace encoded frames */
+    private boolean pollPixelFrames() {
+        if (pixelFramesFailed) return false;
+        try {
+            // Re-queried every pulse: a restarted recognizer comes with a new frame source.
+            PixelFrameSource source = recognizerService == null ? null : recognizerService.openPixelFrames();
+            if (source == null) return false;
+            if (source != pixelFrames) {
+                pixelFrames = source;
+                framePixels = null;
+            }
+            if (framePixels == null || framePixels.getWidth() != pixelFrames.getWidth() || framePixels.getHeight() != pixelFrames.getHeight()) {
+                ByteBuffer pixels = ByteBuffer.allocateDirect(pixelFrames.getFrameSize());
+                framePixels = new PixelBuffer<>(pixelFrames.getWidth(), pixelFrames.getHeight(), pixels, PixelFormat.getByteBgraPreInstance());
+                cameraView.setImage(new WritableImage(framePixels));
+                lastFrameSequence = 0;
             }
+            if (pixelFrames.latestSequence() == lastFrameSequence) return true;
+            framePixels.updateBuffer(buffer -> {
+                long sequence = pixelFrames.readLatest(buffer.getBuffer());
+                if (sequence <= 0) {
+                    // Nothing new was copied, so nothing needs uploading.
+                    return Rectangle2D.EMPTY;
+                }
+                // Raw frames never pass the pipe reader, so they are counted here.
+                long arrived = lastFrameSequence > 0 && sequence > lastFrameSequence ? sequence - lastFrameSequence : 1;
+                metrics.framesReceived(arrived);
+                metrics.framesDropped(arrived - 1);
+                metrics.frameDisplayed();
+                metrics.recordSince(PipelineMetrics.Stage.FRAME_LATENCY, pixelFrames.getLastTimestampMicros());
+                lastFrameSequence = sequence;
+                return null;
+            });
+        } catch (IOException e) {
+            // Stop polling the raw frames until the page is shown again; encoded frames still display.
+            pixelFramesFailed = true;
+            pixelFrames = null;
+            framePixels = null;
+            showError("Image Display Error", "Could not open recognizer frames: " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private void stopDisplayTimer() {
+        if (displayTimer != null) {
+            displayTimer.stop();
         }
+        frameSlot.clear();
+        predictionSlot.clear();
+        translationSlot.clear();
+        handRegionSlot.clear();
+        suggestionSlot.clear();
+        pixelFrames = null;
+        framePixels = null;
+        lastFrameSequence = 0;
+    }
 
-        if (pythonOutputReaderThread != null && pythonOutputReaderThread.isAlive()) {
-             pythonOutputReaderThread.interrupt();
+    @FXML
+    private void goBackToHome() {
+        isShuttingDownIntentionally.set(true);
+        try {
+            Main.changeScene("/views/secondPage.fxml");
+        } catch (Exception e) {
+           showError("Navigation Error", "Could not load previous page: " + e.getMessage());
         }
+    }
 
-         try {
-            if (pythonInputReader != null) pythonInputReader.close();
-         } catch (IOException ignored) {}
+    private void stopRecognizer() {
+        isShuttingDownIntentionally.set(true);
+        if (recognizerService != null) {
+            recognizerService.detach(this);
+        }
+        stopDisplayTimer();
     }
 
     private void showError(String title, String message) {
@@ -184,7 +358,7 @@ public class CameraController implements Initializable {
 
     public void shutdown() {
         isShuttingDownIntentionally.set(true);
-        stopPythonProcess();
+        stopRecognizer();
     }
 
     public void setPrimaryStage(Stage stage) {
@@ -194,4 +368,4 @@ public class CameraController implements Initializable {
             });
         }
     }
-}
\ No newline at end of file
+}
@@ -1,25 +1,16 @@
 package controllers;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
-import javafx.stage.Stage;
-import javafx.scene.Node;
 import javafx.event.ActionEvent;
-import javafx.scene.image.ImageView;
-import javafx.scene.image.Image;
 import java.io.IOException;
 
+import application.Main;
+
 public class HomeController {
 
 
     @FXML
     private void handleStart(ActionEvent event) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/views/secondPage.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
-
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        Main.changeScene("/views/secondPage.fxml");
     }
 }
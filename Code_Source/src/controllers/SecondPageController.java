@@ -1,11 +1,7 @@
 package controllers;
 
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.stage.Stage;
-import javafx.scene.Node;
 import javafx.event.ActionEvent;
 import java.io.IOException;
 
@@ -14,12 +10,7 @@ import application.Main;
 public class SecondPageController {
     @FXML
     private void goToCamera(ActionEvent event) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/views/camera.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
-
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        Main.changeScene("/views/camera.fxml");
     }
     @FXML
     private Button backButton;
@@ -35,11 +26,6 @@ public class SecondPageController {
 
     @FXML
     private void goToLearn(ActionEvent event) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/views/learn.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
-
-        Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-        stage.setScene(scene);
-        stage.show();
+        Main.changeScene("/views/learn.fxml");
     }
 }
@@ -1,33 +1,63 @@
 import numpy as np
-import tensorflow as tf
 import cv2
 import os
 import time
 import sys
-import base64
+import argparse
+import threading
+from collections import namedtuple
+
+from recognizer_protocol import create_writer, TIMING_FRAME, TIMING_PREDICTION
+from shared_frame_ring import SharedFrameRingWriter
+from recognizer_control import ControlChannel
+from prediction_smoothing import PredictionSmoother
+from batched_inference import BatchedPredictor
+from hand_roi import HandTracker, crop
+from motion_gate import MotionGate
+from frame_source import open_frame_source
+from transcript import Transcript
+from model_runtime import MODEL_FORMATS, DEFAULT_MODEL_PATHS, load_runner
+from frame_flow import FrameFlow
+from pipeline_stages import (CLOSED, LockedWriter, OutputQueue, QueuedWriter, StageQueue, StageReport, StageStats,
+                             available_cpus, parse_cpus, pin_current_thread)
 
 IMAGE_SIZE = (128, 128)
 CLASS_NAMES = [chr(i) for i in range(ord('A'), ord('Z') + 1)] + ['nothing', 'del', 'space']
 
-MODEL_PATH = 'training/best_model.keras'
 PREDICTION_INTERVAL = 5 
+GATE_REPORT_INTERVAL = 60
+# Fed to the smoother when no hand is in view, so the model does not run on empty frames.
+NOTHING_PROBABILITIES = np.eye(len(CLASS_NAMES), dtype=np.float32)[CLASS_NAMES.index('nothing')]
+# Travels with a frame through the predictor: sequence number, capture time in epoch
+# microseconds (the clock the Java side measures end-to-end latency against) and the
+# monotonic time it was queued, or None if it was never queued for inference.
+FrameStamp = namedtuple('FrameStamp', 'sequence capture_us queued')
+
+writer = create_writer('text')
+
+def report_status(message):
+    """Send a STATUS message through the active protocol writer."""
+    writer.send_status(message)
 
-def load_model():
-    """Load and return the trained TensorFlow Keras model."""
-    abs_model_path = os.path.abspath(MODEL_PATH)
+def load_model(model_format='keras', model_path=None, threads=None, inter_op_threads=None):
+    """Load the trained classifier in the requested format; returns a batch runner or None.
+
+    TensorFlow is only imported for the Keras and TFLite formats, so the ONNX format also
+    starts faster. `threads` and `inter_op_threads` size the runtime's thread pools; None
+    keeps its defaults.
+    """
+    abs_model_path = os.path.abspath(model_path or DEFAULT_MODEL_PATHS[model_format])
     if not os.path.exists(abs_model_path):
-        print(f"STATUS:Error - Model file not found at {abs_model_path}", file=sys.stderr)
-        sys.stderr.flush()
+        report_status(f"Error - Model file not found at {abs_model_path}")
         return None
 
     try:
-        model = tf.keras.models.load_model(abs_model_path)
-        print(f"STATUS:Model loaded successfully from {abs_model_path}", file=sys.stderr)
-        sys.stderr.flush()
-        return model
+        runner = load_runner(abs_model_path, model_format, IMAGE_SIZE, threads, inter_op_threads)
+        report_status(f"Model loaded successfully from {abs_model_path} ({model_format}, "
+                      f"{threads or 'default'} inference threads)")
+        return runner
     except Exception as e:
-        print(f"STATUS:Error - Failed to load model: {e}", file=sys.stderr)
-        sys.stderr.flush()
+        report_status(f"Error - Failed to load model: {e}")
         return None
 
 def preprocess_frame(frame):
@@ -37,127 +67,659 @@ def preprocess_frame(frame):
         img = img.astype(np.float32) / 255.0  
         return np.expand_dims(img, axis=0) 
     except Exception as e:
-        print(f"STATUS:Error - Frame preprocessing failed: {e}", file=sys.stderr)
-        sys.stderr.flush()
+        report_status(f"Error - Frame preprocessing failed: {e}")
         return None
 
-def predict_from_frame(model, frame):
-    """Predict hand gesture from a frame using the loaded model."""
+def predict_probabilities(predictor, frame):
+    """Return the class probability vector for a frame, or None on failure."""
+    try:
+        return predictor.predict_one(frame)
+    except Exception as e:
+        report_status(f"Error - Prediction failed: {e}")
+        return None
+
+def predict_from_frame(predictor, frame):
+    """Predict hand gesture from a frame using the loaded model; returns (class, confidence, probabilities)."""
+    predictions = predict_probabilities(predictor, frame)
+    if predictions is None:
+        return "Error", 0.0, None
+    predicted_index = np.argmax(predictions)
+    confidence = float(predictions[predicted_index])
+    predicted_class = CLASS_NAMES[predicted_index]
+    return predicted_class, confidence, predictions
+
+def top_scores(probabilities, k):
+    """The k most probable classes as (index, probability) pairs, best first."""
+    return [(int(i), float(probabilities[i])) for i in np.argsort(probabilities)[::-1][:k]]
+
+def run_batch(predictor):
+    """Run the queued frames; returns [] if there were none or inference failed."""
     try:
-        processed_img = preprocess_frame(frame)
-        if processed_img is None:
-            return "Error", 0.0
-
-        predictions = model.predict(processed_img, verbose=0)
-        predicted_index = np.argmax(predictions)
-        confidence = float(predictions[0][predicted_index])
-        predicted_class = CLASS_NAMES[predicted_index]
-        return predicted_class, confidence
+        return predictor.flush()
     except Exception as e:
-        print(f"STATUS:Error - Prediction failed: {e}", file=sys.stderr)
-        sys.stderr.flush()
-        return "Error", 0.0
-
-def handle_prediction_result(prediction, translation_history):
-    """Update the translation history based on the prediction result."""
-    if prediction == 'del' and translation_history:
-        translation_history.pop()
-    elif prediction == 'space':
-        if not translation_history or translation_history[-1] != ' ':
-            translation_history.append(' ')
-    elif prediction not in ['nothing', 'del', 'space']:
-
-         last_meaningful_char = next((char for char in reversed(translation_history) if char not in (' ', 'nothing', 'del')), None)
-         if prediction != last_meaningful_char:
-             translation_history.append(prediction)
-
-    return translation_history 
-
-def realtime_detection_for_java():
-    """Main loop for camera capture, processing, prediction, and communication with Java."""
-    model = load_model()
+        report_status(f"Error - Prediction failed: {e}")
+        predictor.clear()
+        return []
+
+def send_prediction_timing(out, stamp, predictor):
+    """Send batch wait and inference time for a frame classified in the predictor's last run."""
+    if stamp.queued is None or predictor.last_started is None:
+        wait_us, inference_us = 0, 0
+    else:
+        wait_us = (predictor.last_started - stamp.queued) * 1e6
+        inference_us = predictor.last_duration * 1e6
+    out.send_timing(TIMING_PREDICTION, stamp.sequence, stamp.capture_us, wait_us, inference_us)
+
+class FrameSender:
+    """Sends frames to the UI as JPEG over the protocol writer, or raw into the shared-memory ring.
+
+    With a FrameFlow, JPEG frames are only sent while the UI has granted credits, at the size,
+    quality and rate the flow control picked.
+    """
+
+    def __init__(self, shm_path=None, shm_slots=4, flow=None):
+        self.shm_path = shm_path
+        self.shm_slots = shm_slots
+        self.flow = flow if not shm_path else None
+        self.frame_ring = None
+
+    def ready(self):
+        """True if the next frame may be sent; with flow control this spends a frame credit."""
+        return self.flow is None or self.flow.take()
+
+    def report_flow(self, out):
+        """Let the flow control adjust itself, and send a FLOW message when it changed or one is due."""
+        if self.flow is not None and self.flow.adapt():
+            self.flow.report(out)
+
+    def send(self, out, frame, stamp, read_us):
+        try:
+            encode_started = time.monotonic()
+            if self.shm_path:
+                if self.frame_ring is None:
+                    self.frame_ring = SharedFrameRingWriter(self.shm_path, frame.shape[1], frame.shape[0], self.shm_slots)
+                    report_status(f"Shared frame ring ready at {self.shm_path}")
+                self.frame_ring.write(frame)
+                out.send_timing(TIMING_FRAME, stamp.sequence, stamp.capture_us, read_us,
+                                (time.monotonic() - encode_started) * 1e6)
+                out.flush()
+            else:
+                if self.flow is not None:
+                    ret_encode, buffer = self.flow.encode(frame)
+                else:
+                    ret_encode, buffer = cv2.imencode('.jpg', frame, [int(cv2.IMWRITE_JPEG_QUALITY), 80])
+                if not ret_encode:
+                    report_status("Warning - Failed to encode frame.")
+                    self._refund()
+                    return
+
+                out.send_timing(TIMING_FRAME, stamp.sequence, stamp.capture_us, read_us,
+                                (time.monotonic() - encode_started) * 1e6)
+                out.send_frame(buffer.reshape(-1).data)
+        except Exception as e:
+             report_status(f"Error - Failed during frame encoding/sending: {e}")
+             self._refund()
+
+    def _refund(self):
+        """Give back the credit ready() spent on a frame that never reached the UI, which would never return it."""
+        if self.flow is not None:
+            self.flow.grant(1)
+
+    def close(self):
+        if self.frame_ring is not None:
+            self.frame_ring.close()
+        if self.flow is not None:
+            report_status(self.flow.summary())
+
+class Recognition:
+    """Hand tracking, classification, smoothing and translation of the captured frames.
+
+    Shared by the single-threaded loop and the inference thread of the threaded pipeline;
+    `out` is the protocol writer its messages go to, flushed after each group of messages.
+    The translation goes out as EDIT messages, one per change, with a full SNAPSHOT at the
+    start, after a reset and periodically, so no update has to resend the whole text. Each
+    committed class other than 'nothing' is also sent as a SLOT with its probability vector,
+    from which the Java side decodes dictionary words. With --top-k, each classified frame's
+    top classes go out as SCORES before smoothing, for the Java event log.
+    """
+
+    def __init__(self, options, predictor, out):
+        self.options = options
+        self.predictor = predictor
+        self.out = out
+        self.tracker = HandTracker(detect_every=options.roi_detect_every) if options.hand_roi != 'off' else None
+        self.smoother = PredictionSmoother(len(CLASS_NAMES), options.window, options.threshold,
+                                           options.stable_frames, options.smoothing)
+        self.roi = None
+        self.sent_roi = False
+        self.transcript = Transcript()
+        self.last_prediction_time = time.time()
+        self.send_snapshot()
+
+    def pause(self):
+        """Drop queued frames and tracking state while capture is paused."""
+        self.last_prediction_time = time.time()
+        self.smoother.reset()
+        self.predictor.clear()
+        if self.tracker is not None:
+            self.tracker.reset()
+
+    def reset(self):
+        """Clear the translation, as the RESET command asks."""
+        self.transcript.reset()
+        self.smoother.reset()
+        self.predictor.clear()
+        self.sent_roi = False
+        self.send_snapshot()
+
+    def send_snapshot(self):
+        self.out.send_snapshot(*self.transcript.snapshot())
+        self.out.flush()
+
+    def commit(self, prediction, probabilities=None):
+        """Apply a committed prediction to the transcript and send the edit it makes, if any."""
+        if probabilities is not None and prediction != 'nothing':
+            self.out.send_slot(CLASS_NAMES.index(prediction), probabilities)
+        edit = self.transcript.apply(prediction)
+        if edit is not None:
+            self.out.send_edit(*edit)
+        self.send_snapshot_if_due()
+
+    def accept(self, word):
+        """Replace the word being signed with a completion the user picked, as ACCEPT asks."""
+        for edit in self.transcript.accept_word(word):
+            self.out.send_edit(*edit)
+        self.send_snapshot_if_due()
+        self.out.flush()
+
+    def send_snapshot_if_due(self):
+        if self.transcript.snapshot_due():
+            self.out.send_snapshot(*self.transcript.snapshot())
+
+    def process(self, frame, stamp, current_time, run_inference=True):
+        """Track and classify a captured frame; with run_inference False only a due batch is run."""
+        options, predictor, out = self.options, self.predictor, self.out
+        if self.tracker is not None and run_inference:
+            new_roi = self.tracker.update(frame)
+            if new_roi != self.roi or not self.sent_roi:
+                self.roi = new_roi
+                self.sent_roi = True
+                out.send_hand_region(self.roi, frame.shape[1], frame.shape[0])
+                out.flush()
+
+        if options.mode == 'stream':
+            results = []
+            if run_inference and stamp.sequence % options.stride == 0:
+                if self.tracker is not None and self.roi is None:
+                    # Keep capture order: anything already queued is smoothed first.
+                    results = run_batch(predictor) + [(stamp, NOTHING_PROBABILITIES)]
+                else:
+                    predictor.submit(crop(frame, self.roi) if self.roi else frame,
+                                     stamp._replace(queued=time.monotonic()))
+            self.poll(results)
+        elif run_inference and current_time - self.last_prediction_time >= PREDICTION_INTERVAL:
+            if self.tracker is not None and self.roi is None:
+                prediction, confidence, probabilities = 'nothing', 1.0, None
+            else:
+                prediction, confidence, probabilities = predict_from_frame(
+                    predictor, crop(frame, self.roi) if self.roi else frame)
+                stamp = stamp._replace(queued=predictor.last_started)
+                if options.top_k > 0 and probabilities is not None:
+                    out.send_scores(stamp.sequence, stamp.capture_us, top_scores(probabilities, options.top_k))
+
+            send_prediction_timing(out, stamp, predictor)
+            out.send_prediction(prediction, confidence)
+            if prediction != "Error":
+                self.commit(prediction, probabilities)
+            out.flush()
+
+            self.last_prediction_time = current_time
+
+    def poll(self, results=()):
+        """Run the queued batch once it is due and send the smoothed predictions in capture order."""
+        results = list(results)
+        if self.predictor.ready():
+            results += run_batch(self.predictor)
+        for frame_stamp, probabilities in results:
+            if self.options.top_k > 0:
+                self.out.send_scores(frame_stamp.sequence, frame_stamp.capture_us,
+                                     top_scores(probabilities, self.options.top_k))
+            index, confidence, committed = self.smoother.update(probabilities)
+            send_prediction_timing(self.out, frame_stamp, self.predictor)
+            self.out.send_prediction(CLASS_NAMES[index], confidence)
+            if committed is not None:
+                self.commit(CLASS_NAMES[committed], self.smoother.window_mean())
+        if results:
+            self.out.flush()
+
+def load_predictor(options, threads=None):
+    """Load the model and wrap it in a BatchedPredictor; exits after a STATUS error if loading fails."""
+    model = load_model(options.model_format, options.model_path, threads, options.inter_op_threads)
     if model is None:
-        print("STATUS:Error - Exiting due to model load failure.", file=sys.stderr)
-        sys.stderr.flush()
+        report_status("Error - Exiting due to model load failure.")
         time.sleep(5) 
         sys.exit(1)
+    return BatchedPredictor(model, IMAGE_SIZE, options.batch_size, options.batch_wait_ms / 1000.0)
 
-    cap = cv2.VideoCapture(0)
+def open_source(options):
+    """Open the configured frame source; exits after a STATUS error if it cannot be opened."""
+    cap = open_frame_source(options.source, options.pacing, options.source_fps, options.loop)
     if not cap.isOpened():
-        print("STATUS:Error - Cannot access camera.", file=sys.stderr)
-        sys.stderr.flush()
+        report_status(f"Error - Cannot open frame source {cap.describe()}.")
         time.sleep(5)
         sys.exit(1)
+    report_status(f"Opened {cap.describe()}. Starting detection loop.")
+    return cap
+
+def read_frame(cap):
+    """Read and mirror the next frame; returns (frame or None, capture time in epoch microseconds, read seconds)."""
+    read_started = time.monotonic()
+    ret, frame = cap.read()
+    capture_us = time.time_ns() // 1000
+    read_duration = time.monotonic() - read_started
+    if ret and cap.mirror:
+        frame = cv2.flip(frame, 1) 
+    return (frame if ret else None), capture_us, read_duration
+
+def report_source_finished(frame_index, source_start):
+    elapsed = time.time() - source_start
+    report_status(f"Frame source finished after {frame_index} frames in {elapsed:.1f} s "
+                  f"({frame_index / max(elapsed, 1e-6):.1f} frames/s).")
+
+def report_batches(predictor):
+    if predictor.batches_run:
+        report_status(f"Ran {predictor.frames_run} frames in {predictor.batches_run} batches "
+                      f"(mean batch size {predictor.mean_batch_size():.2f}).")
+
+def realtime_detection_for_java(options=None, control=None):
+    """Main loop for camera capture, processing, prediction, and communication with Java.
 
-    print("STATUS:Camera opened. Starting detection loop.", file=sys.stderr)
-    sys.stderr.flush()
+    In 'stream' mode every options.stride-th frame is queued for classification and run in
+    micro-batches of up to options.batch_size frames, waiting at most options.batch_wait_ms
+    for a batch to fill. Results are smoothed in capture order and a letter is committed
+    once the smoothed prediction is confident and stable; 'interval' mode classifies one
+    frame every PREDICTION_INTERVAL seconds. Unless options.hand_roi is 'off', only the
+    tracked hand region is classified and frames without a hand count as 'nothing'. Unless
+    options.motion_gate is 'off', a static scene stops inference and throttles the frames
+    sent to the UI until something moves again. With the 'shm' transport frames are written raw
+    into a shared-memory ring instead of being JPEG-encoded onto stdout. Every frame sent and
+    every prediction is preceded by a TIMING message with the frame's sequence number, capture
+    time and stage durations, which the Java side turns into latency percentiles. When a control
+    channel is given, the loop idles while paused and exits once the channel closes.
+    """
+    options = options or parse_args([])
+    predictor = load_predictor(options, options.inference_threads)
+    cap = open_source(options)
+    source_start = time.time()
 
-    last_prediction_time = time.time()
-    translation_history = []
+    sender = FrameSender(options.shm_path if options.transport == 'shm' else None, options.shm_slots,
+                         control.flow if control is not None else None)
+    recognition = Recognition(options, predictor, writer)
+    frame_index = 0
+    gate = MotionGate(options.idle_after, options.idle_fps) if options.motion_gate != 'off' else None
+    last_gate_report = time.time()
 
     try:
         while True:
-            ret, frame = cap.read()
-            if not ret:
-                print("STATUS:Warning - Failed to grab frame. Retrying...", file=sys.stderr)
-                sys.stderr.flush()
+            if control is not None:
+                if control.closed.is_set():
+                    report_status("Control channel closed. Stopping.")
+                    break
+                if control.take_reset():
+                    recognition.reset()
+                for word in control.take_accepted():
+                    recognition.accept(word)
+                if control.paused.is_set():
+                    time.sleep(0.05)
+                    recognition.pause()
+                    if gate is not None:
+                        gate.reset()
+                    continue
+
+            frame, capture_us, read_duration = read_frame(cap)
+            if frame is None and cap.exhausted:
+                report_source_finished(frame_index, source_start)
+                break
+            if frame is None:
+                report_status("Warning - Failed to grab frame. Retrying...")
                 time.sleep(0.1)
                 if not cap.isOpened():
-                    print("STATUS:Error - Camera became inaccessible.", file=sys.stderr)
-                    sys.stderr.flush()
+                    report_status("Error - Camera became inaccessible.")
                     break 
                 continue
 
-            frame = cv2.flip(frame, 1) 
             current_time = time.time()
+            frame_index += 1
+            stamp = FrameStamp(frame_index, capture_us, None)
+            if gate is not None:
+                gate.update(frame)
+                if current_time - last_gate_report >= GATE_REPORT_INTERVAL:
+                    report_status(gate.summary())
+                    last_gate_report = current_time
+            run_inference = gate is None or gate.allow_inference()
 
-            try:
-                ret_encode, buffer = cv2.imencode('.jpg', frame, [int(cv2.IMWRITE_JPEG_QUALITY), 80])
-                if not ret_encode:
-                    print("STATUS:Warning - Failed to encode frame.", file=sys.stderr)
-                    sys.stderr.flush()
-                    continue
+            if (gate is None or gate.allow_display()) and sender.ready():
+                sender.send(writer, frame, stamp, read_duration * 1e6)
+            sender.report_flow(writer)
+
+            recognition.process(frame, stamp, current_time, run_inference)
+
+            # Frame credits pace the frames sent to the UI; without them a fixed pause keeps the loop from spinning.
+            if cap.live and sender.flow is None:
+                time.sleep(0.02)
+
+    except KeyboardInterrupt:
+        report_status("Received KeyboardInterrupt. Shutting down.")
+    except Exception as e:
+         report_status(f"Error - An unexpected error occurred in the main loop: {e}")
+    finally:
+        report_status("Initiating shutdown sequence.")
+        if cap.isOpened():
+            cap.release()
+            report_status(f"Released {cap.describe()}.")
+        sender.close()
+        if gate is not None:
+            report_status(gate.summary())
+        report_batches(predictor)
+        report_status("Shutdown complete.")
+        writer.flush()
+
+def threaded_detection_for_java(options=None, control=None):
+    """The same recognizer split into capture, encode, inference and output threads.
+
+    The capture thread reads frames and runs the motion gate, the encode thread sends the
+    frames shown in the UI, the inference thread tracks the hand and classifies, and the
+    calling thread is the only one writing to stdout. Stages are connected by bounded queues
+    of options.queue_size frames, the inference queue holding at least a batch; the inference
+    thread takes every frame already queued into the batch it is building, so batches fill
+    once inference falls behind the camera. For a live camera a full queue drops its oldest
+    frame, so a slow stage costs frames instead of latency, while replayed sources wait and
+    keep every frame. options.inference_cpus pins the inference thread, and the runtime threads
+    created while the model loads, to those CPUs; the other stages run on
+    options.capture_cpus, or on the remaining CPUs. Per-stage utilization is reported every
+    options.utilization_interval seconds and at shutdown.
+    """
+    global writer
+    options = options or parse_args([])
+    writer = LockedWriter(writer)
+    inference_cpus = parse_cpus(options.inference_cpus)
+    other_cpus = parse_cpus(options.capture_cpus) or (available_cpus() - inference_cpus if inference_cpus else None)
+    if not pin_current_thread(inference_cpus):
+        report_status(f"Warning - Could not pin inference to CPUs {sorted(inference_cpus)}; stages run unpinned.")
+        inference_cpus = other_cpus = None
+    threads = options.inference_threads or (len(inference_cpus) if inference_cpus else None)
+    predictor = load_predictor(options, threads)
 
-                frame_base64 = base64.b64encode(buffer.tobytes()).decode('utf-8')
+    stop = threading.Event()
+    pause_requested = threading.Event()
+    reset_requested = threading.Event()
+    flow = control.flow if control is not None and options.transport == 'pipe' else None
+    # Frames only ever wait for room in their own lane; with credits it never holds more than the window.
+    output_queue = OutputQueue(options.queue_size * 4, max(options.queue_size, flow.window if flow else 0))
+    recognition = Recognition(options, predictor, QueuedWriter(output_queue))
+    capture_stats, encode_stats, inference_stats, output_stats = (
+        StageStats(name) for name in ('capture', 'encode', 'inference', 'output'))
 
-                print(f"FRAME_B64:{frame_base64}")
-                sys.stdout.flush() 
+    def inference_stage():
+        # Affinity is inherited when a thread starts, and by then this thread has been
+        # re-pinned to the other CPUs, so move the inference thread back.
+        pin_current_thread(inference_cpus)
+        while True:
+            if reset_requested.is_set():
+                reset_requested.clear()
+                recognition.reset()
+            if pause_requested.is_set():
+                pause_requested.clear()
+                recognition.pause()
+            if control is not None:
+                for word in control.take_accepted():
+                    recognition.accept(word)
+            item = inference_queue.get(timeout=0.005 if len(predictor) else 0.05)
+            if item is CLOSED:
+                # The source ended: classify what is still queued rather than dropping it.
+                recognition.poll(run_batch(predictor))
+                break
+            if item is None and not predictor.ready():
+                continue
+            inference_stats.begin()
+            handled = 0
+            try:
+                if item is None:
+                    recognition.poll()
+                else:
+                    recognition.process(item[1], item[0], time.time())
+                    handled = 1
+                    # Frames that queued up while the last batch ran join the one being built,
+                    # so under load batches fill up instead of running a frame or two at a time.
+                    while len(inference_queue) and len(predictor):
+                        item = inference_queue.get(0)
+                        if item is CLOSED or item is None:
+                            break
+                        recognition.process(item[1], item[0], time.time())
+                        handled += 1
             except Exception as e:
-                 print(f"STATUS:Error - Failed during frame encoding/sending: {e}", file=sys.stderr)
-                 sys.stderr.flush()
+                report_status(f"Error - Inference failed: {e}")
+            finally:
+                inference_stats.end(handled)
+
+    if other_cpus and not pin_current_thread(other_cpus):
+        report_status("Warning - Could not pin capture, encode and output to CPUs "
+                      f"{sorted(other_cpus)}; they run unpinned.")
 
-            if current_time - last_prediction_time >= PREDICTION_INTERVAL:
-                prediction, confidence = predict_from_frame(model, frame)
+    cap = open_source(options)
+    live = cap.live
+    encode_queue = StageQueue(options.queue_size, drop_oldest=live)
+    # Deep enough to hold a whole batch of frames that arrive while the previous one runs.
+    batch_room = options.batch_size if options.mode == 'stream' else 0
+    inference_queue = StageQueue(max(options.queue_size, batch_room), drop_oldest=live)
+    output_queue.drop_bulk = live and flow is None
+    sender = FrameSender(options.shm_path if options.transport == 'shm' else None, options.shm_slots, flow)
+    report = StageReport([capture_stats, encode_stats, inference_stats, output_stats],
+                         {'encode': encode_queue, 'inference': inference_queue})
 
-                if prediction != "Error":
-                     translation_history = handle_prediction_result(prediction, translation_history)
+    def capture_stage():
+        gate = MotionGate(options.idle_after, options.idle_fps) if options.motion_gate != 'off' else None
+        frame_index = 0
+        source_start = time.time()
+        last_gate_report = last_utilization_report = source_start
+        try:
+            while not stop.is_set():
+                if control is not None:
+                    if control.closed.is_set():
+                        report_status("Control channel closed. Stopping.")
+                        break
+                    if control.take_reset():
+                        reset_requested.set()
+                    if control.paused.is_set():
+                        time.sleep(0.05)
+                        pause_requested.set()
+                        if gate is not None:
+                            gate.reset()
+                        continue
 
-               
-                print(f"PREDICTION:{prediction}")
+                capture_stats.begin()
+                frame, capture_us, read_duration = read_frame(cap)
+                if frame is None:
+                    capture_stats.end(0)
+                    if cap.exhausted:
+                        report_source_finished(frame_index, source_start)
+                        break
+                    report_status("Warning - Failed to grab frame. Retrying...")
+                    time.sleep(0.1)
+                    if not cap.isOpened():
+                        report_status("Error - Camera became inaccessible.")
+                        break
+                    continue
 
-                display_translation = ''.join([c for c in translation_history if c not in ('nothing', 'del')])
-                print(f"TRANSLATION:{display_translation}")
-                sys.stdout.flush() 
+                current_time = time.time()
+                frame_index += 1
+                stamp = FrameStamp(frame_index, capture_us, None)
+                if gate is not None:
+                    gate.update(frame)
+                    if current_time - last_gate_report >= GATE_REPORT_INTERVAL:
+                        report_status(gate.summary())
+                        last_gate_report = current_time
+                capture_stats.end()
 
-                last_prediction_time = current_time
+                if gate is None or gate.allow_display():
+                    encode_queue.put((stamp, frame, read_duration * 1e6))
+                if gate is None or gate.allow_inference():
+                    inference_queue.put((stamp, frame))
+                if current_time - last_utilization_report >= options.utilization_interval:
+                    report_status(report.summary())
+                    last_utilization_report = current_time
+        except Exception as e:
+            report_status(f"Error - An unexpected error occurred in the capture thread: {e}")
+        finally:
+            if gate is not None:
+                report_status(gate.summary())
+            encode_queue.close()
+            inference_queue.close()
 
-            time.sleep(0.02) 
+    def encode_stage():
+        out = QueuedWriter(output_queue, bulk=True)
+        while True:
+            item = encode_queue.get()
+            if item is CLOSED:
+                break
+            encode_stats.begin()
+            stamp, frame, read_us = item
+            sent = sender.ready()
+            if sent:
+                sender.send(out, frame, stamp, read_us)
+            sender.report_flow(out)
+            out.flush()
+            encode_stats.end(1 if sent else 0)
 
+    stages = [threading.Thread(target=inference_stage, name='inference', daemon=True),
+              threading.Thread(target=capture_stage, name='capture', daemon=True),
+              threading.Thread(target=encode_stage, name='encode', daemon=True)]
+    for stage in stages:
+        stage.start()
+
+    try:
+        while True:
+            group = output_queue.get(timeout=0.1)
+            if group is None:
+                if not any(stage.is_alive() for stage in stages) and not len(output_queue):
+                    break
+                continue
+            output_stats.begin()
+            with writer.lock:
+                for name, args in group:
+                    getattr(writer.writer, name)(*args)
+                if not len(output_queue):
+                    writer.writer.flush()
+            output_stats.end(len(group))
     except KeyboardInterrupt:
-        print("STATUS:Received KeyboardInterrupt. Shutting down.", file=sys.stderr)
-        sys.stderr.flush()
+        report_status("Received KeyboardInterrupt. Shutting down.")
     except Exception as e:
-         print(f"STATUS:Error - An unexpected error occurred in the main loop: {e}", file=sys.stderr)
-         sys.stderr.flush()
+         report_status(f"Error - An unexpected error occurred in the output loop: {e}")
     finally:
-        print("STATUS:Initiating shutdown sequence.", file=sys.stderr)
+        report_status("Initiating shutdown sequence.")
+        stop.set()
+        for stage_queue in (encode_queue, inference_queue, output_queue):
+            stage_queue.close()
+        for stage in stages:
+            stage.join(timeout=2)
         if cap.isOpened():
             cap.release()
-            print("STATUS:Camera released.", file=sys.stderr)
-        print("STATUS:Shutdown complete.", file=sys.stderr)
-        sys.stderr.flush()
-        sys.stdout.flush() 
+            report_status(f"Released {cap.describe()}.")
+        sender.close()
+        report_status(report.summary())
+        report_batches(predictor)
+        report_status("Shutdown complete.")
+        writer.flush()
+
+
+def build_parser(description="ASL recognizer feeding the Java UI."):
+    """The recognizer's command line options, shared with recognition_server.py."""
+    parser = argparse.ArgumentParser(description=description)
+    parser.add_argument('--protocol', choices=['text', 'binary'], default='text',
+                        help="stdout protocol: 'text' FRAME_B64 lines or 'binary' length-prefixed messages")
+    parser.add_argument('--transport', choices=['pipe', 'shm'], default='pipe',
+                        help="frame transport: 'pipe' sends JPEG frames on stdout, 'shm' writes raw frames to --shm-path")
+    parser.add_argument('--shm-path', help="memory-mapped frame ring file used by the 'shm' transport")
+    parser.add_argument('--shm-slots', type=int, default=4, help="number of slots in the frame ring")
+    parser.add_argument('--control', action='store_true',
+                        help="read PAUSE/RESUME/RESET/ACCEPT commands from stdin and exit when stdin closes")
+    parser.add_argument('--start-paused', action='store_true',
+                        help="load the model and open the camera, then wait for RESUME")
+    parser.add_argument('--source', default='camera:0',
+                        help="frame source: camera:<index>, video:<file>, dir:<directory> or csv:<file with a path column>")
+    parser.add_argument('--pacing', choices=['realtime', 'fast'], default='realtime',
+                        help="replayed sources: 'realtime' keeps the recorded frame rate, 'fast' reads as quickly as possible")
+    parser.add_argument('--source-fps', type=float, help="replay frame rate (default: the video's own, 30 for images)")
+    parser.add_argument('--loop', action='store_true', help="restart replayed sources at the end, for soak tests")
+    parser.add_argument('--model-format', choices=MODEL_FORMATS, default='keras',
+                        help="'keras' float model, or the int8 'tflite'/'onnx' exports of training/export_model.py")
+    parser.add_argument('--model-path', help="model file (default: " + ", ".join(
+                        f"{fmt}: {path}" for fmt, path in DEFAULT_MODEL_PATHS.items()) + ")")
+    parser.add_argument('--mode', choices=['stream', 'interval'], default='stream',
+                        help="'stream' smooths predictions over a sliding window, 'interval' classifies one frame "
+                             f"every {PREDICTION_INTERVAL} seconds")
+    parser.add_argument('--stride', type=int, default=2, help="stream mode: classify every Nth frame")
+    parser.add_argument('--window', type=int, default=8, help="stream mode: number of predictions smoothed together")
+    parser.add_argument('--threshold', type=float, default=0.7,
+                        help="stream mode: smoothed confidence needed before a letter can be committed")
+    parser.add_argument('--stable-frames', type=int, default=5,
+                        help="stream mode: consecutive confident predictions needed to commit a letter")
+    parser.add_argument('--smoothing', choices=['ema', 'mean', 'majority'], default='ema',
+                        help="stream mode: how predictions in the window are combined")
+    parser.add_argument('--hand-roi', choices=['skin', 'off'], default='off',
+                        help="'skin' classifies only the tracked hand region, 'off' (default) classifies the whole frame, "
+                             "as the model was trained; crop accuracy has not been measured yet")
+    parser.add_argument('--roi-detect-every', type=int, default=5,
+                        help="run hand detection every Nth frame and reuse the tracked box in between")
+    parser.add_argument('--motion-gate', choices=['on', 'off'], default='on',
+                        help="skip inference and throttle UI frames while nothing in view moves")
+    parser.add_argument('--idle-after', type=int, default=30,
+                        help="frames without motion before the scene counts as idle")
+    parser.add_argument('--idle-fps', type=float, default=2.0, help="frames per second sent to the UI while idle")
+    parser.add_argument('--batch-size', type=int, default=4,
+                        help="stream mode: largest number of queued frames classified in one call")
+    parser.add_argument('--batch-wait-ms', type=float, default=50,
+                        help="stream mode: longest time a queued frame waits for its batch to fill")
+    parser.add_argument('--threading', choices=['pipeline', 'single'], default='pipeline',
+                        help="'pipeline' runs capture, encode, inference and output on their own threads, "
+                             "'single' runs them one after another on one thread")
+    parser.add_argument('--queue-size', type=int, default=2, help="pipeline: frames buffered between two stages")
+    parser.add_argument('--inference-threads', type=int, default=0,
+                        help="intra-op threads of the inference runtime (default: the runtime's own, "
+                             "or one per --inference-cpus CPU)")
+    parser.add_argument('--inter-op-threads', type=int, default=0,
+                        help="inter-op threads of the TensorFlow or ONNX Runtime model (default: the runtime's own)")
+    parser.add_argument('--inference-cpus', help="pipeline: CPUs to pin inference to, e.g. '2-3' (Linux only)")
+    parser.add_argument('--capture-cpus',
+                        help="pipeline: CPUs for capture, encode and output (default: those not used for inference)")
+    parser.add_argument('--utilization-interval', type=float, default=GATE_REPORT_INTERVAL,
+                        help="pipeline: seconds between per-stage utilization reports")
+    parser.add_argument('--frame-credits', type=int, default=0,
+                        help="pipe transport with --control: frames sent ahead of the UI returning CREDITs for them, "
+                             "with size, quality and rate adapted to the UI (default 0: no flow control)")
+    parser.add_argument('--top-k', type=int, default=0,
+                        help="send the k most probable classes of each classified frame as SCORES, "
+                             "for the Java event log (default 0: none)")
+    return parser
+
+
+def parse_args(argv=None):
+    """Parse the command line options passed by CameraController."""
+    options = build_parser().parse_args(argv)
+    options.stride = max(1, options.stride)
+    options.queue_size = max(1, options.queue_size)
+    return options
 
 
 if __name__ == "__main__":
-    realtime_detection_for_java()
\ No newline at end of file
+    args = parse_args()
+    writer = create_writer(args.protocol)
+    if args.transport == 'shm' and not args.shm_path:
+        report_status("Error - The shm transport requires --shm-path.")
+        sys.exit(2)
+    flow = FrameFlow(args.frame_credits) if args.frame_credits > 0 and args.transport == 'pipe' else None
+    control = ControlChannel(start_paused=args.start_paused, flow=flow) if args.control else None
+    if args.threading == 'pipeline':
+        threaded_detection_for_java(args, control)
+    else:
+        realtime_detection_for_java(args, control)
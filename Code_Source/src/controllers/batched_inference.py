@@ -0,0 +1,143 @@
+import time
+
+import cv2
+import numpy as np
+
+
+class BatchedPredictor:
+    """Runs the classifier on micro-batches of frames.
+
+    `runner` maps a float32 NHWC batch to class probabilities; see model_runtime.load_runner
+    for the Keras, TFLite and ONNX runners.
+
+    Frames are preprocessed into a preallocated batch as they are submitted. The
+    batch is run once it holds `max_batch` frames or its oldest frame has waited
+    `max_wait` seconds. Results come back in submission order together with the
+    timestamp each frame was captured at, so smoothing and UI updates stay ordered.
+    """
+
+    def __init__(self, runner, image_size=(128, 128), max_batch=4, max_wait=0.05):
+        self.image_size = image_size
+        self.max_batch = max(1, max_batch)
+        self.max_wait = max(0.0, max_wait)
+        self.batch = np.zeros((self.max_batch, image_size[1], image_size[0], 3), dtype=np.float32)
+        self.single = np.zeros((1, image_size[1], image_size[0], 3), dtype=np.float32)
+        self.timestamps = []
+        self.first_submit = None
+        self.batches_run = 0
+        self.frames_run = 0
+        # When the last batch started running and how long it took, in seconds.
+        self.last_started = None
+        self.last_duration = 0.0
+
+        self._infer = runner
+        # Run once up front so the first camera frames do not pay for tracing or allocation.
+        self._infer(self.batch[:1])
+
+    def __len__(self):
+        return len(self.timestamps)
+
+    def _preprocess_into(self, target, frame):
+        resized = cv2.resize(frame, self.image_size)
+        np.multiply(resized, 1.0 / 255.0, out=target, casting='unsafe')
+
+    def submit(self, frame, timestamp):
+        """Queue a BGR frame captured at `timestamp` (seconds)."""
+        if len(self.timestamps) >= self.max_batch:
+            raise RuntimeError("Batch is full; call flush() first.")
+        if not self.timestamps:
+            self.first_submit = time.monotonic()
+        self._preprocess_into(self.batch[len(self.timestamps)], frame)
+        self.timestamps.append(timestamp)
+
+    def ready(self):
+        """True once the batch is full or its oldest frame has waited long enough."""
+        if not self.timestamps:
+            return False
+        if len(self.timestamps) >= self.max_batch:
+            return True
+        return time.monotonic() - self.first_submit >= self.max_wait
+
+    def flush(self):
+        """Run the queued frames and return [(timestamp, probabilities), ...] in submission order."""
+        count = len(self.timestamps)
+        if count == 0:
+            return []
+        self.last_started = time.monotonic()
+        probabilities = self._infer(self.batch[:count])
+        self.last_duration = time.monotonic() - self.last_started
+        results = list(zip(self.timestamps, probabilities))
+        self.batches_run += 1
+        self.frames_run += count
+        self.clear()
+        return results
+
+    def clear(self):
+        """Drop queued frames without running them, e.g. after a pause or reset."""
+        self.timestamps = []
+        self.first_submit = None
+
+    def predict_one(self, frame):
+        """Classify a single frame immediately."""
+        self._preprocess_into(self.single[0], frame)
+        self.last_started = time.monotonic()
+        probabilities = self._infer(self.single)[0]
+        self.last_duration = time.monotonic() - self.last_started
+        return probabilities
+
+    def mean_batch_size(self):
+        return self.frames_run / self.batches_run if self.batches_run else 0.0
+
+
+class SessionPredictor:
+    """One client's view of a BatchedPredictor shared by the sessions of recognition_server.py.
+
+    Frames of every session go into the same batch, so one model call serves many clients.
+    Whichever session runs the shared batch hands the other sessions their results, which
+    they return from their own next flush(); each session still sees its results in
+    submission order. clear() only drops this session's frames: the ones already in the
+    shared batch are still classified, but their results are discarded.
+    """
+
+    def __init__(self, shared):
+        self.shared = shared
+        self.results = []
+        self.generation = 0
+
+    def __len__(self):
+        return len(self.results)
+
+    def __getattr__(self, name):
+        # last_started, last_duration and the batch counters are those of the shared predictor.
+        return getattr(self.shared, name)
+
+    def submit(self, frame, timestamp):
+        if len(self.shared) >= self.shared.max_batch:
+            self._run_shared()
+        self.shared.submit(frame, (self, self.generation, timestamp))
+
+    def ready(self):
+        return bool(self.results) or self.shared.ready()
+
+    def flush(self):
+        if len(self.shared):
+            self._run_shared()
+        results, self.results = self.results, []
+        return results
+
+    def clear(self):
+        self.generation += 1
+        self.results = []
+
+    def predict_one(self, frame):
+        return self.shared.predict_one(frame)
+
+    def _run_shared(self):
+        try:
+            results = self.shared.flush()
+        except Exception:
+            self.shared.clear()
+            raise
+        for (owner, generation, timestamp), probabilities in results:
+            if owner.generation == generation:
+                owner.results.append((timestamp, probabilities))
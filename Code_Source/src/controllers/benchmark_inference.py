@@ -0,0 +1,86 @@
+import os
+os.environ['TF_CPP_MIN_LOG_LEVEL'] = '2'
+import argparse
+import time
+
+import cv2
+import numpy as np
+import tensorflow as tf
+
+from batched_inference import BatchedPredictor
+from model_runtime import KerasRunner, load_runner
+
+IMAGE_SIZE = (128, 128)
+MODEL_PATH = 'training/best_model.keras'
+
+
+def load_frames(video_path, count, width=640, height=480):
+    """Read up to `count` frames from a video file, or generate random camera-sized frames."""
+    if video_path:
+        cap = cv2.VideoCapture(video_path)
+        frames = []
+        while len(frames) < count:
+            ret, frame = cap.read()
+            if not ret:
+                break
+            frames.append(frame)
+        cap.release()
+        if frames:
+            return frames
+        print(f"Could not read frames from {video_path}; using random frames.")
+    rng = np.random.default_rng(0)
+    return [rng.integers(0, 256, (height, width, 3), dtype=np.uint8) for _ in range(count)]
+
+
+def bench_model_predict(model, frames):
+    """The old recognizer path: model.predict on a batch of one per frame."""
+    start = time.perf_counter()
+    for frame in frames:
+        img = cv2.resize(frame, IMAGE_SIZE).astype(np.float32) / 255.0
+        model.predict(np.expand_dims(img, axis=0), verbose=0)
+    return time.perf_counter() - start
+
+
+def bench_batched(predictor, frames):
+    """Submit every frame and flush whenever the batch is full, as the stream loop does."""
+    start = time.perf_counter()
+    for i, frame in enumerate(frames):
+        predictor.submit(frame, i)
+        if len(predictor) >= predictor.max_batch:
+            predictor.flush()
+    predictor.flush()
+    return time.perf_counter() - start
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Compare per-frame model.predict with compiled micro-batches.")
+    parser.add_argument('--model', default=MODEL_PATH)
+    parser.add_argument('--video', help="video file to take frames from (random frames if omitted)")
+    parser.add_argument('--frames', type=int, default=200)
+    parser.add_argument('--batch-sizes', type=int, nargs='+', default=[1, 2, 4, 8])
+    parser.add_argument('--warmup', type=int, default=10)
+    parser.add_argument('--compare', nargs='*', default=[],
+                        help="exported models (.tflite, .onnx) to run through the same batched path")
+    args = parser.parse_args()
+
+    model = tf.keras.models.load_model(args.model)
+    frames = load_frames(args.video, args.frames)
+    warmup = frames[:args.warmup]
+
+    bench_model_predict(model, warmup)
+    baseline = len(frames) / bench_model_predict(model, frames)
+    print(f"{'path':<28}{'frames/s':>10}{'speedup':>10}")
+    print(f"{'model.predict (batch 1)':<28}{baseline:>10.1f}{1.0:>9.2f}x")
+
+    runners = [('compiled', KerasRunner(model, IMAGE_SIZE))]
+    runners += [(os.path.basename(path), load_runner(path, image_size=IMAGE_SIZE)) for path in args.compare]
+    for name, runner in runners:
+        for batch_size in args.batch_sizes:
+            predictor = BatchedPredictor(runner, IMAGE_SIZE, batch_size, max_wait=0.0)
+            bench_batched(predictor, warmup)
+            fps = len(frames) / bench_batched(predictor, frames)
+            print(f"{f'{name} (batch {batch_size})':<28}{fps:>10.1f}{fps / baseline:>9.2f}x")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,140 @@
+import threading
+import time
+
+import cv2
+
+# Frame size (as a share of the captured frame) and JPEG quality, best first.
+QUALITY_LEVELS = [(1.0, 80), (0.75, 70), (0.5, 60), (0.5, 45)]
+MIN_FPS = 5.0
+# Seconds between adjustments, and good periods in a row needed before stepping back up.
+ADAPT_INTERVAL = 1.0
+UPGRADE_AFTER = 3
+# Share of due frames skipped for want of a credit above which the UI counts as falling behind.
+STALL_RATIO = 0.1
+# Mean time from a frame reaching the UI to its display above which the UI counts as overloaded.
+RENDER_BUDGET_US = 33000
+
+
+class FrameFlow:
+    """Credit-based flow control for the frames sent to the Java UI.
+
+    The UI starts the script with `window` credits (--frame-credits) and hands one back, with
+    CREDIT, for each frame it has shown or dropped. A frame is only sent while a credit is
+    held; otherwise it is skipped and counted as a credit stall, so the script never writes
+    more frames than the UI can take and a stalled FX thread can no longer fill the pipe and
+    block the recognizer. About once a second the frame size, JPEG quality and frame rate are
+    adjusted: down while frames stall or the UI reports a render time above RENDER_BUDGET_US,
+    back up after UPGRADE_AFTER quiet periods. Frames get cheaper first, then rarer.
+
+    take() and the encoding calls run on the sending thread, grant() on the control thread.
+    """
+
+    def __init__(self, window, max_fps=30.0):
+        self.window = max(1, window)
+        self.max_fps = max(MIN_FPS, max_fps)
+        self.fps = self.max_fps
+        self.level = 0
+        self.credits = self.window
+        self.stalls = 0
+        self.render_us = 0.0
+        self.width = 0
+        self.height = 0
+        self.changed = True
+        self._lock = threading.Lock()
+        self._last_sent = None
+        self._due = 0
+        self._stalled = 0
+        self._good_periods = 0
+        self._next_adapt = None
+
+    @property
+    def quality(self):
+        return QUALITY_LEVELS[self.level][1]
+
+    def grant(self, credits, render_us=None):
+        """Return `credits` frames, as CREDIT asks, with the UI's mean render time if it measured one."""
+        with self._lock:
+            self.credits = min(self.credits + max(0, credits), self.window)
+            if render_us is not None:
+                self.render_us = render_us if not self.render_us else 0.7 * self.render_us + 0.3 * render_us
+
+    def restore(self, window=None):
+        """Start over with a full window, as WINDOW asks after frames were lost while the UI was hidden."""
+        with self._lock:
+            if window:
+                self.window = max(1, window)
+            self.credits = self.window
+
+    def take(self, now=None):
+        """True if a frame may be sent now, spending a credit; False if it is not due yet or no credit is left."""
+        now = time.monotonic() if now is None else now
+        # A little slack, so camera jitter does not push frames to every other one.
+        if self._last_sent is not None and now - self._last_sent < 0.9 / self.fps:
+            return False
+        with self._lock:
+            self._due += 1
+            if self.credits <= 0:
+                self._stalled += 1
+                self.stalls += 1
+                return False
+            self.credits -= 1
+        self._last_sent = now
+        return True
+
+    def encode(self, frame):
+        """JPEG-encode a frame at the current size and quality; returns the cv2.imencode result."""
+        scale = QUALITY_LEVELS[self.level][0]
+        if scale < 1.0:
+            frame = cv2.resize(frame, (round(frame.shape[1] * scale), round(frame.shape[0] * scale)),
+                               interpolation=cv2.INTER_AREA)
+        if (frame.shape[1], frame.shape[0]) != (self.width, self.height):
+            self.width, self.height = frame.shape[1], frame.shape[0]
+            self.changed = True
+        return cv2.imencode('.jpg', frame, [int(cv2.IMWRITE_JPEG_QUALITY), self.quality])
+
+    def adapt(self, now=None):
+        """Adjust size, quality and frame rate once per ADAPT_INTERVAL; True if a FLOW report is due."""
+        now = time.monotonic() if now is None else now
+        if self._next_adapt is None:
+            self._next_adapt = now + ADAPT_INTERVAL
+        if now < self._next_adapt:
+            return self.changed
+        self._next_adapt = now + ADAPT_INTERVAL
+        with self._lock:
+            due, stalled, render_us = self._due, self._stalled, self.render_us
+            self._due = self._stalled = 0
+        if due:
+            if stalled > STALL_RATIO * due or render_us > RENDER_BUDGET_US:
+                self._good_periods = 0
+                self._degrade()
+            elif render_us < RENDER_BUDGET_US / 2:
+                self._good_periods += 1
+                if self._good_periods >= UPGRADE_AFTER:
+                    self._good_periods = 0
+                    self._upgrade()
+        return True
+
+    def _degrade(self):
+        if self.level < len(QUALITY_LEVELS) - 1:
+            self.level += 1
+        else:
+            self.fps = max(MIN_FPS, self.fps * 0.75)
+        self.changed = True
+
+    def _upgrade(self):
+        if self.fps < self.max_fps:
+            self.fps = min(self.max_fps, self.fps * 1.25)
+        elif self.level > 0:
+            self.level -= 1
+        else:
+            return
+        self.changed = True
+
+    def report(self, out):
+        """Send the current settings as a FLOW message."""
+        self.changed = False
+        out.send_flow(self.quality, self.width, self.height, self.fps, self.stalls, self.credits)
+
+    def summary(self):
+        return (f"Frame flow: {self.width}x{self.height} at JPEG quality {self.quality}, {self.fps:.1f} fps; "
+                f"{self.stalls} frames skipped for want of a credit, UI render time {self.render_us / 1000:.1f} ms.")
@@ -0,0 +1,175 @@
+import csv
+import os
+import time
+
+import cv2
+
+IMAGE_EXTENSIONS = ('.jpg', '.jpeg', '.png', '.bmp')
+
+
+class Pacer:
+    """Paces replayed frames: 'realtime' at `fps`, 'fast' as quickly as they can be read."""
+
+    def __init__(self, pacing='realtime', fps=30.0):
+        self.interval = 1.0 / fps if pacing == 'realtime' and fps > 0 else 0.0
+        self.next_due = None
+
+    def wait(self):
+        if self.interval == 0.0:
+            return
+        now = time.monotonic()
+        if self.next_due is None or now - self.next_due > self.interval:
+            # First frame, or we fell behind: restart the schedule instead of bursting.
+            self.next_due = now
+        elif self.next_due > now:
+            time.sleep(self.next_due - now)
+        self.next_due += self.interval
+
+
+class FrameSource:
+    """Where the recognizer gets its frames from. Mirrors the parts of cv2.VideoCapture the loop uses.
+
+    `live` sources are real devices that block until the next frame; `mirror` says whether
+    frames should be flipped so the user sees themselves as in a mirror. `exhausted` turns
+    true once a non-looping replay has delivered its last frame.
+    """
+
+    live = False
+    mirror = False
+    exhausted = False
+    label = None
+
+    def isOpened(self):
+        raise NotImplementedError
+
+    def read(self):
+        raise NotImplementedError
+
+    def release(self):
+        pass
+
+    def describe(self):
+        return self.__class__.__name__
+
+
+class CameraSource(FrameSource):
+    live = True
+    mirror = True
+
+    def __init__(self, index=0):
+        self.index = index
+        self.cap = cv2.VideoCapture(index)
+
+    def isOpened(self):
+        return self.cap.isOpened()
+
+    def read(self):
+        return self.cap.read()
+
+    def release(self):
+        self.cap.release()
+
+    def describe(self):
+        return f"camera {self.index}"
+
+
+class VideoFileSource(FrameSource):
+    """Replays a video file, in real time at the file's frame rate or as fast as it decodes."""
+
+    def __init__(self, path, pacing='realtime', fps=None, loop=False):
+        self.path = path
+        self.loop = loop
+        self.cap = cv2.VideoCapture(path)
+        file_fps = self.cap.get(cv2.CAP_PROP_FPS) if self.cap.isOpened() else 0
+        self.pacer = Pacer(pacing, fps or file_fps or 30.0)
+
+    def isOpened(self):
+        return self.cap.isOpened()
+
+    def read(self):
+        self.pacer.wait()
+        ret, frame = self.cap.read()
+        if not ret and self.loop:
+            self.cap.set(cv2.CAP_PROP_POS_FRAMES, 0)
+            ret, frame = self.cap.read()
+        if not ret:
+            self.exhausted = True
+        return ret, frame
+
+    def release(self):
+        self.cap.release()
+
+    def describe(self):
+        return f"video {self.path}"
+
+
+class ImageSequenceSource(FrameSource):
+    """Replays a list of image files, from a directory tree or a CSV with a 'path' column.
+
+    CSV paths (e.g. training/train_verified.csv) are resolved relative to the CSV file and may
+    use Windows separators; a 'phrase' column, if present, is exposed as `label` for the frame
+    that was read last.
+    """
+
+    def __init__(self, paths, labels=None, pacing='realtime', fps=30.0, loop=False, description='images'):
+        self.paths = paths
+        self.labels = labels
+        self.loop = loop
+        self.position = 0
+        self.pacer = Pacer(pacing, fps)
+        self.description = description
+
+    @classmethod
+    def from_directory(cls, directory, **kwargs):
+        paths = []
+        for root, _, files in os.walk(directory):
+            paths.extend(os.path.join(root, name) for name in files if name.lower().endswith(IMAGE_EXTENSIONS))
+        paths.sort()
+        return cls(paths, description=f"directory {directory} ({len(paths)} images)", **kwargs)
+
+    @classmethod
+    def from_csv(cls, csv_path, **kwargs):
+        base = os.path.dirname(os.path.abspath(csv_path))
+        paths, labels = [], []
+        with open(csv_path, newline='', encoding='utf-8') as f:
+            for row in csv.DictReader(f):
+                path = row['path'].replace('\\', os.sep).replace('/', os.sep)
+                paths.append(path if os.path.isabs(path) else os.path.join(base, path))
+                labels.append(row.get('phrase'))
+        return cls(paths, labels, description=f"csv {csv_path} ({len(paths)} images)", **kwargs)
+
+    def isOpened(self):
+        return len(self.paths) > 0
+
+    def read(self):
+        # Unreadable files are skipped rather than reported as a failed grab.
+        while True:
+            if self.position >= len(self.paths):
+                if not self.loop or not self.paths:
+                    self.exhausted = True
+                    return False, None
+                self.position = 0
+            index = self.position
+            self.position += 1
+            frame = cv2.imread(self.paths[index])
+            if frame is not None:
+                self.pacer.wait()
+                self.label = self.labels[index] if self.labels else None
+                return True, frame
+
+    def describe(self):
+        return self.description
+
+
+def open_frame_source(spec='camera:0', pacing='realtime', fps=None, loop=False):
+    """Create a frame source from 'camera:<index>', 'video:<file>', 'dir:<directory>' or 'csv:<file>'."""
+    kind, _, target = spec.partition(':')
+    if kind == 'camera':
+        return CameraSource(int(target or 0))
+    if kind == 'video':
+        return VideoFileSource(target, pacing, fps, loop)
+    if kind == 'dir':
+        return ImageSequenceSource.from_directory(target, pacing=pacing, fps=fps or 30.0, loop=loop)
+    if kind == 'csv':
+        return ImageSequenceSource.from_csv(target, pacing=pacing, fps=fps or 30.0, loop=loop)
+    raise ValueError(f"Unknown frame source: {spec}")
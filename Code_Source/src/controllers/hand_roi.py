@@ -0,0 +1,99 @@
+import cv2
+import numpy as np
+
+
+class HandTracker:
+    """Locates the signing hand so only that region has to be classified.
+
+    Detection runs on a downscaled copy of every `detect_every`-th frame. It segments
+    skin in YCrCb, scores each skin blob by its size, by how much of it moved since
+    the previous detection and by its overlap with the current box (which keeps a
+    still hand preferred over the face), then returns a square box with `margin`
+    added around the winner. Between detections the last box is reused. After
+    `lost_after` detections in a row without a hand the box is dropped.
+    """
+
+    SKIN_LOWER = np.array([0, 133, 77], dtype=np.uint8)
+    SKIN_UPPER = np.array([255, 173, 127], dtype=np.uint8)
+
+    def __init__(self, detect_every=5, scale=0.25, min_area=0.01, margin=0.25, lost_after=3, motion_threshold=25):
+        self.detect_every = max(1, detect_every)
+        self.scale = scale
+        self.min_area = min_area
+        self.margin = margin
+        self.lost_after = max(1, lost_after)
+        self.motion_threshold = motion_threshold
+        self.kernel = cv2.getStructuringElement(cv2.MORPH_ELLIPSE, (5, 5))
+        self.reset()
+
+    def reset(self):
+        """Forget the tracked box, e.g. after a pause."""
+        self.roi = None
+        self.frame_count = 0
+        self.misses = 0
+        self.previous_gray = None
+        self.detections = 0
+
+    def update(self, frame):
+        """Return the hand box (x, y, w, h) in frame coordinates, or None if no hand is visible."""
+        if self.frame_count % self.detect_every == 0:
+            self._detect(frame)
+        self.frame_count += 1
+        return self.roi
+
+    def _detect(self, frame):
+        self.detections += 1
+        small = cv2.resize(frame, None, fx=self.scale, fy=self.scale, interpolation=cv2.INTER_AREA)
+        skin = cv2.inRange(cv2.cvtColor(small, cv2.COLOR_BGR2YCrCb), self.SKIN_LOWER, self.SKIN_UPPER)
+        skin = cv2.morphologyEx(skin, cv2.MORPH_OPEN, self.kernel)
+
+        gray = cv2.GaussianBlur(cv2.cvtColor(small, cv2.COLOR_BGR2GRAY), (5, 5), 0)
+        motion = None
+        if self.previous_gray is not None and self.previous_gray.shape == gray.shape:
+            _, motion = cv2.threshold(cv2.absdiff(gray, self.previous_gray), self.motion_threshold, 255, cv2.THRESH_BINARY)
+        self.previous_gray = gray
+
+        contours, _ = cv2.findContours(skin, cv2.RETR_EXTERNAL, cv2.CHAIN_APPROX_SIMPLE)
+        min_pixels = self.min_area * small.shape[0] * small.shape[1]
+        best, best_score = None, 0.0
+        for contour in contours:
+            area = cv2.contourArea(contour)
+            if area < min_pixels:
+                continue
+            x, y, w, h = cv2.boundingRect(contour)
+            score = area
+            if motion is not None:
+                score *= 1.0 + 2.0 * np.count_nonzero(motion[y:y + h, x:x + w]) / float(w * h)
+            if self.roi is not None and self._overlaps(self._to_small(self.roi), (x, y, w, h)):
+                score *= 2.0
+            if score > best_score:
+                best, best_score = (x, y, w, h), score
+
+        if best is None:
+            self.misses += 1
+            if self.misses >= self.lost_after:
+                self.roi = None
+            return
+        self.misses = 0
+        self.roi = self._square_box(best, frame.shape[1], frame.shape[0])
+
+    def _to_small(self, box):
+        return tuple(int(v * self.scale) for v in box)
+
+    @staticmethod
+    def _overlaps(a, b):
+        return a[0] < b[0] + b[2] and b[0] < a[0] + a[2] and a[1] < b[1] + b[3] and b[1] < a[1] + a[3]
+
+    def _square_box(self, small_box, frame_width, frame_height):
+        x, y, w, h = (v / self.scale for v in small_box)
+        side = min(max(w, h) * (1.0 + 2.0 * self.margin), frame_width, frame_height)
+        cx, cy = x + w / 2.0, y + h / 2.0
+        left = int(min(max(cx - side / 2.0, 0), frame_width - side))
+        top = int(min(max(cy - side / 2.0, 0), frame_height - side))
+        return left, top, int(side), int(side)
+
+
+def crop(frame, roi):
+    """Return the part of the frame inside roi (a view, not a copy)."""
+    x, y, w, h = roi
+    return frame[y:y + h, x:x + w]
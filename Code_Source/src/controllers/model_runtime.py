@@ -0,0 +1,127 @@
+import os
+
+import numpy as np
+
+MODEL_FORMATS = ('keras', 'tflite', 'onnx')
+DEFAULT_MODEL_PATHS = {
+    'keras': 'training/best_model.keras',
+    'tflite': 'training/best_model.int8.tflite',
+    'onnx': 'training/best_model.int8.onnx',
+}
+
+
+class KerasRunner:
+    """Runs a Keras model through one compiled tf.function, traced once for any batch size."""
+
+    format = 'keras'
+
+    def __init__(self, model, image_size=(128, 128)):
+        import tensorflow as tf
+
+        input_spec = tf.TensorSpec(shape=(None, image_size[1], image_size[0], 3), dtype=tf.float32)
+
+        @tf.function(input_signature=[input_spec])
+        def infer(x):
+            return model(x, training=False)
+
+        self._tf = tf
+        self._infer = infer
+
+    def __call__(self, batch):
+        return self._infer(self._tf.constant(batch)).numpy()
+
+
+class TFLiteRunner:
+    """Runs a (quantized) TFLite model. Float input is quantized here if the model takes int8/uint8."""
+
+    format = 'tflite'
+
+    def __init__(self, path, threads=None):
+        import tensorflow as tf
+
+        self.interpreter = tf.lite.Interpreter(model_path=path, num_threads=threads or os.cpu_count())
+        self.interpreter.allocate_tensors()
+        self.input = self.interpreter.get_input_details()[0]
+        self.output = self.interpreter.get_output_details()[0]
+        self.batch_size = int(self.input['shape'][0])
+
+    def __call__(self, batch):
+        if batch.shape[0] != self.batch_size:
+            self.interpreter.resize_tensor_input(self.input['index'], batch.shape)
+            self.interpreter.allocate_tensors()
+            self.input = self.interpreter.get_input_details()[0]
+            self.output = self.interpreter.get_output_details()[0]
+            self.batch_size = batch.shape[0]
+        data = batch
+        if self.input['dtype'] != np.float32:
+            scale, zero_point = self.input['quantization']
+            info = np.iinfo(self.input['dtype'])
+            data = np.clip(np.round(batch / scale + zero_point), info.min, info.max).astype(self.input['dtype'])
+        self.interpreter.set_tensor(self.input['index'], data)
+        self.interpreter.invoke()
+        result = self.interpreter.get_tensor(self.output['index'])
+        if self.output['dtype'] != np.float32:
+            scale, zero_point = self.output['quantization']
+            result = (result.astype(np.float32) - zero_point) * scale
+        return result
+
+
+class OnnxRunner:
+    """Runs an ONNX model with ONNX Runtime on the CPU. Models exported with a fixed batch of one
+    (older export_model.py output) are run one frame at a time."""
+
+    format = 'onnx'
+
+    def __init__(self, path, threads=None, inter_op_threads=None):
+        import onnxruntime as ort
+
+        options = ort.SessionOptions()
+        if threads:
+            options.intra_op_num_threads = threads
+        if inter_op_threads:
+            options.inter_op_num_threads = inter_op_threads
+        self.session = ort.InferenceSession(path, options, providers=['CPUExecutionProvider'])
+        model_input = self.session.get_inputs()[0]
+        self.input_name = model_input.name
+        self.fixed_batch = model_input.shape[0] if isinstance(model_input.shape[0], int) else None
+
+    def __call__(self, batch):
+        if self.fixed_batch == 1 and batch.shape[0] != 1:
+            return np.concatenate([self.session.run(None, {self.input_name: batch[i:i + 1]})[0]
+                                   for i in range(batch.shape[0])])
+        return self.session.run(None, {self.input_name: batch})[0]
+
+
+def detect_format(path):
+    extension = os.path.splitext(path)[1].lower()
+    if extension == '.tflite':
+        return 'tflite'
+    if extension == '.onnx':
+        return 'onnx'
+    return 'keras'
+
+
+def load_runner(path=None, model_format=None, image_size=(128, 128), threads=None, inter_op_threads=None):
+    """Load a classifier in any exported format and return a callable mapping a float32
+    NHWC batch to class probabilities. The format follows the file extension if not given.
+
+    `threads` is the runtime's intra-op thread count and `inter_op_threads` the number of
+    independent ops run at once (Keras and ONNX only); None keeps the runtime's defaults.
+    TensorFlow only honours them before its first op runs, i.e. for the first model loaded.
+    """
+    model_format = model_format or (detect_format(path) if path else 'keras')
+    if model_format not in MODEL_FORMATS:
+        raise ValueError(f"Unknown model format: {model_format}")
+    path = path or DEFAULT_MODEL_PATHS[model_format]
+    if not os.path.exists(path):
+        raise FileNotFoundError(f"Model file not found at {os.path.abspath(path)}")
+    if model_format == 'tflite':
+        return TFLiteRunner(path, threads)
+    if model_format == 'onnx':
+        return OnnxRunner(path, threads, inter_op_threads)
+    import tensorflow as tf
+    if threads:
+        tf.config.threading.set_intra_op_parallelism_threads(threads)
+    if inter_op_threads:
+        tf.config.threading.set_inter_op_parallelism_threads(inter_op_threads)
+    return KerasRunner(tf.keras.models.load_model(path), image_size)
@@ -0,0 +1,72 @@
+import time
+
+import cv2
+
+
+class MotionGate:
+    """Decides per frame whether anything changed enough to be worth classifying and showing.
+
+    Each frame is reduced to an 80x60 grayscale thumbnail and compared with the previous
+    one. The scene counts as moving when more than `changed_fraction` of the thumbnail
+    pixels differ by more than `pixel_delta`. After `idle_after` frames without motion the
+    gate goes idle: inference is skipped and frames are only passed on at `idle_fps`.
+    The first frame with motion leaves the idle state again.
+    """
+
+    THUMBNAIL_SIZE = (80, 60)
+
+    def __init__(self, idle_after=30, idle_fps=2.0, pixel_delta=20, changed_fraction=0.01):
+        self.idle_after = max(1, idle_after)
+        self.idle_interval = 1.0 / idle_fps if idle_fps > 0 else float('inf')
+        self.pixel_delta = pixel_delta
+        self.changed_pixels = changed_fraction * self.THUMBNAIL_SIZE[0] * self.THUMBNAIL_SIZE[1]
+        self.frames_seen = 0
+        self.frames_moving = 0
+        self.inference_gated = 0
+        self.display_gated = 0
+        self.reset()
+
+    def reset(self):
+        """Start over as if motion had just been seen; counters are kept."""
+        self.previous = None
+        self.still_frames = 0
+        # None until a frame is shown: time.monotonic() has an arbitrary origin.
+        self.last_display = None
+
+    @property
+    def idle(self):
+        return self.still_frames >= self.idle_after
+
+    def update(self, frame):
+        """Feed the next frame; returns True if the scene moved since the previous one."""
+        self.frames_seen += 1
+        thumbnail = cv2.cvtColor(cv2.resize(frame, self.THUMBNAIL_SIZE, interpolation=cv2.INTER_AREA), cv2.COLOR_BGR2GRAY)
+        moved = True
+        if self.previous is not None:
+            _, changed = cv2.threshold(cv2.absdiff(thumbnail, self.previous), self.pixel_delta, 255, cv2.THRESH_BINARY)
+            moved = cv2.countNonZero(changed) > self.changed_pixels
+        self.previous = thumbnail
+        if moved:
+            self.frames_moving += 1
+            self.still_frames = 0
+        else:
+            self.still_frames += 1
+        return moved
+
+    def allow_inference(self):
+        if self.idle:
+            self.inference_gated += 1
+            return False
+        return True
+
+    def allow_display(self, now=None):
+        now = time.monotonic() if now is None else now
+        if self.idle and self.last_display is not None and now - self.last_display < self.idle_interval:
+            self.display_gated += 1
+            return False
+        self.last_display = now
+        return True
+
+    def summary(self):
+        return (f"Motion gate: {self.frames_seen} frames, {self.frames_moving} with motion, "
+                f"{self.inference_gated} skipped inference, {self.display_gated} not sent to the UI.")
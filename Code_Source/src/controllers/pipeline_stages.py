@@ -0,0 +1,234 @@
+import os
+import threading
+import time
+from collections import deque
+
+# Returned by StageQueue.get once the queue is closed and drained.
+CLOSED = object()
+
+
+class StageQueue:
+    """Bounded queue between two pipeline stage threads.
+
+    With `drop_oldest` a full queue discards its oldest item, so a slow consumer always
+    works on the newest frames and a live camera is never held up; otherwise put() waits
+    for room, which keeps every frame of a replayed source.
+    """
+
+    def __init__(self, maxsize, drop_oldest=False):
+        self.maxsize = max(1, maxsize)
+        self.drop_oldest = drop_oldest
+        self.dropped = 0
+        self.closed = False
+        self._items = deque()
+        self._cond = threading.Condition()
+
+    def __len__(self):
+        return len(self._items)
+
+    def put(self, item):
+        """Queue an item; returns False if the queue was closed."""
+        with self._cond:
+            while not self.drop_oldest and len(self._items) >= self.maxsize and not self.closed:
+                self._cond.wait()
+            if self.closed:
+                return False
+            if len(self._items) >= self.maxsize:
+                self._items.popleft()
+                self.dropped += 1
+            self._items.append(item)
+            self._cond.notify_all()
+            return True
+
+    def get(self, timeout=None):
+        """Next item, None if nothing arrived within `timeout`, or CLOSED once closed and drained."""
+        with self._cond:
+            if not self._items and not self.closed:
+                self._cond.wait(timeout)
+            if self._items:
+                item = self._items.popleft()
+                self._cond.notify_all()
+                return item
+            return CLOSED if self.closed else None
+
+    def close(self):
+        """Wake every waiting thread; items already queued can still be taken."""
+        with self._cond:
+            self.closed = True
+            self._cond.notify_all()
+
+
+class OutputQueue(StageQueue):
+    """Message groups for the output thread, with a second lane for the frames sent to the UI.
+
+    Frame groups (put_bulk) are only taken once no other group is waiting, so predictions and
+    transcript edits never wait behind video frames. The frame lane holds `bulk_size` groups;
+    with `drop_bulk` a full lane drops its oldest frame, otherwise put_bulk() waits for room.
+    """
+
+    def __init__(self, maxsize, bulk_size, drop_bulk=False):
+        super().__init__(maxsize)
+        self.bulk_size = max(1, bulk_size)
+        self.drop_bulk = drop_bulk
+        self._bulk = deque()
+
+    def __len__(self):
+        return len(self._items) + len(self._bulk)
+
+    def put_bulk(self, item):
+        """Queue a frame group; returns False if the queue was closed."""
+        with self._cond:
+            while not self.drop_bulk and len(self._bulk) >= self.bulk_size and not self.closed:
+                self._cond.wait()
+            if self.closed:
+                return False
+            if len(self._bulk) >= self.bulk_size:
+                self._bulk.popleft()
+                self.dropped += 1
+            self._bulk.append(item)
+            self._cond.notify_all()
+            return True
+
+    def get(self, timeout=None):
+        with self._cond:
+            if not self._items and not self._bulk and not self.closed:
+                self._cond.wait(timeout)
+            for lane in (self._items, self._bulk):
+                if lane:
+                    item = lane.popleft()
+                    self._cond.notify_all()
+                    return item
+            return CLOSED if self.closed else None
+
+
+class StageStats:
+    """Work done by one stage thread: items, busy wall time and the thread's own CPU time.
+
+    A stage counts as busy between begin() and end(), and as waiting while it blocks on
+    its input queue, so busy time over wall time is its utilization. A stage close to 100%
+    is the bottleneck. CPU time covers the Python thread only, not the runtime's own
+    inference threads; process CPU time in StageReport covers those.
+    """
+
+    def __init__(self, name):
+        self.name = name
+        self.items = 0
+        self.busy = 0.0
+        self.cpu = 0.0
+        self._started = None
+        self._cpu_started = None
+
+    def begin(self):
+        self._started = time.monotonic()
+        self._cpu_started = time.thread_time()
+
+    def end(self, items=1):
+        self.busy += time.monotonic() - self._started
+        self.cpu += time.thread_time() - self._cpu_started
+        self.items += items
+
+
+class StageReport:
+    """Formats per-stage utilization since the previous report."""
+
+    def __init__(self, stages, queues):
+        self.stages = stages
+        self.queues = queues
+        self.cores = len(available_cpus())
+        self._mark()
+
+    def _mark(self):
+        self.started = time.monotonic()
+        self.cpu_started = time.process_time()
+        self.last = {stage.name: (stage.items, stage.busy, stage.cpu) for stage in self.stages}
+        self.dropped = {name: q.dropped for name, q in self.queues.items()}
+
+    def summary(self):
+        elapsed = max(time.monotonic() - self.started, 1e-6)
+        parts = []
+        for stage in self.stages:
+            items, busy, cpu = self.last[stage.name]
+            parts.append(f"{stage.name} {100 * (stage.busy - busy) / elapsed:.0f}% busy "
+                         f"({100 * (stage.cpu - cpu) / elapsed:.0f}% cpu, {(stage.items - items) / elapsed:.1f}/s)")
+        process_cpu = 100 * (time.process_time() - self.cpu_started) / elapsed
+        drops = ", ".join(f"{q.dropped - self.dropped[name]} {name}" for name, q in self.queues.items())
+        text = (f"Stage utilization over {elapsed:.1f} s: " + ", ".join(parts)
+                + f"; process CPU {process_cpu:.0f}% of {self.cores} cores; frames dropped: {drops}")
+        self._mark()
+        return text
+
+
+class LockedWriter:
+    """Serializes a protocol writer shared by several threads. Holding `lock` keeps a group
+    of messages, such as a TIMING and the FRAME it describes, together on the stream."""
+
+    def __init__(self, writer):
+        self.writer = writer
+        self.lock = threading.RLock()
+
+    def __getattr__(self, name):
+        method = getattr(self.writer, name)
+
+        def locked(*args):
+            with self.lock:
+                return method(*args)
+        return locked
+
+
+class QueuedWriter:
+    """Stands in for the protocol writer on a stage thread. Messages are collected until
+    flush() and handed to the output thread as one group, so they stay together on the stream.
+    With `bulk` the groups go to the frame lane of an OutputQueue."""
+
+    def __init__(self, output_queue, bulk=False):
+        self.output_queue = output_queue
+        self.bulk = bulk
+        self.pending = []
+
+    def flush(self):
+        if self.pending:
+            if self.bulk:
+                self.output_queue.put_bulk(self.pending)
+            else:
+                self.output_queue.put(self.pending)
+            self.pending = []
+
+    def __getattr__(self, name):
+        def record(*args):
+            self.pending.append((name, args))
+        return record
+
+
+def parse_cpus(spec):
+    """CPU list such as '0,2-3' as a set of CPU numbers; None for an empty spec."""
+    if not spec:
+        return None
+    cpus = set()
+    for part in spec.split(','):
+        first, _, last = part.strip().partition('-')
+        cpus.update(range(int(first), int(last or first) + 1))
+    return cpus
+
+
+def available_cpus():
+    """CPUs this process may run on."""
+    if hasattr(os, 'sched_getaffinity'):
+        return os.sched_getaffinity(0)
+    return set(range(os.cpu_count() or 1))
+
+
+def pin_current_thread(cpus):
+    """Restrict the calling thread, and threads it starts afterwards, to `cpus`.
+
+    Returns False where thread affinity is not supported (only Linux has it) or refused.
+    """
+    if not cpus:
+        return True
+    if not hasattr(os, 'sched_setaffinity'):
+        return False
+    try:
+        # On Linux pid 0 is the calling thread, not the whole process.
+        os.sched_setaffinity(0, cpus)
+        return True
+    except OSError:
+        return False
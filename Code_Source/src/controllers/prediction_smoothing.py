@@ -0,0 +1,95 @@
+import numpy as np
+
+
+class PredictionSmoother:
+    """Temporal smoothing of per-frame class probabilities.
+
+    Keeps a ring buffer of the last `window` probability vectors and smooths them
+    with an exponential moving average ('ema'), the window mean ('mean') or a
+    majority vote over the window ('majority'). A class is committed once its
+    smoothed confidence stays at or above `threshold` for `stable_frames`
+    consecutive updates. The same class is not committed twice in a row until a
+    different class has been committed (for example 'nothing' while the hand is
+    lowered).
+    """
+
+    def __init__(self, num_classes, window=8, threshold=0.7, stable_frames=5, method='ema'):
+        if method not in ('ema', 'mean', 'majority'):
+            raise ValueError(f"Unknown smoothing method: {method}")
+        self.num_classes = num_classes
+        self.window = max(1, window)
+        self.threshold = threshold
+        self.stable_frames = max(1, stable_frames)
+        self.method = method
+        self.alpha = 2.0 / (self.window + 1)
+        self.reset()
+
+    def reset(self):
+        """Forget all history, e.g. after a pause."""
+        self.history = np.zeros((self.window, self.num_classes), dtype=np.float32)
+        self.votes = np.zeros(self.num_classes, dtype=np.int32)
+        self.argmax_history = np.full(self.window, -1, dtype=np.int32)
+        self.count = 0
+        self.ema = None
+        self.candidate = -1
+        self.stable_count = 0
+        self.last_committed = -1
+
+    def smoothed(self):
+        """Return the current smoothed distribution."""
+        if self.count == 0:
+            return np.zeros(self.num_classes, dtype=np.float32)
+        if self.method == 'ema':
+            return self.ema
+        if self.method == 'mean':
+            return self.history[:min(self.count, self.window)].mean(axis=0)
+        return self.votes / float(min(self.count, self.window))
+
+    def window_mean(self):
+        """Return the mean of the raw probability vectors in the window, whatever the method."""
+        if self.count == 0:
+            return np.zeros(self.num_classes, dtype=np.float32)
+        return self.history[:min(self.count, self.window)].mean(axis=0)
+
+    def update(self, probabilities):
+        """Add one probability vector.
+
+        Returns (smoothed_index, smoothed_confidence, committed_index), where
+        committed_index is None unless this update committed a class.
+        """
+        probabilities = np.asarray(probabilities, dtype=np.float32).reshape(-1)
+        slot = self.count % self.window
+        top = int(np.argmax(probabilities))
+
+        if self.count >= self.window:
+            self.votes[self.argmax_history[slot]] -= 1
+        self.history[slot] = probabilities
+        self.argmax_history[slot] = top
+        self.votes[top] += 1
+        self.count += 1
+
+        if self.ema is None:
+            self.ema = probabilities.copy()
+        else:
+            self.ema += self.alpha * (probabilities - self.ema)
+
+        distribution = self.smoothed()
+        index = int(np.argmax(distribution))
+        confidence = float(distribution[index])
+
+        if confidence < self.threshold:
+            self.candidate = -1
+            self.stable_count = 0
+            return index, confidence, None
+
+        if index == self.candidate:
+            self.stable_count += 1
+        else:
+            self.candidate = index
+            self.stable_count = 1
+
+        if self.stable_count == self.stable_frames:
+            if index != self.last_committed:
+                self.last_committed = index
+                return index, confidence, index
+        return index, confidence, None
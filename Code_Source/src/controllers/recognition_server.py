@@ -0,0 +1,242 @@
+import queue
+import socket
+import struct
+import threading
+import time
+
+import cv2
+import numpy as np
+
+from asl_recognition import (FrameStamp, Recognition, build_parser, load_predictor, report_batches,
+                             report_status)
+from batched_inference import SessionPredictor
+from pipeline_stages import CLOSED, QueuedWriter, StageQueue
+from recognizer_control import ControlChannel
+from recognizer_protocol import (MSG_CONTROL, MSG_FRAME, MSG_TIMING, TIMING, BinaryMessageWriter,
+                                 read_message)
+
+DEFAULT_PORT = 5099
+# Message groups queued for a client before its oldest ones are dropped. Dropped edits are
+# made good by the next transcript snapshot.
+OUTPUT_QUEUE_SIZE = 64
+
+
+class Session:
+    """One connected client: its own hand tracking, smoothing and transcript, sharing the model.
+
+    The client sends TIMING and FRAME messages with JPEG frames and CONTROL commands; it gets
+    back the usual binary protocol messages, without frames. A reader thread decodes frames
+    onto the server's inbound queue and a writer thread sends the message groups the
+    inference loop produces, so a slow client only ever delays itself.
+    """
+
+    def __init__(self, sock, address, options, shared, inbound):
+        self.sock = sock
+        self.address = address
+        self.inbound = inbound
+        self.output = StageQueue(OUTPUT_QUEUE_SIZE, drop_oldest=True)
+        self.commands = queue.Queue()
+        self.control = ControlChannel(iter(self.commands.get, None))
+        self.recognition = Recognition(options, SessionPredictor(shared), QueuedWriter(self.output))
+        self.paused = False
+        self.closed = False
+        self.frames = 0
+        self._reader = threading.Thread(target=self._read_loop, name=f'session-reader-{address[1]}', daemon=True)
+        self._writer = threading.Thread(target=self._write_loop, name=f'session-writer-{address[1]}', daemon=True)
+
+    def __str__(self):
+        return f"{self.address[0]}:{self.address[1]}"
+
+    def start(self):
+        self._reader.start()
+        self._writer.start()
+
+    def send_status(self, message):
+        self.recognition.out.send_status(message)
+        self.recognition.out.flush()
+
+    def _read_loop(self):
+        stream = self.sock.makefile('rb')
+        timing = None
+        try:
+            while True:
+                message = read_message(stream)
+                if message is None:
+                    break
+                msg_type, payload = message
+                if msg_type == MSG_TIMING:
+                    timing = TIMING.unpack(payload)
+                elif msg_type == MSG_FRAME:
+                    self.frames += 1
+                    if timing is not None:
+                        stamp = FrameStamp(timing[1], timing[2], None)
+                    else:
+                        stamp = FrameStamp(self.frames, time.time_ns() // 1000, None)
+                    timing = None
+                    frame = cv2.imdecode(np.frombuffer(payload, dtype=np.uint8), cv2.IMREAD_COLOR)
+                    if frame is not None:
+                        self.inbound.put((self, frame, stamp))
+                elif msg_type == MSG_CONTROL:
+                    self.commands.put(payload.decode('utf-8', 'replace'))
+        except (OSError, ValueError, struct.error):
+            pass
+        finally:
+            # Ends the control channel, which tells the inference loop this session is gone.
+            self.commands.put(None)
+
+    def _write_loop(self):
+        out = BinaryMessageWriter(self.sock.makefile('wb'))
+        try:
+            while True:
+                group = self.output.get()
+                if group is CLOSED:
+                    break
+                for name, args in group:
+                    getattr(out, name)(*args)
+                if not len(self.output):
+                    out.flush()
+        except (OSError, ValueError):
+            pass
+        finally:
+            self.close()
+
+    def close(self):
+        self.closed = True
+        self.output.close()
+        try:
+            self.sock.shutdown(socket.SHUT_RDWR)
+        except OSError:
+            pass
+        self.sock.close()
+
+
+def serve(options):
+    """Accept clients on options.host:options.port and classify all their frames with one model.
+
+    The inference loop runs on the calling thread. It takes decoded frames from every session
+    off one inbound queue and submits them to a shared BatchedPredictor, so frames of
+    different clients fill the same batch of up to options.batch_size frames. Each session
+    keeps its own hand tracking, smoothing and transcript. The inbound queue drops its oldest
+    frame when inference falls behind. Server-wide load goes to stderr as STATUS lines every
+    options.utilization_interval seconds.
+    """
+    shared = load_predictor(options, options.inference_threads)
+    inbound = StageQueue(max(2, options.max_sessions * 2), drop_oldest=True)
+    sessions = []
+    sessions_lock = threading.Lock()
+
+    listener = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+    listener.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+    listener.bind((options.host, options.port))
+    listener.listen(options.max_sessions)
+    report_status(f"Recognition server listening on {options.host}:{options.port} "
+                  f"(up to {options.max_sessions} sessions, batches of {options.batch_size}).")
+
+    def accept_loop():
+        while True:
+            try:
+                sock, address = listener.accept()
+            except OSError:
+                break
+            sock.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+            with sessions_lock:
+                full = len(sessions) >= options.max_sessions
+            if full:
+                try:
+                    BinaryMessageWriter(sock.makefile('wb')).send_status(
+                        f"Error - The recognition server already has {options.max_sessions} sessions.")
+                except OSError:
+                    pass
+                sock.close()
+                continue
+            session = Session(sock, address, options, shared, inbound)
+            with sessions_lock:
+                sessions.append(session)
+                count = len(sessions)
+            session.send_status(f"Connected to the recognition server; {count} sessions share the model.")
+            session.start()
+            report_status(f"Session {session} connected ({count} active).")
+
+    threading.Thread(target=accept_loop, name='accept', daemon=True).start()
+
+    last_report = time.monotonic()
+    frames_at_report, batches_at_report, dropped_at_report = shared.frames_run, shared.batches_run, inbound.dropped
+    try:
+        while True:
+            with sessions_lock:
+                current = list(sessions)
+            for session in current:
+                control = session.control
+                if control.closed.is_set():
+                    with sessions_lock:
+                        sessions.remove(session)
+                    session.close()
+                    session.recognition.predictor.clear()
+                    report_status(f"Session {session} closed after {session.frames} frames ({len(sessions)} active).")
+                    continue
+                if control.take_reset():
+                    session.recognition.reset()
+                for word in control.take_accepted():
+                    session.recognition.accept(word)
+                paused = control.paused.is_set()
+                if paused and not session.paused:
+                    session.recognition.pause()
+                session.paused = paused
+
+            item = inbound.get(timeout=0.005 if len(shared) else 0.05)
+            if item is CLOSED:
+                break
+            if item is not None:
+                session, frame, stamp = item
+                if not session.closed and not session.paused:
+                    try:
+                        session.recognition.process(frame, stamp, time.time())
+                    except Exception as e:
+                        report_status(f"Error - Inference failed for session {session}: {e}")
+            for session in current:
+                if session.closed:
+                    continue
+                try:
+                    session.recognition.poll()
+                except Exception as e:
+                    report_status(f"Error - Inference failed for session {session}: {e}")
+
+            now = time.monotonic()
+            if now - last_report >= options.utilization_interval:
+                frames = shared.frames_run - frames_at_report
+                batches = shared.batches_run - batches_at_report
+                if current or frames:
+                    report_status(f"{len(current)} sessions: {frames / (now - last_report):.1f} frames/s classified, "
+                                  f"mean batch size {frames / batches if batches else 0.0:.2f}, "
+                                  f"{inbound.dropped - dropped_at_report} frames dropped, "
+                                  f"{sum(s.output.dropped for s in current)} message groups dropped so far.")
+                last_report = now
+                frames_at_report, batches_at_report, dropped_at_report = (
+                    shared.frames_run, shared.batches_run, inbound.dropped)
+    except KeyboardInterrupt:
+        report_status("Received KeyboardInterrupt. Shutting down.")
+    finally:
+        listener.close()
+        with sessions_lock:
+            for session in sessions:
+                session.close()
+        report_batches(shared)
+        report_status("Shutdown complete.")
+
+
+def parse_args(argv=None):
+    """The recognizer's options plus where to listen. Clients already pick and throttle frames,
+    so every frame received is classified (stride 1), in larger batches than one client fills."""
+    parser = build_parser("Recognition server shared by several speakUrHands clients.")
+    parser.add_argument('--host', default='127.0.0.1', help="address to listen on ('0.0.0.0' for every interface)")
+    parser.add_argument('--port', type=int, default=DEFAULT_PORT, help="TCP port to listen on")
+    parser.add_argument('--max-sessions', type=int, default=64, help="most clients served at once")
+    parser.set_defaults(batch_size=16, batch_wait_ms=20)
+    options = parser.parse_args(argv)
+    options.stride = 1
+    options.max_sessions = max(1, options.max_sessions)
+    return options
+
+
+if __name__ == "__main__":
+    serve(parse_args())
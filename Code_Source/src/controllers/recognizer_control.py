@@ -0,0 +1,72 @@
+import collections
+import sys
+import threading
+
+
+class ControlChannel:
+    """Reads control commands sent by the Java side on stdin, one per line.
+
+    PAUSE and RESUME stop and restart capture without unloading the model,
+    RESET clears the translation, ACCEPT <word> replaces the word being signed with a
+    suggested completion. CREDIT <n> [render_us] and WINDOW <n> return frame credits to
+    `flow`, a frame_flow.FrameFlow, and are ignored without one. End of input means the
+    parent went away.
+    """
+
+    def __init__(self, stream=None, start_paused=False, flow=None):
+        self.stream = stream or sys.stdin
+        self.flow = flow
+        self.paused = threading.Event()
+        self.closed = threading.Event()
+        self._reset = threading.Event()
+        self._accepted = collections.deque()
+        if start_paused:
+            self.paused.set()
+        self._thread = threading.Thread(target=self._run, name='control-reader', daemon=True)
+        self._thread.start()
+
+    def _run(self):
+        try:
+            for line in self.stream:
+                self.handle(line.strip())
+        except (OSError, ValueError):
+            pass
+        finally:
+            self.closed.set()
+
+    def handle(self, line):
+        """Apply one control command."""
+        command = line.split(' ', 1)[0].upper()
+        if command == 'PAUSE':
+            self.paused.set()
+        elif command == 'RESUME':
+            self.paused.clear()
+        elif command == 'RESET':
+            self._reset.set()
+        elif command == 'ACCEPT':
+            parts = line.split(' ', 1)
+            if len(parts) == 2 and parts[1].strip():
+                self._accepted.append(parts[1].strip())
+        elif command in ('CREDIT', 'WINDOW') and self.flow is not None:
+            try:
+                values = [int(value) for value in line.split()[1:]]
+            except ValueError:
+                return
+            if command == 'WINDOW':
+                self.flow.restore(values[0] if values else None)
+            elif values:
+                self.flow.grant(values[0], values[1] if len(values) > 1 else None)
+
+    def take_reset(self):
+        """Return True once for each RESET received since the last call."""
+        if self._reset.is_set():
+            self._reset.clear()
+            return True
+        return False
+
+    def take_accepted(self):
+        """Return the words accepted since the last call, oldest first."""
+        words = []
+        while self._accepted:
+            words.append(self._accepted.popleft())
+        return words
@@ -0,0 +1,183 @@
+import base64
+import struct
+import sys
+
+# Message types shared with recognition.MessageType on the Java side.
+MSG_FRAME = 1
+MSG_PREDICTION = 2
+MSG_TRANSLATION = 3
+MSG_STATUS = 4
+MSG_HAND_REGION = 5
+MSG_TIMING = 6
+MSG_EDIT = 7
+MSG_SNAPSHOT = 8
+MSG_SLOT = 9
+# Sent by a recognition_server.py client: a UTF-8 command such as PAUSE or ACCEPT HELLO.
+MSG_CONTROL = 10
+MSG_FLOW = 11
+# Raw top classes of a classified frame, sent with --top-k for the Java event log.
+MSG_SCORES = 12
+
+# Kinds of TIMING message, sent just before the FRAME or PREDICTION they describe.
+TIMING_FRAME = 1
+TIMING_PREDICTION = 2
+
+HEADER = struct.Struct('>BI')
+PREDICTION_HEADER = struct.Struct('>f')
+# x, y, width, height of the hand box, then the frame size it refers to; width 0 means no hand.
+HAND_REGION = struct.Struct('>HHHHHH')
+# kind, frame sequence number, capture time (epoch microseconds), then two stage durations in
+# microseconds: capture and encode for frames, batch wait and inference for predictions.
+TIMING = struct.Struct('>BQqII')
+# Transcript edit: sequence number and operation, followed by the appended character (UTF-8).
+EDIT = struct.Struct('>QB')
+EDIT_OPS = {'+': 1, '-': 2}
+# Full transcript: sequence number of the last edit it contains, followed by the text (UTF-8).
+SNAPSHOT = struct.Struct('>Q')
+# Committed slot: index of the committed class, followed by the float32 class probabilities.
+SLOT = struct.Struct('>B')
+# Frame flow control: JPEG quality, frame width and height, target fps, credit stalls so far, credits held.
+FLOW = struct.Struct('>BHHfIH')
+# Frame scores: frame sequence number, capture time and class count, followed by (class byte, float32) pairs.
+SCORES = struct.Struct('>QqB')
+SCORE = struct.Struct('>Bf')
+
+
+def _micros(value):
+    return max(0, min(int(value), 0xFFFFFFFF))
+
+
+class TextMessageWriter:
+    """Legacy line protocol: KEY:value lines on stdout, STATUS lines on stderr."""
+
+    def __init__(self, out=None, err=None):
+        self.out = out or sys.stdout
+        self.err = err or sys.stderr
+
+    def send_frame(self, jpeg_bytes):
+        self.out.write("FRAME_B64:")
+        self.out.write(base64.b64encode(jpeg_bytes).decode('ascii'))
+        self.out.write("\n")
+        self.out.flush()
+
+    def send_prediction(self, label, confidence):
+        self.out.write(f"PREDICTION:{label}\n")
+
+    def send_translation(self, text):
+        self.out.write(f"TRANSLATION:{text}\n")
+
+    def send_edit(self, sequence, op, char):
+        self.out.write(f"EDIT:{sequence},{op}{char or ''}\n")
+
+    def send_snapshot(self, sequence, text):
+        self.out.write(f"SNAPSHOT:{sequence},{text}\n")
+
+    def send_slot(self, committed, probabilities):
+        values = ','.join(f"{p:.5f}" for p in probabilities)
+        self.out.write(f"SLOT:{committed},{values}\n")
+
+    def send_hand_region(self, roi, frame_width, frame_height):
+        x, y, w, h = roi or (0, 0, 0, 0)
+        self.out.write(f"HAND_REGION:{x},{y},{w},{h},{frame_width},{frame_height}\n")
+
+    def send_flow(self, quality, width, height, fps, stalls, credits):
+        self.out.write(f"FLOW:{quality},{width},{height},{fps:.1f},{stalls},{credits}\n")
+
+    def send_scores(self, sequence, capture_us, top):
+        values = ','.join(f"{index}:{p:.5f}" for index, p in top)
+        self.out.write(f"SCORES:{sequence},{capture_us},{values}\n")
+
+    def send_timing(self, kind, sequence, capture_us, first_us, second_us):
+        self.out.write(f"TIMING:{kind},{sequence},{capture_us},{_micros(first_us)},{_micros(second_us)}\n")
+
+    def send_status(self, message):
+        self.err.write(f"STATUS:{message}\n")
+        self.err.flush()
+
+    def flush(self):
+        self.out.flush()
+
+
+class BinaryMessageWriter:
+    """Length-prefixed protocol: 1 type byte, 4 byte big-endian length, payload."""
+
+    def __init__(self, out=None):
+        self.out = out or sys.stdout.buffer
+
+    def _send(self, msg_type, payload):
+        self.out.write(HEADER.pack(msg_type, len(payload)))
+        self.out.write(payload)
+
+    def send_frame(self, jpeg_bytes):
+        self._send(MSG_FRAME, jpeg_bytes)
+        self.out.flush()
+
+    def send_prediction(self, label, confidence):
+        self._send(MSG_PREDICTION, PREDICTION_HEADER.pack(confidence) + label.encode('utf-8'))
+
+    def send_translation(self, text):
+        self._send(MSG_TRANSLATION, text.encode('utf-8'))
+
+    def send_edit(self, sequence, op, char):
+        self._send(MSG_EDIT, EDIT.pack(sequence, EDIT_OPS[op]) + (char or '').encode('utf-8'))
+
+    def send_snapshot(self, sequence, text):
+        self._send(MSG_SNAPSHOT, SNAPSHOT.pack(sequence) + text.encode('utf-8'))
+
+    def send_slot(self, committed, probabilities):
+        values = [float(p) for p in probabilities]
+        self._send(MSG_SLOT, SLOT.pack(committed) + struct.pack(f'>{len(values)}f', *values))
+
+    def send_hand_region(self, roi, frame_width, frame_height):
+        x, y, w, h = roi or (0, 0, 0, 0)
+        self._send(MSG_HAND_REGION, HAND_REGION.pack(x, y, w, h, frame_width, frame_height))
+
+    def send_flow(self, quality, width, height, fps, stalls, credits):
+        self._send(MSG_FLOW, FLOW.pack(quality, width, height, fps, min(stalls, 0xFFFFFFFF), min(credits, 0xFFFF)))
+
+    def send_scores(self, sequence, capture_us, top):
+        self._send(MSG_SCORES, SCORES.pack(sequence, capture_us, len(top))
+                   + b''.join(SCORE.pack(index, float(p)) for index, p in top))
+
+    def send_timing(self, kind, sequence, capture_us, first_us, second_us):
+        self._send(MSG_TIMING, TIMING.pack(kind, sequence, capture_us, _micros(first_us), _micros(second_us)))
+
+    def send_status(self, message):
+        self._send(MSG_STATUS, message.encode('utf-8'))
+        self.out.flush()
+
+    def send_control(self, command):
+        self._send(MSG_CONTROL, command.encode('utf-8'))
+        self.out.flush()
+
+    def flush(self):
+        self.out.flush()
+
+
+def _read_exactly(stream, size):
+    data = bytearray()
+    while len(data) < size:
+        chunk = stream.read(size - len(data))
+        if not chunk:
+            return None
+        data += chunk
+    return bytes(data)
+
+
+def read_message(stream):
+    """Read one length-prefixed message; return (type, payload), or None at end of stream."""
+    header = _read_exactly(stream, HEADER.size)
+    if header is None:
+        return None
+    msg_type, length = HEADER.unpack(header)
+    payload = _read_exactly(stream, length) if length else b''
+    if payload is None:
+        return None
+    return msg_type, payload
+
+
+def create_writer(protocol):
+    """Return the message writer for the requested protocol name."""
+    if protocol == 'binary':
+        return BinaryMessageWriter()
+    return TextMessageWriter()
@@ -0,0 +1,173 @@
+import argparse
+import socket
+import struct
+import threading
+import time
+
+import cv2
+import numpy as np
+
+from frame_source import open_frame_source
+from recognizer_protocol import (MSG_PREDICTION, MSG_STATUS, MSG_TIMING, TIMING, TIMING_FRAME,
+                                 TIMING_PREDICTION, BinaryMessageWriter, read_message)
+
+
+def load_frames(spec, width, limit=200):
+    """Encode up to `limit` frames of a replayed source as the clients' JPEGs; a synthetic frame if none can be read."""
+    frames = []
+    cap = open_frame_source(spec, 'fast')
+    try:
+        while cap.isOpened() and len(frames) < limit:
+            ret, frame = cap.read()
+            if not ret:
+                break
+            frames.append(frame)
+    finally:
+        cap.release()
+    if not frames:
+        frame = np.zeros((240, 320, 3), dtype=np.uint8)
+        cv2.circle(frame, (160, 120), 60, (120, 170, 220), -1)
+        frames.append(frame)
+    encoded = []
+    for frame in frames:
+        scale = min(1.0, width / frame.shape[1])
+        small = cv2.resize(frame, (round(frame.shape[1] * scale), round(frame.shape[0] * scale)),
+                           interpolation=cv2.INTER_AREA)
+        ok, buffer = cv2.imencode('.jpg', small, [int(cv2.IMWRITE_JPEG_QUALITY), 80])
+        if ok:
+            encoded.append(buffer.tobytes())
+    return encoded
+
+
+class Client:
+    """Sends frames to the server at a fixed rate like ServerRecognizer, and times the predictions.
+
+    Latency is measured from the capture time the client stamps on a frame's TIMING message to
+    the arrival of the PREDICTION for it, on this host's clock.
+    """
+
+    def __init__(self, index, options, frames):
+        self.index = index
+        self.options = options
+        self.frames = frames
+        self.sent = 0
+        self.predictions = 0
+        self.latencies_us = []
+        self.errors = []
+        self.sock = socket.create_connection((options.host, options.port))
+        self.sock.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+
+    def send_loop(self, stop):
+        out = BinaryMessageWriter(self.sock.makefile('wb'))
+        interval = 1.0 / self.options.fps
+        # Clients start at different points of the recording, and out of step with each other.
+        offset = self.index * 7
+        next_due = time.monotonic() + interval * (self.index / max(1, self.options.clients))
+        try:
+            while not stop.is_set():
+                now = time.monotonic()
+                if next_due > now:
+                    time.sleep(next_due - now)
+                next_due = max(next_due + interval, time.monotonic() - interval)
+                self.sent += 1
+                jpeg = self.frames[(offset + self.sent) % len(self.frames)]
+                out.send_timing(TIMING_FRAME, self.sent, time.time_ns() // 1000, 0, 0)
+                out.send_frame(jpeg)
+        except OSError as e:
+            if not stop.is_set():
+                self.errors.append(str(e))
+
+    def read_loop(self):
+        stream = self.sock.makefile('rb')
+        capture_us = None
+        try:
+            while True:
+                message = read_message(stream)
+                if message is None:
+                    break
+                msg_type, payload = message
+                if msg_type == MSG_TIMING:
+                    kind, _, stamp, _, _ = TIMING.unpack(payload)
+                    capture_us = stamp if kind == TIMING_PREDICTION else None
+                elif msg_type == MSG_PREDICTION:
+                    self.predictions += 1
+                    if capture_us:
+                        self.latencies_us.append(time.time_ns() // 1000 - capture_us)
+                    capture_us = None
+                elif msg_type == MSG_STATUS and payload.startswith(b'Error'):
+                    self.errors.append(payload.decode('utf-8', 'replace'))
+        except (OSError, struct.error):
+            pass
+
+    def close(self):
+        try:
+            self.sock.shutdown(socket.SHUT_RDWR)
+        except OSError:
+            pass
+        self.sock.close()
+
+
+def percentile(values, fraction):
+    if not values:
+        return 0.0
+    ordered = sorted(values)
+    return ordered[min(len(ordered) - 1, int(fraction * len(ordered)))]
+
+
+def run(options):
+    """Connect options.clients clients, stream frames for options.duration seconds and print the results."""
+    frames = load_frames(options.source, options.width)
+    clients = [Client(i, options, frames) for i in range(options.clients)]
+    stop = threading.Event()
+    senders = [threading.Thread(target=c.send_loop, args=(stop,), daemon=True) for c in clients]
+    readers = [threading.Thread(target=c.read_loop, daemon=True) for c in clients]
+    for thread in readers + senders:
+        thread.start()
+    started = time.monotonic()
+    time.sleep(options.duration)
+    stop.set()
+    for thread in senders:
+        thread.join()
+    # Let predictions for the last frames arrive before hanging up.
+    time.sleep(1.0)
+    elapsed = time.monotonic() - started
+    for client in clients:
+        client.close()
+    for thread in readers:
+        thread.join(2.0)
+
+    sent = sum(c.sent for c in clients)
+    predictions = sum(c.predictions for c in clients)
+    latencies = [latency / 1000.0 for c in clients for latency in c.latencies_us]
+    print(f"{options.clients} clients at {options.fps:g} frames/s for {options.duration:g} s, "
+          f"{len(frames[0]) / 1024:.1f} KiB frames")
+    print(f"sent {sent} frames ({sent / elapsed:.1f}/s), received {predictions} predictions "
+          f"({predictions / elapsed:.1f}/s, {100.0 * predictions / max(sent, 1):.1f}% of frames)")
+    print(f"prediction latency ms: p50 {percentile(latencies, 0.50):.1f}, p95 {percentile(latencies, 0.95):.1f}, "
+          f"p99 {percentile(latencies, 0.99):.1f}, max {max(latencies, default=0.0):.1f}")
+    starved = [c.index for c in clients if c.predictions == 0]
+    if starved:
+        print(f"clients without predictions: {starved}")
+    for client in clients:
+        for error in client.errors[:1]:
+            print(f"client {client.index}: {error}")
+
+
+def parse_args(argv=None):
+    parser = argparse.ArgumentParser(description="Simulates many ServerRecognizer clients of recognition_server.py.")
+    parser.add_argument('--host', default='127.0.0.1', help="recognition server address")
+    parser.add_argument('--port', type=int, default=5099, help="recognition server port")
+    parser.add_argument('--clients', type=int, default=24, help="number of simulated clients")
+    parser.add_argument('--fps', type=float, default=10.0, help="frames per second each client sends")
+    parser.add_argument('--duration', type=float, default=30.0, help="seconds to send frames for")
+    parser.add_argument('--source', default='dir:src/asl_alphabet_test',
+                        help="frames to send, as for asl_recognition.py --source; a synthetic frame if unreadable")
+    parser.add_argument('--width', type=int, default=320, help="width frames are scaled to before encoding")
+    options = parser.parse_args(argv)
+    options.clients = max(1, options.clients)
+    options.fps = max(0.1, options.fps)
+    return options
+
+
+if __name__ == "__main__":
+    run(parse_args())
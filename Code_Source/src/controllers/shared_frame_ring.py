@@ -0,0 +1,84 @@
+import mmap
+import os
+import struct
+import time
+
+import cv2
+import numpy as np
+
+# Layout shared with recognition.SharedFrameRing on the Java side (little-endian).
+MAGIC = 0x52485553  # "SUHR"
+VERSION = 1
+HEADER_SIZE = 64
+SLOT_HEADER_SIZE = 64
+CHANNELS = 4  # BGRA, which JavaFX can display without conversion
+
+# magic, version, slot_count, width, height, channels, slot_size, latest_seq
+HEADER = struct.Struct('<IIIIIIQQ')
+LATEST_SEQ_OFFSET = 32
+# seq_begin, capture_ts_us, seq_end
+SLOT_HEADER = struct.Struct('<QqQ')
+SLOT_SEQ_END_OFFSET = 16
+# Slots start on 8-byte boundaries, so the reader's atomic 64-bit sequence reads are aligned.
+SLOT_ALIGNMENT = 8
+
+
+class SharedFrameRingWriter:
+    """Writes raw BGRA frames into a memory-mapped ring of fixed-size slots.
+
+    Each slot is bracketed by sequence counters so the reader can detect a slot
+    that was overwritten while it was being copied.
+    """
+
+    def __init__(self, path, width, height, slot_count=4):
+        self.path = path
+        self.width = width
+        self.height = height
+        self.slot_count = slot_count
+        self.frame_size = width * height * CHANNELS
+        self.slot_size = -(-(SLOT_HEADER_SIZE + self.frame_size) // SLOT_ALIGNMENT) * SLOT_ALIGNMENT
+        self.sequence = 0
+
+        total_size = HEADER_SIZE + self.slot_size * slot_count
+        with open(path, 'wb') as f:
+            f.truncate(total_size)
+        self._file = open(path, 'r+b')
+        self.mm = mmap.mmap(self._file.fileno(), total_size)
+        self._slots = [
+            np.frombuffer(self.mm, dtype=np.uint8, count=self.frame_size,
+                          offset=self._slot_offset(i) + SLOT_HEADER_SIZE).reshape(height, width, CHANNELS)
+            for i in range(slot_count)
+        ]
+        # The magic is written last so a reader never sees a half-initialised header.
+        self.mm[0:HEADER.size] = HEADER.pack(0, VERSION, slot_count, width, height, CHANNELS, self.slot_size, 0)
+        struct.pack_into('<I', self.mm, 0, MAGIC)
+
+    def _slot_offset(self, index):
+        return HEADER_SIZE + index * self.slot_size
+
+    def write(self, frame):
+        """Copy a BGR frame into the next slot and publish it as the newest one."""
+        self.sequence += 1
+        index = self.sequence % self.slot_count
+        offset = self._slot_offset(index)
+
+        struct.pack_into('<Q', self.mm, offset, self.sequence)
+        struct.pack_into('<q', self.mm, offset + 8, time.time_ns() // 1000)
+        if frame.shape[1] != self.width or frame.shape[0] != self.height:
+            frame = cv2.resize(frame, (self.width, self.height))
+        cv2.cvtColor(frame, cv2.COLOR_BGR2BGRA, dst=self._slots[index])
+        struct.pack_into('<Q', self.mm, offset + SLOT_SEQ_END_OFFSET, self.sequence)
+        struct.pack_into('<Q', self.mm, LATEST_SEQ_OFFSET, self.sequence)
+        return self.sequence
+
+    def close(self):
+        self._slots = []
+        try:
+            self.mm.close()
+        except BufferError:
+            pass
+        self._file.close()
+        try:
+            os.remove(self.path)
+        except OSError:
+            pass
@@ -0,0 +1,94 @@
+import time
+
+# Edit operations, shared with recognition.TranscriptEdit on the Java side.
+EDIT_APPEND = '+'
+EDIT_DELETE = '-'
+
+
+class Transcript:
+    """The translated text, updated in constant time per committed prediction.
+
+    apply() returns the edit a prediction makes as (sequence, op, char), or None if the text
+    is unchanged. The Java side applies these edits to its own buffer; a snapshot of the full
+    text, numbered with the sequence of the last edit it contains, is due every
+    `snapshot_every` edits or `snapshot_interval` seconds so a receiver that missed edits can
+    resynchronize.
+    """
+
+    def __init__(self, snapshot_every=64, snapshot_interval=10.0):
+        self.snapshot_every = snapshot_every
+        self.snapshot_interval = snapshot_interval
+        self.chars = []
+        # last_letters[i] is the last non-space character of chars[:i + 1], so the repeated
+        # letter check does not have to scan back over the text.
+        self.last_letters = []
+        self.sequence = 0
+        self.edits_since_snapshot = 0
+        self.last_snapshot = time.monotonic()
+
+    def __len__(self):
+        return len(self.chars)
+
+    def apply(self, prediction):
+        """Apply a committed class name: 'del' removes the last character, 'space' adds one
+        space, a letter is added unless it repeats the previous letter, 'nothing' is ignored."""
+        if prediction == 'del':
+            if not self.chars:
+                return None
+            self.chars.pop()
+            self.last_letters.pop()
+            return self._edit(EDIT_DELETE, None)
+        if prediction == 'space':
+            if self.chars and self.chars[-1] == ' ':
+                return None
+            return self._push(' ')
+        if prediction == 'nothing':
+            return None
+        if self.last_letters and self.last_letters[-1] == prediction:
+            return None
+        return self._push(prediction)
+
+    def accept_word(self, word):
+        """Replace the word being signed, everything after the last space, with `word` and
+        a space; returns the edits that makes, in order."""
+        edits = []
+        while self.chars and self.chars[-1] != ' ':
+            self.chars.pop()
+            self.last_letters.pop()
+            edits.append(self._edit(EDIT_DELETE, None))
+        for char in word.upper():
+            if char != ' ':
+                edits.append(self._push(char))
+        edits.append(self._push(' '))
+        return edits
+
+    def _push(self, char):
+        previous = self.last_letters[-1] if self.last_letters else None
+        self.chars.append(char)
+        self.last_letters.append(previous if char == ' ' else char)
+        return self._edit(EDIT_APPEND, char)
+
+    def _edit(self, op, char):
+        self.sequence += 1
+        self.edits_since_snapshot += 1
+        return self.sequence, op, char
+
+    def reset(self):
+        """Clear the text. Sequence numbers keep counting, so the next snapshot replaces the old text."""
+        self.chars = []
+        self.last_letters = []
+
+    def text(self):
+        return ''.join(self.chars)
+
+    def snapshot_due(self):
+        if self.edits_since_snapshot == 0:
+            return False
+        return (self.edits_since_snapshot >= self.snapshot_every
+                or time.monotonic() - self.last_snapshot >= self.snapshot_interval)
+
+    def snapshot(self):
+        """Return (sequence, full text) and restart the snapshot schedule."""
+        self.edits_since_snapshot = 0
+        self.last_snapshot = time.monotonic()
+        return self.sequence, self.text()
@@ -0,0 +1,31 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Output classes of the recognition model, in the order of its softmax (see CLASS_NAMES in asl_recognition.py).
+ */
+public final class AslClasses {
+
+    public static final String NOTHING = "nothing";
+    public static final String DELETE = "del";
+    public static final String SPACE = "space";
+
+    public static final List<String> NAMES;
+
+    static {
+        List<String> names = new ArrayList<>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            names.add(String.valueOf(c));
+        }
+        names.add(NOTHING);
+        names.add(DELETE);
+        names.add(SPACE);
+        NAMES = Collections.unmodifiableList(names);
+    }
+
+    private AslClasses() {
+    }
+}
@@ -0,0 +1,50 @@
+package recognition;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+
+public class CameraFrameSource implements FrameSource {
+
+    private final int index;
+    private final VideoCapture capture;
+
+    public CameraFrameSource(int index) {
+        this.index = index;
+        this.capture = new VideoCapture(index);
+    }
+
+    @Override
+    public boolean isOpened() {
+        return capture.isOpened();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        return capture.read(frame) && !frame.empty();
+    }
+
+    @Override
+    public boolean isLive() {
+        return true;
+    }
+
+    @Override
+    public boolean isMirrored() {
+        return true;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return false;
+    }
+
+    @Override
+    public String describe() {
+        return "camera " + index;
+    }
+
+    @Override
+    public void release() {
+        capture.release();
+    }
+}
@@ -0,0 +1,33 @@
+package recognition;
+
+/**
+ * A class the recognizer committed to the translation, with the probability vector it was
+ * committed from, in {@link AslClasses#NAMES} order. Word decoding uses the whole vector, so a
+ * letter that was misread can still be recovered from the runner-up classes.
+ */
+public record CommittedSlot(int classIndex, float[] probabilities) {
+
+    public String label() {
+        return AslClasses.NAMES.get(classIndex);
+    }
+
+    /**
+     * Parses the value of a text protocol SLOT line: the committed class index, then the probabilities.
+     * @return the slot, or null if the value is malformed
+     */
+    public static CommittedSlot parse(String value) {
+        String[] fields = value.split(",");
+        if (fields.length != AslClasses.NAMES.size() + 1) return null;
+        try {
+            int classIndex = Integer.parseInt(fields[0]);
+            if (classIndex < 0 || classIndex >= AslClasses.NAMES.size()) return null;
+            float[] probabilities = new float[fields.length - 1];
+            for (int i = 0; i < probabilities.length; i++) {
+                probabilities[i] = Float.parseFloat(fields[i + 1]);
+            }
+            return new CommittedSlot(classIndex, probabilities);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package recognition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Append-only binary log of what the camera view received from the recognizer: session starts
+ * and ends, raw top-k scores per classified frame, smoothed predictions, committed slots,
+ * transcript edits and accepted words. Every record carries the time it was logged, and the
+ * score and prediction records carry the frame's capture time, so latencies can be worked out
+ * afterwards. {@link EventLogReplay} streams a log back through the smoothing and translation.
+ *
+ * <p>Callers only encode a record and offer it to a bounded queue, so the FX and reader threads
+ * never wait for the disk; when the queue is full the record is dropped and counted. A writer
+ * thread drains the queue in batches into segment files of at most {@code segmentBytes}, named
+ * events-NNNNNN.log, and deletes the oldest once more than {@code keepSegments} exist.
+ *
+ * <p>A segment starts with a {@value #HEADER_SIZE}-byte header (MAGIC, VERSION, reserved, the
+ * epoch microseconds it was created at). Each record is a type byte, the payload length as a
+ * big-endian int, the epoch microseconds it was logged at, then the payload; a record cut short
+ * by a crash ends the segment.
+ */
+public final class EventLog implements AutoCloseable {
+
+    public static final int MAGIC = 0x5355454C;
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_HEADER_SIZE = 13;
+    public static final String SEGMENT_PREFIX = "events-";
+    public static final String SEGMENT_SUFFIX = ".log";
+    public static final int DEFAULT_TOP_K = 5;
+
+    private static final int QUEUE_CAPACITY = 8192;
+    private static final int BATCH = 512;
+    private static final long FLUSH_INTERVAL_MS = 500;
+    private static final long CLOSE_TIMEOUT_MS = 2000;
+    private static final byte[] CLOSE = new byte[0];
+
+    public enum Type {
+        SESSION_START(1),
+        SESSION_END(2),
+        /** Sequence, capture micros, count, then count pairs of class byte and float probability. */
+        SCORES(3),
+        /** Capture micros, confidence, then the label (UTF-8). */
+        PREDICTION(4),
+        /** Committed class byte, then one float per class. */
+        SLOT(5),
+        /** Sequence, operation (1 append, 2 delete), then the appended character as a UTF-16 unit. */
+        EDIT(6),
+        /** Sequence of the last edit it contains, then the text (UTF-8). */
+        SNAPSHOT(7),
+        /** The word the user picked from the suggestions (UTF-8). */
+        ACCEPT(8);
+
+        private static final Type[] BY_CODE = new Type[256];
+
+        static {
+            for (Type type : values()) {
+                BY_CODE[type.code] = type;
+            }
+        }
+
+        private final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        public static Type fromCode(int code) {
+            return BY_CODE[code & 0xFF];
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int keepSegments;
+    private final int topK;
+    private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writerThread;
+
+    private FileChannel segment;
+    private long segmentSize;
+    private int segmentIndex;
+
+    /**
+     * @param directory    where segments are written; created if missing
+     * @param segmentBytes size after which a new segment is started
+     * @param keepSegments segments kept before the oldest is deleted
+     * @param topK         classes per frame the recognizer is asked to send scores for
+     */
+    public EventLog(Path directory, long segmentBytes, int keepSegments, int topK) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = Math.max(64 * 1024, segmentBytes);
+        this.keepSegments = Math.max(1, keepSegments);
+        this.topK = Math.max(1, topK);
+        Files.createDirectories(directory);
+        List<Path> existing = listSegments(directory);
+        segmentIndex = existing.isEmpty() ? 0 : segmentNumber(existing.get(existing.size() - 1));
+        writerThread = new Thread(this::writeLoop, "event-log-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * @return the directory speakurhands.eventLog names: "on" for .speakurhands/events in the
+     *         user's home directory, or a path; null if the property is unset or "off"
+     */
+    public static Path directoryFromSystemProperties() {
+        String directory = System.getProperty("speakurhands.eventLog", "off");
+        if ("off".equalsIgnoreCase(directory) || directory.isEmpty()) {
+            return null;
+        }
+        if ("on".equalsIgnoreCase(directory)) {
+            return defaultDirectory();
+        }
+        return Paths.get(directory);
+    }
+
+    /** @return .speakurhands/events in the user's home directory */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".speakurhands", "events");
+    }
+
+    /**
+     * Opens the log in {@link #directoryFromSystemProperties()}, with segments of
+     * speakurhands.eventLog.segmentMb (16) MB, keeping speakurhands.eventLog.segments (32) of them.
+     * @return null if the log is off, as it is by default, or the directory cannot be created
+     */
+    public static EventLog fromSystemProperties() {
+        Path directory = directoryFromSystemProperties();
+        if (directory == null) {
+            return null;
+        }
+        try {
+            return new EventLog(directory, Long.getLong("speakurhands.eventLog.segmentMb", 16) * 1024 * 1024,
+                    Integer.getInteger("speakurhands.eventLog.segments", 32),
+                    Integer.getInteger("speakurhands.eventLog.topK", DEFAULT_TOP_K));
+        } catch (IOException e) {
+            System.err.println("Event log disabled, cannot use " + directory + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @return the classes per frame recognizers should send {@link FrameScores} for, as
+     *         {@link #fromSystemProperties()} would log them; 0 if the event log is off
+     */
+    public static int topKFromSystemProperties() {
+        if (directoryFromSystemProperties() == null) {
+            return 0;
+        }
+        return Math.max(1, Integer.getInteger("speakurhands.eventLog.topK", DEFAULT_TOP_K));
+    }
+
+    /** @return the segments of a log directory, oldest first */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static int segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /** @return records dropped because the writer fell behind */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void sessionStarted() {
+        offer(record(Type.SESSION_START, 0));
+    }
+
+    public void sessionEnded() {
+        offer(record(Type.SESSION_END, 0));
+    }
+
+    public void scores(FrameScores scores) {
+        int count = Math.min(scores.classes().length, 255);
+        ByteBuffer buffer = record(Type.SCORES, 17 + count * 5);
+        buffer.putLong(scores.sequence()).putLong(scores.captureMicros()).put((byte) count);
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) scores.classes()[i]).putFloat(scores.probabilities()[i]);
+        }
+        offer(buffer);
+    }
+
+    public void prediction(Prediction prediction) {
+        byte[] label = prediction.label().getBytes(StandardCharsets.UTF_8);
+        offer(record(Type.PREDICTION, 12 + label.length)
+                .putLong(prediction.captureMicros()).putFloat(prediction.confidence()).put(label));
+    }
+
+    public void slot(CommittedSlot slot) {
+        ByteBuffer buffer = record(Type.SLOT, 1 + slot.probabilities().length * 4).put((byte) slot.classIndex());
+        for (float p : slot.probabilities()) {
+            buffer.putFloat(p);
+        }
+        offer(buffer);
+    }
+
+    public void edit(TranscriptEdit edit) {
+        if (edit.kind() == TranscriptEdit.Kind.SNAPSHOT) {
+            byte[] text = edit.text().getBytes(StandardCharsets.UTF_8);
+            offer(record(Type.SNAPSHOT, 8 + text.length).putLong(edit.sequence()).put(text));
+        } else {
+            offer(record(Type.EDIT, 11).putLong(edit.sequence())
+                    .put((byte) (edit.kind() == TranscriptEdit.Kind.APPEND ? 1 : 2)).putChar(edit.character()));
+        }
+    }
+
+    public void accepted(String word) {
+        byte[] text = word.getBytes(StandardCharsets.UTF_8);
+        offer(record(Type.ACCEPT, text.length).put(text));
+    }
+
+    private static ByteBuffer record(Type type, int payloadSize) {
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_SIZE + payloadSize);
+        buffer.put((byte) type.getCode()).putInt(payloadSize).putLong(PipelineMetrics.nowMicros());
+        return buffer;
+    }
+
+    private void offer(ByteBuffer record) {
+        if (!queue.offer(record.array())) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLoop() {
+        List<byte[]> batch = new ArrayList<>(BATCH);
+        ByteBuffer out = ByteBuffer.allocateDirect(256 * 1024);
+        boolean closing = false;
+        try {
+            while (!closing) {
+                byte[] first = queue.poll(FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, BATCH - 1);
+                for (byte[] record : batch) {
+                    if (record == CLOSE) {
+                        closing = true;
+                        break;
+                    }
+                    if (segment == null || segmentSize + out.position() + record.length > segmentBytes) {
+                        writeOut(out);
+                        rotate();
+                    }
+                    if (record.length > out.remaining()) {
+                        writeOut(out);
+                        if (record.length > out.capacity()) {
+                            writeFully(ByteBuffer.wrap(record));
+                            continue;
+                        }
+                    }
+                    out.put(record);
+                }
+                batch.clear();
+                writeOut(out);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("Event log stopped: " + e.getMessage());
+        } finally {
+            try {
+                if (segment != null) segment.close();
+            } catch (IOException ignored) {}
+            segment = null;
+        }
+    }
+
+    private void writeOut(ByteBuffer out) throws IOException {
+        if (out.position() == 0 || segment == null) return;
+        out.flip();
+        writeFully(out);
+        out.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        segmentSize += buffer.remaining();
+        while (buffer.hasRemaining()) {
+            segment.write(buffer);
+        }
+    }
+
+    private void rotate() throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentIndex++;
+        Path path = directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+        segment = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putLong(PipelineMetrics.nowMicros()).flip();
+        segmentSize = 0;
+        writeFully(header);
+
+        List<Path> segments = listSegments(directory);
+        for (int i = 0; i < segments.size() - keepSegments; i++) {
+            Files.deleteIfExists(segments.get(i));
+        }
+    }
+
+    /** Writes what is queued, then closes the current segment; gives up after a few seconds. */
+    @Override
+    public void close() {
+        try {
+            // A writer that stopped on an I/O error no longer drains the queue, which may be full.
+            if (writerThread.isAlive() && queue.offer(CLOSE, CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                writerThread.join(CLOSE_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0) {
+            System.err.println("Event log: " + dropped.get() + " records dropped because the writer fell behind.");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package recognition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads the records of an {@link EventLog} directory in the order they were written, one
+ * memory-mapped segment at a time. Like {@link FramedMessageReader}, {@link #next()} moves to
+ * the next record and the read methods decode the current one.
+ */
+public class EventLogReader implements Closeable {
+
+    private final List<Path> segments;
+    private int nextSegment;
+    private MappedByteBuffer mapped;
+    private ByteBuffer payload;
+    private EventLog.Type type;
+    private long timestampMicros;
+    private long truncatedSegments;
+
+    public EventLogReader(Path directory) throws IOException {
+        this.segments = EventLog.listSegments(directory);
+    }
+
+    public List<Path> getSegments() {
+        return segments;
+    }
+
+    /** @return segments that ended in a record cut short, e.g. by a crash, or had a bad header */
+    public long getTruncatedSegments() {
+        return truncatedSegments;
+    }
+
+    /** @return false once every segment has been read; records of unknown types are skipped */
+    public boolean next() throws IOException {
+        while (true) {
+            if (mapped == null || !mapped.hasRemaining()) {
+                if (!openNextSegment()) return false;
+                continue;
+            }
+            if (mapped.remaining() < EventLog.RECORD_HEADER_SIZE) {
+                truncatedSegments++;
+                mapped = null;
+                continue;
+            }
+            int code = mapped.get() & 0xFF;
+            int length = mapped.getInt();
+            long timestamp = mapped.getLong();
+            if (length < 0 || length > mapped.remaining()) {
+                truncatedSegments++;
+                mapped = null;
+                continue;
+            }
+            ByteBuffer record = mapped.slice();
+            record.limit(length);
+            mapped.position(mapped.position() + length);
+            type = EventLog.Type.fromCode(code);
+            if (type == null) continue;
+            payload = record;
+            timestampMicros = timestamp;
+            return true;
+        }
+    }
+
+    private boolean openNextSegment() throws IOException {
+        mapped = null;
+        while (nextSegment < segments.size()) {
+            Path path = segments.get(nextSegment++);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                if (channel.size() < EventLog.HEADER_SIZE) {
+                    truncatedSegments++;
+                    continue;
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt() != EventLog.MAGIC || buffer.getShort() != EventLog.VERSION) {
+                    truncatedSegments++;
+                    continue;
+                }
+                buffer.position(EventLog.HEADER_SIZE);
+                mapped = buffer;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public EventLog.Type type() {
+        return type;
+    }
+
+    /** @return when the current record was logged, in epoch microseconds */
+    public long timestampMicros() {
+        return timestampMicros;
+    }
+
+    public FrameScores readScores() {
+        int count = payload.get(16) & 0xFF;
+        int[] classes = new int[count];
+        float[] probabilities = new float[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = payload.get(17 + i * 5) & 0xFF;
+            probabilities[i] = payload.getFloat(18 + i * 5);
+        }
+        return new FrameScores(payload.getLong(0), payload.getLong(8), classes, probabilities);
+    }
+
+    public Prediction readPrediction() {
+        return new Prediction(readString(12), payload.getFloat(8), payload.getLong(0));
+    }
+
+    public CommittedSlot readSlot() {
+        float[] probabilities = new float[(payload.limit() - 1) / 4];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = payload.getFloat(1 + i * 4);
+        }
+        return new CommittedSlot(payload.get(0) & 0xFF, probabilities);
+    }
+
+    /** @return an EDIT or SNAPSHOT record as a transcript edit */
+    public TranscriptEdit readEdit() {
+        long sequence = payload.getLong(0);
+        if (type == EventLog.Type.SNAPSHOT) {
+            return TranscriptEdit.snapshot(sequence, readString(8));
+        }
+        return payload.get(8) == 2 ? TranscriptEdit.delete(sequence) : TranscriptEdit.append(sequence, payload.getChar(9));
+    }
+
+    public String readAccepted() {
+        return readString(0);
+    }
+
+    private String readString(int offset) {
+        byte[] bytes = new byte[payload.limit() - offset];
+        payload.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() {
+        mapped = null;
+        payload = null;
+    }
+}
@@ -0,0 +1,157 @@
+package recognition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Streams an {@link EventLog} back through the smoothing and translation at full speed, for
+ * what-if runs with other settings. The logged top-k scores of each classified frame go through
+ * a {@link PredictionSmoother} built from the usual system properties, and the commits it makes
+ * and the words the user accepted through a {@link TranslationHistory}. Each session's replayed
+ * translation is printed next to the one the user saw.
+ *
+ * <p>Usage: EventLogReplay [log directory, default ~/.speakurhands/events], for example
+ * java -Dspeakurhands.threshold=0.8 -Dspeakurhands.stableFrames=4 recognition.EventLogReplay
+ *
+ * <p>Classes outside the logged top k get an even share of the remaining probability, so the
+ * replay can differ slightly from the live smoothing even with the same settings.
+ */
+public class EventLogReplay {
+
+    private final RecognitionSettings settings;
+    private final PredictionSmoother smoother;
+    private TranslationHistory replayed = new TranslationHistory();
+    private TranscriptBuffer logged = new TranscriptBuffer();
+
+    private int sessions;
+    private long sessionFrames;
+    private long sessionCommits;
+    private long sessionLoggedCommits;
+    private long sessionStartMicros;
+    private long sessionEndMicros;
+    private long frames;
+    private long commits;
+    private long loggedCommits;
+    private long matchingSessions;
+
+    public EventLogReplay(RecognitionSettings settings) {
+        this.settings = settings;
+        this.smoother = settings.createSmoother(AslClasses.NAMES.size());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = args.length > 0 ? Paths.get(args[0]) : EventLog.directoryFromSystemProperties();
+        if (directory == null) {
+            directory = EventLog.defaultDirectory();
+        }
+        RecognitionSettings settings = RecognitionSettings.fromSystemProperties();
+        EventLogReplay replay = new EventLogReplay(settings);
+        long started = System.nanoTime();
+        long records;
+        try (EventLogReader reader = new EventLogReader(directory)) {
+            if (reader.getSegments().isEmpty()) {
+                System.err.println("No event log segments in " + directory.toAbsolutePath());
+                System.exit(1);
+            }
+            records = replay.run(reader);
+            if (reader.getTruncatedSegments() > 0) {
+                System.out.println(reader.getTruncatedSegments() + " segments ended in an incomplete record.");
+            }
+        }
+        double seconds = Math.max(System.nanoTime() - started, 1) / 1e9;
+        System.out.printf("Replayed %d records, %d frames in %d sessions in %.2f s (%.0f records/s) with %s smoothing, "
+                        + "window %d, threshold %.2f, %d stable frames%n",
+                records, replay.frames, replay.sessions, seconds, records / seconds, settings.getSmoothing(),
+                settings.getWindow(), settings.getThreshold(), settings.getStableFrames());
+        System.out.printf("Commits: %d replayed, %d logged; %d of %d sessions end in the same translation%n",
+                replay.commits, replay.loggedCommits, replay.matchingSessions, replay.sessions);
+    }
+
+    /** @return the number of records read */
+    public long run(EventLogReader reader) throws IOException {
+        long records = 0;
+        boolean inSession = false;
+        while (reader.next()) {
+            records++;
+            switch (reader.type()) {
+                case SESSION_START:
+                    if (inSession) {
+                        endSession();
+                    }
+                    startSession(reader.timestampMicros());
+                    inSession = true;
+                    break;
+                case SESSION_END:
+                    if (inSession) {
+                        sessionEndMicros = reader.timestampMicros();
+                        endSession();
+                        inSession = false;
+                    }
+                    break;
+                case SCORES:
+                    if (!inSession) {
+                        startSession(reader.timestampMicros());
+                        inSession = true;
+                    }
+                    replayScores(reader.readScores());
+                    sessionEndMicros = reader.timestampMicros();
+                    break;
+                case SLOT:
+                    sessionLoggedCommits++;
+                    break;
+                case EDIT:
+                case SNAPSHOT:
+                    logged.apply(reader.readEdit());
+                    break;
+                case ACCEPT:
+                    replayed.acceptWord(reader.readAccepted());
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (inSession) {
+            endSession();
+        }
+        return records;
+    }
+
+    private void startSession(long startMicros) {
+        smoother.reset();
+        replayed = new TranslationHistory();
+        logged = new TranscriptBuffer();
+        sessionFrames = 0;
+        sessionCommits = 0;
+        sessionLoggedCommits = 0;
+        sessionStartMicros = startMicros;
+        sessionEndMicros = startMicros;
+    }
+
+    private void replayScores(FrameScores scores) {
+        sessionFrames++;
+        PredictionSmoother.Result result = smoother.update(scores.toProbabilities(AslClasses.NAMES.size()));
+        if (result.isCommitted()) {
+            String className = AslClasses.NAMES.get(result.committed());
+            if (!AslClasses.NOTHING.equals(className)) {
+                sessionCommits++;
+            }
+            replayed.apply(className);
+        }
+    }
+
+    private void endSession() {
+        sessions++;
+        frames += sessionFrames;
+        commits += sessionCommits;
+        loggedCommits += sessionLoggedCommits;
+        String replayedText = replayed.getText();
+        String loggedText = logged.toString();
+        if (replayedText.equals(loggedText)) {
+            matchingSessions++;
+        }
+        System.out.printf("Session %d: %.1f s, %d frames, %d commits (logged %d)%n  logged:   \"%s\"%n  replayed: \"%s\"%n",
+                sessions, (sessionEndMicros - sessionStartMicros) / 1e6, sessionFrames, sessionCommits,
+                sessionLoggedCommits, loggedText, replayedText);
+    }
+}
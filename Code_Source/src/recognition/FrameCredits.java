@@ -0,0 +1,54 @@
+package recognition;
+
+/**
+ * Frame credits granted to asl_recognition.py, so it never sends frames faster than the camera
+ * view shows them. The script starts with {@link #getWindow()} credits and spends one per frame
+ * it sends; each frame the view shows or drops earns one back. Credits go back in batches of
+ * half the window, with the mean time from a frame's arrival to its display, which the script
+ * uses to pick frame size, JPEG quality and frame rate.
+ */
+final class FrameCredits {
+
+    static final int DEFAULT_WINDOW = 4;
+
+    private final int window;
+    private final int batch;
+    private int pending;
+    private long renderMicrosTotal;
+    private int renderSamples;
+
+    FrameCredits(int window) {
+        this.window = Math.max(1, window);
+        this.batch = Math.max(1, this.window / 2);
+    }
+
+    int getWindow() {
+        return window;
+    }
+
+    /**
+     * @param renderMicros time from the frame's arrival to its display, or a negative value if it was dropped
+     * @return the CREDIT command to send, or null until a batch of credits is due
+     */
+    synchronized String consumed(long renderMicros) {
+        pending++;
+        if (renderMicros >= 0) {
+            renderMicrosTotal += renderMicros;
+            renderSamples++;
+        }
+        if (pending < batch) return null;
+        String command = "CREDIT " + pending + (renderSamples > 0 ? " " + renderMicrosTotal / renderSamples : "");
+        pending = 0;
+        renderMicrosTotal = 0;
+        renderSamples = 0;
+        return command;
+    }
+
+    /** @return the WINDOW command that restores the full window, for frames lost while the view was hidden */
+    synchronized String restore() {
+        pending = 0;
+        renderMicrosTotal = 0;
+        renderSamples = 0;
+        return "WINDOW " + window;
+    }
+}
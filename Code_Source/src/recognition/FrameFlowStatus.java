@@ -0,0 +1,26 @@
+package recognition;
+
+/**
+ * How asl_recognition.py currently sends frames to the UI, reported whenever its frame flow
+ * control changes the settings and about once a second: the JPEG quality and size of the frames,
+ * the frame rate it aims for, how many frames it has skipped so far for want of a credit, and the
+ * credits it holds.
+ */
+public record FrameFlowStatus(int jpegQuality, int width, int height, float fps, long creditStalls, int credits) {
+
+    public void recordTo(PipelineMetrics metrics) {
+        metrics.frameFlow(this);
+    }
+
+    /** @return the FLOW line value "quality,width,height,fps,stalls,credits", or null if it is malformed */
+    public static FrameFlowStatus parse(String value) {
+        String[] fields = value.split(",");
+        if (fields.length != 6) return null;
+        try {
+            return new FrameFlowStatus(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), Integer.parseInt(fields[2]),
+                    Float.parseFloat(fields[3]), Long.parseLong(fields[4]), Integer.parseInt(fields[5]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
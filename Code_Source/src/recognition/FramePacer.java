@@ -0,0 +1,28 @@
+package recognition;
+
+/**
+ * Paces replayed frames at a fixed rate; with a zero interval frames pass straight through.
+ */
+public class FramePacer {
+
+    private final long intervalNanos;
+    private long nextDue;
+    private boolean started;
+
+    public FramePacer(boolean realtime, double fps) {
+        this.intervalNanos = realtime && fps > 0 ? (long) (1_000_000_000L / fps) : 0;
+    }
+
+    public void await() throws InterruptedException {
+        if (intervalNanos == 0) return;
+        long now = System.nanoTime();
+        if (!started || now - nextDue > intervalNanos) {
+            // First frame, or we fell behind: restart the schedule instead of bursting.
+            nextDue = now;
+            started = true;
+        } else if (nextDue > now) {
+            Thread.sleep((nextDue - now) / 1_000_000, (int) ((nextDue - now) % 1_000_000));
+        }
+        nextDue += intervalNanos;
+    }
+}
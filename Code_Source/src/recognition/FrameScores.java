@@ -0,0 +1,83 @@
+package recognition;
+
+import java.util.Arrays;
+
+/**
+ * The classifier's top classes for one classified frame, before smoothing, best first. Sent
+ * only when the event log asks for them, so what-if replays can run the smoothing again.
+ *
+ * @param sequence      the frame's sequence number
+ * @param captureMicros capture time of the frame in epoch microseconds, or 0 if unknown
+ * @param classes       class indices in {@link AslClasses#NAMES} order, best first
+ * @param probabilities the probability of each of those classes
+ */
+public record FrameScores(long sequence, long captureMicros, int[] classes, float[] probabilities) {
+
+    /** @return the k most probable classes of a full probability vector */
+    public static FrameScores topK(long sequence, long captureMicros, float[] probabilities, int k) {
+        int count = Math.min(k, probabilities.length);
+        int[] classes = new int[count];
+        float[] top = new float[count];
+        int found = 0;
+        // k is small, so an insertion into the sorted head beats sorting the whole vector.
+        for (int c = 0; c < probabilities.length; c++) {
+            float p = probabilities[c];
+            if (found == count && p <= top[count - 1]) continue;
+            int i = Math.min(found, count - 1);
+            while (i > 0 && top[i - 1] < p) {
+                top[i] = top[i - 1];
+                classes[i] = classes[i - 1];
+                i--;
+            }
+            top[i] = p;
+            classes[i] = c;
+            if (found < count) found++;
+        }
+        return new FrameScores(sequence, captureMicros, classes, top);
+    }
+
+    /**
+     * @return a full probability vector: the top classes as sent, the remaining probability mass
+     *         spread evenly over the other classes
+     */
+    public float[] toProbabilities(int numClasses) {
+        float[] full = new float[numClasses];
+        float rest = 1f;
+        for (float p : probabilities) {
+            rest -= p;
+        }
+        int others = numClasses - classes.length;
+        if (others > 0 && rest > 0f) {
+            Arrays.fill(full, rest / others);
+        }
+        for (int i = 0; i < classes.length; i++) {
+            if (classes[i] >= 0 && classes[i] < numClasses) {
+                full[classes[i]] = probabilities[i];
+            }
+        }
+        return full;
+    }
+
+    /**
+     * Parses the value of a text protocol SCORES line: "sequence,captureMicros,class:p,class:p,...".
+     * @return the scores, or null if the value is malformed
+     */
+    public static FrameScores parse(String value) {
+        String[] fields = value.split(",");
+        if (fields.length < 3) return null;
+        try {
+            int count = fields.length - 2;
+            int[] classes = new int[count];
+            float[] probabilities = new float[count];
+            for (int i = 0; i < count; i++) {
+                String[] pair = fields[i + 2].split(":");
+                if (pair.length != 2) return null;
+                classes[i] = Integer.parseInt(pair[0]);
+                probabilities[i] = Float.parseFloat(pair[1]);
+            }
+            return new FrameScores(Long.parseLong(fields[0]), Long.parseLong(fields[1]), classes, probabilities);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package recognition;
+
+import org.opencv.core.Mat;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Where a recognizer gets its frames from: the live camera or a replayed recording
+ * (see frame_source.py for the Python side, which understands the same specs).
+ */
+public interface FrameSource {
+
+    /** Replayed sources are paced at their frame rate. */
+    String PACING_REALTIME = "realtime";
+    /** Replayed sources are read as fast as they decode. */
+    String PACING_FAST = "fast";
+
+    boolean isOpened();
+
+    /** @return false if no frame could be read; check {@link #isExhausted()} to tell the end of a replay from a glitch */
+    boolean read(Mat frame);
+
+    /** A real device that blocks until the next frame is captured. */
+    boolean isLive();
+
+    /** Whether frames should be flipped so users see themselves as in a mirror. */
+    boolean isMirrored();
+
+    boolean isExhausted();
+
+    String describe();
+
+    void release();
+
+    /**
+     * Opens a source from "camera:&lt;index&gt;", "video:&lt;file&gt;", "dir:&lt;directory&gt;" or "csv:&lt;file&gt;".
+     * @param fps replay frame rate, or 0 for the video's own rate (30 for images)
+     */
+    static FrameSource open(String spec, String pacing, double fps, boolean loop) throws IOException {
+        int separator = spec.indexOf(':');
+        String kind = separator < 0 ? spec : spec.substring(0, separator);
+        String target = separator < 0 ? "" : spec.substring(separator + 1);
+        boolean realtime = !PACING_FAST.equals(pacing);
+        switch (kind) {
+            case "camera":
+                return new CameraFrameSource(target.isEmpty() ? 0 : Integer.parseInt(target));
+            case "video":
+                return new VideoFileFrameSource(target, realtime, fps, loop);
+            case "dir":
+                return ImageSequenceFrameSource.fromDirectory(Paths.get(target), realtime, fps > 0 ? fps : 30, loop);
+            case "csv":
+                return ImageSequenceFrameSource.fromCsv(Paths.get(target), realtime, fps > 0 ? fps : 30, loop);
+            default:
+                throw new IOException("Unknown frame source: " + spec);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package recognition;
+
+import java.io.IOException;
+
+/**
+ * Dispatches messages of the binary recognizer protocol to a listener, the counterpart of
+ * {@link TextMessageParser}. Holds the TIMING message that precedes a frame or prediction
+ * until that message arrives, so one dispatcher is needed per stream.
+ */
+public final class FramedMessageDispatcher {
+
+    private final RecognizerListener listener;
+    private final PipelineMetrics metrics;
+    private StageTiming pendingTiming;
+
+    public FramedMessageDispatcher(RecognizerListener listener) {
+        this(listener, PipelineMetrics.get());
+    }
+
+    public FramedMessageDispatcher(RecognizerListener listener, PipelineMetrics metrics) {
+        this.listener = listener;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Dispatches the reader's current message; unknown types are ignored.
+     * @throws IOException if the message is too short for its type
+     */
+    public void dispatch(FramedMessageReader reader) throws IOException {
+        MessageType type = reader.type();
+        if (type == null) return;
+
+        switch (type) {
+            case FRAME:
+                StageTiming frameTiming = takeTiming(StageTiming.KIND_FRAME);
+                metrics.frameArrived(frameTiming);
+                try {
+                    metrics.pipeBacklog(reader.available());
+                } catch (IOException ignored) {
+                    // Only a metric; a real read error surfaces on the next message.
+                }
+                listener.onEncodedFrame(reader.payload(), frameTiming == null ? 0 : frameTiming.captureMicros());
+                break;
+            case PREDICTION:
+                StageTiming predictionTiming = takeTiming(StageTiming.KIND_PREDICTION);
+                metrics.predictionReceived();
+                listener.onPrediction(reader.readPrediction(predictionTiming == null ? 0 : predictionTiming.captureMicros()));
+                break;
+            case EDIT:
+                TranscriptEdit edit = reader.readEdit();
+                if (edit != null) listener.onTranscriptEdit(edit);
+                break;
+            case SNAPSHOT:
+                listener.onTranscriptEdit(reader.readSnapshot());
+                break;
+            case SLOT:
+                CommittedSlot slot = reader.readSlot();
+                if (slot != null) listener.onCommittedSlot(slot);
+                break;
+            case TRANSLATION:
+                listener.onTranscriptEdit(TranscriptEdit.snapshot(-1, reader.payloadAsString()));
+                break;
+            case STATUS:
+                listener.onStatus(reader.payloadAsString());
+                break;
+            case HAND_REGION:
+                listener.onHandRegion(reader.readHandRegion());
+                break;
+            case SCORES:
+                listener.onFrameScores(reader.readScores());
+                break;
+            case FLOW:
+                reader.readFlow().recordTo(metrics);
+                break;
+            case TIMING:
+                pendingTiming = reader.readTiming();
+                pendingTiming.recordTo(metrics);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** @return the TIMING message received just before the current one, if it describes a message of this kind */
+    private StageTiming takeTiming(int kind) {
+        StageTiming timing = pendingTiming;
+        pendingTiming = null;
+        return timing != null && timing.kind() == kind ? timing : null;
+    }
+}
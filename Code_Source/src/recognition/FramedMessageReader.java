@@ -0,0 +1,173 @@
+package recognition;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the binary recognizer protocol: a type byte, a big-endian int length and the payload.
+ * The payload buffer is reused between messages, so it is only valid until the next call to {@link #next()}.
+ */
+public class FramedMessageReader implements Closeable {
+
+    public static final int HEADER_SIZE = 5;
+    public static final int MAX_PAYLOAD_SIZE = 32 * 1024 * 1024;
+
+    private final InputStream in;
+    private final byte[] header = new byte[HEADER_SIZE];
+    private ByteBuffer payload;
+    private int rawType;
+
+    public FramedMessageReader(InputStream in, int initialCapacity) {
+        this.in = in;
+        this.payload = ByteBuffer.allocate(initialCapacity);
+    }
+
+    /**
+     * Blocks until the next message is available.
+     * @return false on a clean end of stream
+     */
+    public boolean next() throws IOException {
+        int read = in.readNBytes(header, 0, HEADER_SIZE);
+        if (read == 0) {
+            return false;
+        }
+        if (read < HEADER_SIZE) {
+            throw new EOFException("Truncated message header");
+        }
+        rawType = header[0] & 0xFF;
+        int length = ((header[1] & 0xFF) << 24) | ((header[2] & 0xFF) << 16) | ((header[3] & 0xFF) << 8) | (header[4] & 0xFF);
+        if (length < 0 || length > MAX_PAYLOAD_SIZE) {
+            throw new IOException("Invalid message length: " + length);
+        }
+        if (payload.capacity() < length) {
+            payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+        }
+        if (in.readNBytes(payload.array(), 0, length) < length) {
+            throw new EOFException("Truncated message payload");
+        }
+        payload.clear().limit(length);
+        return true;
+    }
+
+    /** @return the type of the current message, or null for a type this side does not know */
+    public MessageType type() {
+        return MessageType.fromCode(rawType);
+    }
+
+    public ByteBuffer payload() {
+        return payload;
+    }
+
+    public byte[] payloadArray() {
+        return payload.array();
+    }
+
+    public int payloadLength() {
+        return payload.limit();
+    }
+
+    public String payloadAsString() {
+        return new String(payload.array(), 0, payload.limit(), StandardCharsets.UTF_8);
+    }
+
+    public Prediction readPrediction() throws IOException {
+        return readPrediction(0);
+    }
+
+    /** @param captureMicros capture time from the TIMING message that preceded the prediction */
+    public Prediction readPrediction(long captureMicros) throws IOException {
+        requireLength(4, MessageType.PREDICTION);
+        float confidence = payload.getFloat(0);
+        String label = new String(payload.array(), 4, payload.limit() - 4, StandardCharsets.UTF_8);
+        return new Prediction(label, confidence, captureMicros);
+    }
+
+    public StageTiming readTiming() throws IOException {
+        requireLength(25, MessageType.TIMING);
+        return new StageTiming(payload.get(0) & 0xFF, payload.getLong(1), payload.getLong(9),
+                payload.getInt(17) & 0xFFFFFFFFL, payload.getInt(21) & 0xFFFFFFFFL);
+    }
+
+    /** @return a FLOW payload: JPEG quality, width, height, target fps, credit stalls so far, credits held */
+    public FrameFlowStatus readFlow() throws IOException {
+        requireLength(15, MessageType.FLOW);
+        return new FrameFlowStatus(payload.get(0) & 0xFF, payload.getShort(1) & 0xFFFF, payload.getShort(3) & 0xFFFF,
+                payload.getFloat(5), payload.getInt(9) & 0xFFFFFFFFL, payload.getShort(13) & 0xFFFF);
+    }
+
+    /** @return a SCORES payload: frame sequence, capture micros, count, then count pairs of class byte and float */
+    public FrameScores readScores() throws IOException {
+        requireLength(17, MessageType.SCORES);
+        int count = payload.get(16) & 0xFF;
+        requireLength(17 + count * 5, MessageType.SCORES);
+        int[] classes = new int[count];
+        float[] probabilities = new float[count];
+        for (int i = 0; i < count; i++) {
+            classes[i] = payload.get(17 + i * 5) & 0xFF;
+            probabilities[i] = payload.getFloat(18 + i * 5);
+        }
+        return new FrameScores(payload.getLong(0), payload.getLong(8), classes, probabilities);
+    }
+
+    /** @return an EDIT payload: sequence number, operation (1 append, 2 delete), then the appended character */
+    public TranscriptEdit readEdit() throws IOException {
+        requireLength(9, MessageType.EDIT);
+        long sequence = payload.getLong(0);
+        if (payload.get(8) == 2) {
+            return TranscriptEdit.delete(sequence);
+        }
+        String character = new String(payload.array(), 9, payload.limit() - 9, StandardCharsets.UTF_8);
+        return character.isEmpty() ? null : TranscriptEdit.append(sequence, character.charAt(0));
+    }
+
+    /** @return a SNAPSHOT payload: sequence number of the last edit it contains, then the full text */
+    public TranscriptEdit readSnapshot() throws IOException {
+        requireLength(8, MessageType.SNAPSHOT);
+        return TranscriptEdit.snapshot(payload.getLong(0),
+                new String(payload.array(), 8, payload.limit() - 8, StandardCharsets.UTF_8));
+    }
+
+    /** @return a SLOT payload: the committed class index, then one float per class; null if the size is wrong */
+    public CommittedSlot readSlot() {
+        int count = (payload.limit() - 1) / 4;
+        if (count != AslClasses.NAMES.size() || payload.get(0) < 0 || payload.get(0) >= count) {
+            return null;
+        }
+        float[] probabilities = new float[count];
+        for (int i = 0; i < count; i++) {
+            probabilities[i] = payload.getFloat(1 + i * 4);
+        }
+        return new CommittedSlot(payload.get(0), probabilities);
+    }
+
+    public HandRegion readHandRegion() throws IOException {
+        requireLength(12, MessageType.HAND_REGION);
+        int[] values = new int[6];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = payload.getShort(i * 2) & 0xFFFF;
+        }
+        HandRegion region = new HandRegion(values[0], values[1], values[2], values[3], values[4], values[5]);
+        return region.isEmpty() ? HandRegion.NONE : region;
+    }
+
+    /** Throws rather than letting a short payload fail the reader thread with an unchecked exception. */
+    private void requireLength(int minimum, MessageType type) throws IOException {
+        if (payload.limit() < minimum) {
+            throw new IOException("Malformed " + type + " message: " + payload.limit() + " bytes, expected at least " + minimum);
+        }
+    }
+
+    /** @return bytes that can be read without blocking, i.e. how far the reader is behind the writer */
+    public int available() throws IOException {
+        return in.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
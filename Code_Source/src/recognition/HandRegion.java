@@ -0,0 +1,14 @@
+package recognition;
+
+/**
+ * Box around the signing hand in camera frame pixels, together with the size of the frame it refers to.
+ */
+public record HandRegion(int x, int y, int width, int height, int frameWidth, int frameHeight) {
+
+    /** No hand in view. */
+    public static final HandRegion NONE = new HandRegion(0, 0, 0, 0, 0, 0);
+
+    public boolean isEmpty() {
+        return width <= 0 || height <= 0;
+    }
+}
@@ -0,0 +1,143 @@
+package recognition;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Rect;
+import org.opencv.core.Scalar;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Java port of HandTracker in hand_roi.py: finds the signing hand with skin segmentation,
+ * preferring blobs that moved or that overlap the current box, and tracks the box between detections.
+ */
+public class HandTracker {
+
+    private static final Scalar SKIN_LOWER = new Scalar(0, 133, 77);
+    private static final Scalar SKIN_UPPER = new Scalar(255, 173, 127);
+    private static final double SCALE = 0.25;
+    private static final double MIN_AREA = 0.01;
+    private static final double MARGIN = 0.25;
+    private static final int LOST_AFTER = 3;
+    private static final double MOTION_THRESHOLD = 25;
+
+    private final int detectEvery;
+    private final Mat kernel = Imgproc.getStructuringElement(Imgproc.MORPH_ELLIPSE, new Size(5, 5));
+    private final Mat small = new Mat();
+    private final Mat ycrcb = new Mat();
+    private final Mat skin = new Mat();
+    private final Mat gray = new Mat();
+    private final Mat previousGray = new Mat();
+    private final Mat motion = new Mat();
+    private final Mat hierarchy = new Mat();
+
+    private Rect roi;
+    private long frameCount;
+    private int misses;
+
+    public HandTracker(int detectEvery) {
+        this.detectEvery = Math.max(1, detectEvery);
+    }
+
+    public void reset() {
+        roi = null;
+        frameCount = 0;
+        misses = 0;
+        previousGray.release();
+    }
+
+    /** @return the hand box in frame coordinates, or null if no hand is visible */
+    public Rect update(Mat frame) {
+        if (frameCount % detectEvery == 0) {
+            detect(frame);
+        }
+        frameCount++;
+        return roi;
+    }
+
+    private void detect(Mat frame) {
+        Imgproc.resize(frame, small, new Size(), SCALE, SCALE, Imgproc.INTER_AREA);
+        Imgproc.cvtColor(small, ycrcb, Imgproc.COLOR_BGR2YCrCb);
+        Core.inRange(ycrcb, SKIN_LOWER, SKIN_UPPER, skin);
+        Imgproc.morphologyEx(skin, skin, Imgproc.MORPH_OPEN, kernel);
+
+        Imgproc.cvtColor(small, gray, Imgproc.COLOR_BGR2GRAY);
+        Imgproc.GaussianBlur(gray, gray, new Size(5, 5), 0);
+        boolean hasMotion = !previousGray.empty() && previousGray.size().equals(gray.size());
+        if (hasMotion) {
+            Core.absdiff(gray, previousGray, motion);
+            Imgproc.threshold(motion, motion, MOTION_THRESHOLD, 255, Imgproc.THRESH_BINARY);
+        }
+        gray.copyTo(previousGray);
+
+        List<MatOfPoint> contours = new ArrayList<>();
+        Imgproc.findContours(skin, contours, hierarchy, Imgproc.RETR_EXTERNAL, Imgproc.CHAIN_APPROX_SIMPLE);
+        double minPixels = MIN_AREA * small.rows() * small.cols();
+        Rect previous = roi == null ? null : toSmall(roi);
+        Rect best = null;
+        double bestScore = 0;
+        for (MatOfPoint contour : contours) {
+            double area = Imgproc.contourArea(contour);
+            if (area >= minPixels) {
+                Rect box = Imgproc.boundingRect(contour);
+                double score = area;
+                if (hasMotion) {
+                    Mat moved = motion.submat(box);
+                    score *= 1.0 + 2.0 * Core.countNonZero(moved) / (double) (box.width * box.height);
+                    moved.release();
+                }
+                if (previous != null && overlaps(previous, box)) {
+                    score *= 2.0;
+                }
+                if (score > bestScore) {
+                    best = box;
+                    bestScore = score;
+                }
+            }
+            contour.release();
+        }
+
+        if (best == null) {
+            if (++misses >= LOST_AFTER) {
+                roi = null;
+            }
+            return;
+        }
+        misses = 0;
+        roi = squareBox(best, frame.cols(), frame.rows());
+    }
+
+    private static Rect toSmall(Rect box) {
+        return new Rect((int) (box.x * SCALE), (int) (box.y * SCALE), (int) (box.width * SCALE), (int) (box.height * SCALE));
+    }
+
+    private static boolean overlaps(Rect a, Rect b) {
+        return a.x < b.x + b.width && b.x < a.x + a.width && a.y < b.y + b.height && b.y < a.y + a.height;
+    }
+
+    private static Rect squareBox(Rect smallBox, int frameWidth, int frameHeight) {
+        double x = smallBox.x / SCALE;
+        double y = smallBox.y / SCALE;
+        double w = smallBox.width / SCALE;
+        double h = smallBox.height / SCALE;
+        double side = Math.min(Math.max(w, h) * (1.0 + 2.0 * MARGIN), Math.min(frameWidth, frameHeight));
+        double left = Math.min(Math.max(x + w / 2.0 - side / 2.0, 0), frameWidth - side);
+        double top = Math.min(Math.max(y + h / 2.0 - side / 2.0, 0), frameHeight - side);
+        return new Rect((int) left, (int) top, (int) side, (int) side);
+    }
+
+    public void release() {
+        kernel.release();
+        small.release();
+        ycrcb.release();
+        skin.release();
+        gray.release();
+        previousGray.release();
+        motion.release();
+        hierarchy.release();
+    }
+}
@@ -0,0 +1,109 @@
+package recognition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the configured recognizer without the JavaFX UI and reports throughput, for replaying
+ * recordings on machines without a camera or display. Configure it with the usual speakurhands.*
+ * properties, for example:
+ * <pre>
+ * java -Dspeakurhands.source=video:session.mp4 -Dspeakurhands.pacing=fast recognition.HeadlessRecognizerRun
+ * </pre>
+ * It stops when the source is exhausted, or after speakurhands.duration seconds if that is set
+ * (with -Dspeakurhands.loop=true for soak tests).
+ */
+public class HeadlessRecognizerRun implements RecognizerListener {
+
+    private static final long REPORT_INTERVAL_MS = 10_000;
+
+    private final AtomicLong frames = new AtomicLong();
+    private final AtomicLong predictions = new AtomicLong();
+    private final AtomicLong translations = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final TranscriptBuffer transcript = new TranscriptBuffer();
+    private volatile Recognizer recognizer;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        long durationMs = Long.getLong("speakurhands.duration", 0) * 1000;
+        HeadlessRecognizerRun run = new HeadlessRecognizerRun();
+        Recognizer recognizer = RecognizerService.backendFromSystemProperties().apply(false);
+        run.recognizer = recognizer;
+        long start = System.currentTimeMillis();
+        recognizer.start(run);
+        try {
+            long nextReport = start + REPORT_INTERVAL_MS;
+            while (recognizer.isRunning() && (durationMs == 0 || System.currentTimeMillis() - start < durationMs)) {
+                Thread.sleep(100);
+                // Raw pixel transports do not call onEncodedFrame; count what they deliver instead.
+                PixelFrameSource pixels = recognizer.openPixelFrames();
+                if (pixels != null) {
+                    run.frames.set(pixels.latestSequence());
+                }
+                if (System.currentTimeMillis() >= nextReport) {
+                    run.report(System.currentTimeMillis() - start);
+                    nextReport += REPORT_INTERVAL_MS;
+                }
+            }
+        } finally {
+            recognizer.stop();
+        }
+        run.report(System.currentTimeMillis() - start);
+        System.out.println(PipelineMetrics.get().format());
+        synchronized (run.transcript) {
+            System.out.println("Final translation: " + run.transcript);
+            if (run.transcript.getMissedEdits() > 0) {
+                System.out.println("Transcript edits ignored while out of sync: " + run.transcript.getMissedEdits());
+            }
+        }
+        System.exit(run.errors.get() == 0 ? 0 : 1);
+    }
+
+    private void report(long elapsedMs) {
+        double seconds = Math.max(elapsedMs, 1) / 1000.0;
+        System.out.printf("%.1f s: %d frames (%.1f/s), %d predictions (%.1f/s), %d translation updates, %d errors%n",
+                seconds, frames.get(), frames.get() / seconds, predictions.get(), predictions.get() / seconds,
+                translations.get(), errors.get());
+    }
+
+    @Override
+    public void onEncodedFrame(ByteBuffer jpeg, long captureMicros) {
+        frames.incrementAndGet();
+        // Nothing is shown, so each frame's credit goes straight back.
+        recognizer.frameConsumed(0);
+    }
+
+    @Override
+    public void onPrediction(Prediction prediction) {
+        predictions.incrementAndGet();
+        PipelineMetrics.get().recordSince(PipelineMetrics.Stage.PREDICTION_LATENCY, prediction.captureMicros());
+    }
+
+    @Override
+    public void onTranscriptEdit(TranscriptEdit edit) {
+        translations.incrementAndGet();
+        synchronized (transcript) {
+            transcript.apply(edit);
+        }
+    }
+
+    @Override
+    public void onCommittedSlot(CommittedSlot slot) {
+    }
+
+    @Override
+    public void onHandRegion(HandRegion region) {
+    }
+
+    @Override
+    public void onStatus(String message) {
+        System.err.println("Recognizer status: " + message);
+    }
+
+    @Override
+    public void onError(String title, String message) {
+        errors.incrementAndGet();
+        System.err.println(title + ": " + message);
+    }
+}
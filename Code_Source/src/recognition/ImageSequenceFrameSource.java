@@ -0,0 +1,152 @@
+package recognition;
+
+import org.opencv.core.Mat;
+import org.opencv.imgcodecs.Imgcodecs;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays image files from a directory tree or from a CSV with a path column, such as
+ * training/train_verified.csv. CSV paths are resolved against the CSV's directory and may use
+ * Windows separators. Unreadable files are skipped.
+ */
+public class ImageSequenceFrameSource implements FrameSource {
+
+    private final List<String> paths;
+    private final List<String> labels;
+    private final boolean loop;
+    private final FramePacer pacer;
+    private final String description;
+    private int position;
+    private String label;
+    private boolean exhausted;
+
+    public ImageSequenceFrameSource(List<String> paths, List<String> labels, boolean realtime, double fps, boolean loop, String description) {
+        this.paths = paths;
+        this.labels = labels;
+        this.loop = loop;
+        this.pacer = new FramePacer(realtime, fps);
+        this.description = description;
+    }
+
+    public static ImageSequenceFrameSource fromDirectory(Path directory, boolean realtime, double fps, boolean loop) throws IOException {
+        List<String> paths;
+        try (Stream<Path> files = Files.walk(directory)) {
+            paths = files.filter(Files::isRegularFile)
+                    .map(Path::toString)
+                    .filter(ImageSequenceFrameSource::isImage)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        return new ImageSequenceFrameSource(paths, null, realtime, fps, loop,
+                "directory " + directory + " (" + paths.size() + " images)");
+    }
+
+    public static ImageSequenceFrameSource fromCsv(Path csv, boolean realtime, double fps, boolean loop) throws IOException {
+        Path base = csv.toAbsolutePath().getParent();
+        List<String> paths = new ArrayList<>();
+        List<String> labels = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String[] header = reader.readLine().split(",");
+            int pathColumn = indexOf(header, "path");
+            int labelColumn = indexOf(header, "phrase");
+            if (pathColumn < 0) {
+                throw new IOException("No path column in " + csv);
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length <= pathColumn) continue;
+                Path path = base.resolve(fields[pathColumn].replace('\\', '/'));
+                paths.add(path.toString());
+                labels.add(labelColumn >= 0 && labelColumn < fields.length ? fields[labelColumn] : null);
+            }
+        }
+        return new ImageSequenceFrameSource(paths, labels, realtime, fps, loop,
+                "csv " + csv + " (" + paths.size() + " images)");
+    }
+
+    private static int indexOf(String[] header, String column) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].trim().equals(column)) return i;
+        }
+        return -1;
+    }
+
+    private static boolean isImage(String path) {
+        String lower = path.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jpg") || lower.endsWith(".jpeg") || lower.endsWith(".png") || lower.endsWith(".bmp");
+    }
+
+    /** @return the label of the frame read last, if the source came from a labelled CSV */
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public boolean isOpened() {
+        return !paths.isEmpty();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        while (true) {
+            if (position >= paths.size()) {
+                if (!loop || paths.isEmpty()) {
+                    exhausted = true;
+                    return false;
+                }
+                position = 0;
+            }
+            int index = position++;
+            Mat image = Imgcodecs.imread(paths.get(index));
+            if (image.empty()) {
+                image.release();
+                continue;
+            }
+            image.copyTo(frame);
+            image.release();
+            label = labels == null ? null : labels.get(index);
+            try {
+                pacer.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public boolean isMirrored() {
+        return false;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String describe() {
+        return description;
+    }
+
+    @Override
+    public void release() {
+    }
+}
@@ -0,0 +1,26 @@
+package recognition;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Single-slot mailbox between a producer thread and the FX pulse: a newer value
+ * replaces an unconsumed older one, and publish reports the drop to the caller.
+ */
+public class LatestValueSlot<T> {
+
+    private final AtomicReference<T> value = new AtomicReference<>();
+
+    /** @return true if an unconsumed older value was replaced */
+    public boolean publish(T newValue) {
+        return value.getAndSet(newValue) != null;
+    }
+
+    /** @return the latest value, or null if nothing was published since the last call */
+    public T take() {
+        return value.getAndSet(null);
+    }
+
+    public void clear() {
+        value.set(null);
+    }
+}
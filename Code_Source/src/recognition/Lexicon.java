@@ -0,0 +1,150 @@
+package recognition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A word list as a letter trie in one flat buffer, normally memory-mapped from the file
+ * {@link LexiconBuilder} writes, so opening a lexicon of any size costs no parsing and only the
+ * pages the decoder touches are read.
+ *
+ * After a {@link #HEADER_SIZE}-byte header (magic, version, node count, word count) come
+ * {@link #NODE_SIZE}-byte nodes in breadth-first order, with each node's children stored next
+ * to each other and sorted by letter:
+ * <pre>
+ * int   index of the first child
+ * byte  letter, 0 for A to 25 for Z
+ * byte  number of children
+ * short score of the word ending here, or {@link #NO_WORD}
+ * short best score of any word in this subtree
+ * short reserved
+ * </pre>
+ * Scores are natural-log word probabilities times {@link #SCORE_SCALE}. The subtree maximum
+ * lets the decoder rank a prefix by the best word it can still become, and list completions
+ * best-first without visiting the whole subtree. Node 0 is the root.
+ */
+public final class Lexicon {
+
+    public static final int MAGIC = 0x5355484C; // "SUHL"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int NODE_SIZE = 12;
+    public static final float SCORE_SCALE = 100f;
+    public static final short NO_WORD = Short.MIN_VALUE;
+    public static final int ROOT = 0;
+    public static final int NO_NODE = -1;
+
+    private final ByteBuffer buffer;
+    private final int nodeCount;
+    private final int wordCount;
+
+    private Lexicon(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a lexicon file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported lexicon version " + buffer.getInt(4));
+        }
+        this.nodeCount = buffer.getInt(8);
+        this.wordCount = buffer.getInt(12);
+        if (nodeCount < 1 || (long) HEADER_SIZE + (long) nodeCount * NODE_SIZE > buffer.limit()) {
+            throw new IOException("Truncated lexicon: " + nodeCount + " nodes in " + buffer.limit() + " bytes");
+        }
+    }
+
+    /** Maps a lexicon file read-only; the mapping stays valid after the channel is closed. */
+    public static Lexicon open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new Lexicon(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Uses a lexicon already in memory, for example one just built by {@link LexiconBuilder#toBuffer()}. */
+    public static Lexicon wrap(ByteBuffer buffer) throws IOException {
+        return new Lexicon(buffer.duplicate());
+    }
+
+    /**
+     * Opens the lexicon named by speakurhands.lexicon (default training/lexicon.bin).
+     * @return null, after a note on stderr, if there is no lexicon or it cannot be read
+     */
+    public static Lexicon fromSystemProperties() {
+        Path path = Paths.get(System.getProperty("speakurhands.lexicon", "training/lexicon.bin"));
+        if (!Files.isRegularFile(path)) {
+            System.err.println("No lexicon at " + path + "; word suggestions are disabled.");
+            return null;
+        }
+        try {
+            Lexicon lexicon = open(path);
+            System.err.println("Loaded lexicon " + path + " (" + lexicon.wordCount + " words, " + lexicon.nodeCount + " nodes).");
+            return lexicon;
+        } catch (IOException e) {
+            System.err.println("Warning: could not open lexicon " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private int offset(int node) {
+        return HEADER_SIZE + node * NODE_SIZE;
+    }
+
+    public int firstChild(int node) {
+        return buffer.getInt(offset(node));
+    }
+
+    public int childCount(int node) {
+        return buffer.get(offset(node) + 5) & 0xFF;
+    }
+
+    /** @return the node's letter, 0 for A to 25 for Z */
+    public int letter(int node) {
+        return buffer.get(offset(node) + 4);
+    }
+
+    /** @return the child of the node for a letter, or {@link #NO_NODE} */
+    public int child(int node, int letter) {
+        int first = firstChild(node);
+        int low = 0;
+        int high = childCount(node) - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int found = letter(first + middle);
+            if (found < letter) {
+                low = middle + 1;
+            } else if (found > letter) {
+                high = middle - 1;
+            } else {
+                return first + middle;
+            }
+        }
+        return NO_NODE;
+    }
+
+    public boolean isWord(int node) {
+        return buffer.getShort(offset(node) + 6) != NO_WORD;
+    }
+
+    /** @return the log probability of the word ending at this node; only meaningful if {@link #isWord(int)} */
+    public float wordScore(int node) {
+        return buffer.getShort(offset(node) + 6) / SCORE_SCALE;
+    }
+
+    /** @return the log probability of the most likely word in the node's subtree */
+    public float bestScore(int node) {
+        return buffer.getShort(offset(node) + 8) / SCORE_SCALE;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+}
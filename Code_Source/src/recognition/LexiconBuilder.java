@@ -0,0 +1,194 @@
+package recognition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Build step for {@link Lexicon}: turns a word list into the trie file the word decoder maps.
+ * Each line holds a word and optionally how often it occurs ("hello 52341"); words without a
+ * count get a count of 1, so a plain list gives every word the same prior. Words are upper-cased
+ * and anything that is not A to Z, such as "don't", is skipped, since those letters cannot be signed.
+ *
+ * Usage: LexiconBuilder word-list [output, default training/lexicon.bin]
+ */
+public class LexiconBuilder {
+
+    public static final int MAX_WORD_LENGTH = 32;
+
+    private static final class Node {
+        final Node[] children = new Node[26];
+        final int letter;
+        long count;
+        int index;
+        short wordScore = Lexicon.NO_WORD;
+        short bestScore = Lexicon.NO_WORD;
+
+        Node(int letter) {
+            this.letter = letter;
+        }
+    }
+
+    private final Node root = new Node(0);
+    private int nodeCount = 1;
+    private int wordCount;
+    private long totalCount;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: LexiconBuilder word-list [output, default training/lexicon.bin]");
+            System.exit(1);
+        }
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args.length > 1 ? args[1] : "training/lexicon.bin");
+        LexiconBuilder builder = new LexiconBuilder();
+        int skipped = 0;
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (fields[0].isEmpty()) {
+                    continue;
+                }
+                long count = 1;
+                if (fields.length > 1) {
+                    try {
+                        count = Long.parseLong(fields[1]);
+                    } catch (NumberFormatException e) {
+                        skipped++;
+                        continue;
+                    }
+                }
+                if (!builder.add(fields[0], count)) {
+                    skipped++;
+                }
+            }
+        }
+        builder.write(output);
+        System.out.println("Wrote " + output + ": " + builder.wordCount + " words, " + builder.nodeCount + " nodes ("
+                + Files.size(output) / 1024 + " KB), " + skipped + " lines skipped.");
+    }
+
+    /**
+     * Adds a word, or adds to its count if it is already there.
+     * @return false if the word is empty, too long or has characters other than A to Z
+     */
+    public boolean add(String word, long count) {
+        String letters = word.toUpperCase(Locale.ROOT);
+        if (letters.isEmpty() || letters.length() > MAX_WORD_LENGTH || count < 1) {
+            return false;
+        }
+        for (int i = 0; i < letters.length(); i++) {
+            char c = letters.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+        Node node = root;
+        for (int i = 0; i < letters.length(); i++) {
+            int letter = letters.charAt(i) - 'A';
+            if (node.children[letter] == null) {
+                node.children[letter] = new Node(letter);
+                nodeCount++;
+            }
+            node = node.children[letter];
+        }
+        if (node.count == 0) {
+            wordCount++;
+        }
+        node.count += count;
+        totalCount += count;
+        return true;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    /** @return the lexicon file contents, ready for {@link Lexicon#wrap(ByteBuffer)} */
+    public ByteBuffer toBuffer() {
+        score(root);
+        // Breadth-first numbering keeps every node's children next to each other.
+        List<Node> order = new ArrayList<>(nodeCount);
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            for (Node child : order.get(i).children) {
+                if (child != null) {
+                    child.index = order.size();
+                    order.add(child);
+                }
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(Lexicon.HEADER_SIZE + order.size() * Lexicon.NODE_SIZE);
+        buffer.putInt(Lexicon.MAGIC).putInt(Lexicon.VERSION).putInt(order.size()).putInt(wordCount);
+        for (Node node : order) {
+            int firstChild = 0;
+            int childCount = 0;
+            for (Node child : node.children) {
+                if (child != null) {
+                    if (childCount == 0) {
+                        firstChild = child.index;
+                    }
+                    childCount++;
+                }
+            }
+            buffer.putInt(firstChild);
+            buffer.put((byte) node.letter);
+            buffer.put((byte) childCount);
+            buffer.putShort(node.wordScore);
+            buffer.putShort(node.bestScore);
+            buffer.putShort((short) 0);
+        }
+        return buffer.flip();
+    }
+
+    public void write(Path output) throws IOException {
+        ByteBuffer buffer = toBuffer();
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /** Fills in word scores and subtree maxima, scoring every node after all of its children. */
+    private void score(Node start) {
+        List<Node> stack = new ArrayList<>();
+        List<Node> visited = new ArrayList<>();
+        stack.add(start);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            visited.add(node);
+            for (Node child : node.children) {
+                if (child != null) {
+                    stack.add(child);
+                }
+            }
+        }
+        // Children are visited after their parents, so walking backwards scores them first.
+        for (int i = visited.size() - 1; i >= 0; i--) {
+            Node node = visited.get(i);
+            node.wordScore = node.count > 0 ? quantize(Math.log((double) node.count / totalCount)) : Lexicon.NO_WORD;
+            node.bestScore = node.wordScore;
+            for (Node child : node.children) {
+                if (child != null && child.bestScore > node.bestScore) {
+                    node.bestScore = child.bestScore;
+                }
+            }
+        }
+    }
+
+    private static short quantize(double logProbability) {
+        return (short) Math.max(Short.MIN_VALUE + 1, Math.round(logProbability * Lexicon.SCORE_SCALE));
+    }
+}
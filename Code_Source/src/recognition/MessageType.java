@@ -0,0 +1,38 @@
+package recognition;
+
+public enum MessageType {
+    FRAME(1),
+    PREDICTION(2),
+    TRANSLATION(3),
+    STATUS(4),
+    HAND_REGION(5),
+    TIMING(6),
+    EDIT(7),
+    SNAPSHOT(8),
+    SLOT(9),
+    CONTROL(10),
+    FLOW(11),
+    SCORES(12);
+
+    private static final MessageType[] BY_CODE = new MessageType[256];
+
+    static {
+        for (MessageType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final int code;
+
+    MessageType(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static MessageType fromCode(int code) {
+        return BY_CODE[code & 0xFF];
+    }
+}
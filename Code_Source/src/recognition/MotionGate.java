@@ -0,0 +1,115 @@
+package recognition;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+/**
+ * Java port of MotionGate in motion_gate.py: compares 80x60 grayscale thumbnails of consecutive
+ * frames and, once nothing has moved for a while, skips inference and throttles displayed frames.
+ */
+public class MotionGate {
+
+    private static final Size THUMBNAIL_SIZE = new Size(80, 60);
+    private static final double PIXEL_DELTA = 20;
+    private static final double CHANGED_FRACTION = 0.01;
+    // nanoTime() has an arbitrary origin, so "no frame shown yet" needs its own value.
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final int idleAfter;
+    private final long idleIntervalNanos;
+    private final Mat small = new Mat();
+    private final Mat thumbnail = new Mat();
+    private final Mat previous = new Mat();
+    private final Mat changed = new Mat();
+
+    private int stillFrames;
+    private long lastDisplayNanos = NEVER;
+    private long framesSeen;
+    private long framesMoving;
+    private long inferenceGated;
+    private long displayGated;
+
+    public MotionGate(int idleAfter, double idleFps) {
+        this.idleAfter = Math.max(1, idleAfter);
+        this.idleIntervalNanos = idleFps > 0 ? (long) (1_000_000_000L / idleFps) : Long.MAX_VALUE;
+    }
+
+    /** Starts over as if motion had just been seen; counters are kept. */
+    public void reset() {
+        previous.release();
+        stillFrames = 0;
+        lastDisplayNanos = NEVER;
+    }
+
+    public boolean isIdle() {
+        return stillFrames >= idleAfter;
+    }
+
+    /** @return true if the scene moved since the previous frame */
+    public boolean update(Mat frame) {
+        framesSeen++;
+        Imgproc.resize(frame, small, THUMBNAIL_SIZE, 0, 0, Imgproc.INTER_AREA);
+        Imgproc.cvtColor(small, thumbnail, Imgproc.COLOR_BGR2GRAY);
+        boolean moved = true;
+        if (!previous.empty()) {
+            Core.absdiff(thumbnail, previous, changed);
+            Imgproc.threshold(changed, changed, PIXEL_DELTA, 255, Imgproc.THRESH_BINARY);
+            moved = Core.countNonZero(changed) > CHANGED_FRACTION * thumbnail.rows() * thumbnail.cols();
+        }
+        thumbnail.copyTo(previous);
+        if (moved) {
+            framesMoving++;
+            stillFrames = 0;
+        } else {
+            stillFrames++;
+        }
+        return moved;
+    }
+
+    public boolean allowInference() {
+        if (isIdle()) {
+            inferenceGated++;
+            return false;
+        }
+        return true;
+    }
+
+    public boolean allowDisplay(long nowNanos) {
+        if (isIdle() && lastDisplayNanos != NEVER && nowNanos - lastDisplayNanos < idleIntervalNanos) {
+            displayGated++;
+            return false;
+        }
+        lastDisplayNanos = nowNanos;
+        return true;
+    }
+
+    public long getFramesSeen() {
+        return framesSeen;
+    }
+
+    public long getFramesMoving() {
+        return framesMoving;
+    }
+
+    public long getInferenceGated() {
+        return inferenceGated;
+    }
+
+    public long getDisplayGated() {
+        return displayGated;
+    }
+
+    public String summary() {
+        return "Motion gate: " + framesSeen + " frames, " + framesMoving + " with motion, "
+                + inferenceGated + " skipped inference, " + displayGated + " not sent to the UI.";
+    }
+
+    public void release() {
+        small.release();
+        thumbnail.release();
+        previous.release();
+        changed.release();
+    }
+}
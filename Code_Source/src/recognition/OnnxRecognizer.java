@@ -0,0 +1,389 @@
+package recognition;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+import org.opencv.core.Core;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.Rect;
+import org.opencv.core.Size;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the exported classifier in-process with ONNX Runtime and reads frames with OpenCV from the
+ * configured {@link FrameSource}, so no Python interpreter or TensorFlow is needed. The model is produced by training/export_model.py.
+ */
+public class OnnxRecognizer implements Recognizer {
+
+    private static final int IMAGE_SIZE = 128;
+    private static final long PREDICTION_INTERVAL_NANOS = 5_000_000_000L;
+    private static final long GATE_REPORT_INTERVAL_NANOS = 60_000_000_000L;
+    private static final long[] INPUT_SHAPE = {1, IMAGE_SIZE, IMAGE_SIZE, 3};
+
+    private final Path modelPath;
+    private final int intraOpThreads;
+    private final RecognitionSettings settings;
+    private final PredictionSmoother smoother;
+    private final int topK;
+    private final float[] nothingProbabilities = new float[AslClasses.NAMES.size()];
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean paused = new AtomicBoolean(false);
+    private final AtomicBoolean resetRequested = new AtomicBoolean(false);
+    private final TranslationHistory translationHistory = new TranslationHistory();
+    private final Queue<String> acceptedWords = new ConcurrentLinkedQueue<>();
+
+    private RecognizerListener listener;
+    private OrtEnvironment environment;
+    private OrtSession session;
+    private String inputName;
+    private Thread captureThread;
+    private volatile PixelFrameExchange pixelFrames;
+
+    public OnnxRecognizer(boolean startPaused) {
+        this(Paths.get(System.getProperty("speakurhands.onnx.model", "training/best_model.onnx")),
+                Integer.getInteger("speakurhands.onnx.threads", 2),
+                RecognitionSettings.fromSystemProperties());
+        paused.set(startPaused);
+    }
+
+    public OnnxRecognizer(Path modelPath, int intraOpThreads, RecognitionSettings settings) {
+        this.modelPath = modelPath;
+        this.intraOpThreads = intraOpThreads;
+        this.settings = settings;
+        this.smoother = settings.createSmoother(AslClasses.NAMES.size());
+        this.topK = EventLog.topKFromSystemProperties();
+        nothingProbabilities[AslClasses.NAMES.indexOf(AslClasses.NOTHING)] = 1f;
+    }
+
+    @Override
+    public void start(RecognizerListener listener) throws IOException {
+        this.listener = listener;
+        if (!Files.exists(modelPath)) {
+            throw new IOException("Model file not found at " + modelPath.toAbsolutePath());
+        }
+        loadOpenCv();
+        try (OrtSession.SessionOptions options = new OrtSession.SessionOptions()) {
+            environment = OrtEnvironment.getEnvironment();
+            options.setIntraOpNumThreads(intraOpThreads);
+            options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+            session = environment.createSession(modelPath.toString(), options);
+            inputName = session.getInputNames().iterator().next();
+        } catch (OrtException e) {
+            throw new IOException("Failed to load model: " + e.getMessage(), e);
+        }
+        listener.onStatus("Model loaded successfully from " + modelPath.toAbsolutePath());
+
+        running.set(true);
+        captureThread = new Thread(this::captureLoop, "onnx-recognizer-capture");
+        captureThread.setDaemon(true);
+        captureThread.start();
+    }
+
+    /** Loads the OpenCV native library, for the backends that capture frames in process. */
+    static synchronized void loadOpenCv() throws IOException {
+        try {
+            System.loadLibrary(Core.NATIVE_LIBRARY_NAME);
+        } catch (UnsatisfiedLinkError e) {
+            throw new IOException("OpenCV native library not found on java.library.path: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get() && captureThread != null && captureThread.isAlive();
+    }
+
+    @Override
+    public void pause() {
+        paused.set(true);
+    }
+
+    @Override
+    public void resume() {
+        paused.set(false);
+    }
+
+    @Override
+    public void reset() {
+        resetRequested.set(true);
+    }
+
+    @Override
+    public void acceptWord(String word) {
+        acceptedWords.add(word);
+    }
+
+    @Override
+    public PixelFrameSource openPixelFrames() {
+        return pixelFrames;
+    }
+
+    private void captureLoop() {
+        FrameSource capture;
+        try {
+            capture = settings.openFrameSource();
+        } catch (IOException | RuntimeException e) {
+            running.set(false);
+            release();
+            listener.onError("Camera Error", "Cannot open frame source " + settings.getSource() + ": " + e.getMessage());
+            return;
+        }
+        if (!capture.isOpened()) {
+            running.set(false);
+            release();
+            listener.onError("Camera Error", "Cannot open frame source " + capture.describe() + ".");
+            return;
+        }
+        listener.onStatus("Opened " + capture.describe() + ". Starting detection loop.");
+        long sourceStart = System.nanoTime();
+
+        Mat frame = new Mat();
+        Mat bgra = new Mat();
+        Mat resized = new Mat();
+        Mat input = new Mat();
+        byte[] pixels = null;
+        float[] inputData = new float[IMAGE_SIZE * IMAGE_SIZE * 3];
+        long lastPrediction = System.nanoTime();
+        long frameIndex = 0;
+        HandTracker tracker = settings.isHandRoi() ? new HandTracker(settings.getRoiDetectEvery()) : null;
+        Rect roi = null;
+        boolean roiSent = false;
+        MotionGate gate = settings.createMotionGate();
+        long lastGateReport = System.nanoTime();
+        PipelineMetrics metrics = PipelineMetrics.get();
+        try {
+            listener.onTranscriptEdit(translationHistory.snapshot());
+            while (running.get()) {
+                if (resetRequested.getAndSet(false)) {
+                    translationHistory.clear();
+                    smoother.reset();
+                    roiSent = false;
+                    listener.onTranscriptEdit(translationHistory.snapshot());
+                }
+                for (String word = acceptedWords.poll(); word != null; word = acceptedWords.poll()) {
+                    translationHistory.acceptWord(word).forEach(listener::onTranscriptEdit);
+                    sendSnapshotIfDue();
+                }
+                if (paused.get()) {
+                    Thread.sleep(50);
+                    lastPrediction = System.nanoTime();
+                    smoother.reset();
+                    if (tracker != null) {
+                        tracker.reset();
+                    }
+                    if (gate != null) {
+                        gate.reset();
+                    }
+                    continue;
+                }
+                long readStarted = System.nanoTime();
+                boolean grabbed = capture.read(frame);
+                long captureMicros = PipelineMetrics.nowMicros();
+                if (!grabbed) {
+                    if (capture.isExhausted()) {
+                        double seconds = (System.nanoTime() - sourceStart) / 1e9;
+                        listener.onStatus(String.format("Frame source finished after %d frames in %.1f s (%.1f frames/s).",
+                                frameIndex, seconds, frameIndex / Math.max(seconds, 1e-6)));
+                        break;
+                    }
+                    listener.onStatus("Warning - Failed to grab frame. Retrying...");
+                    Thread.sleep(100);
+                    continue;
+                }
+                if (capture.isMirrored()) {
+                    Core.flip(frame, frame, 1);
+                }
+                frameIndex++;
+                long now = System.nanoTime();
+                metrics.record(PipelineMetrics.Stage.CAPTURE, (now - readStarted) / 1000);
+                if (gate != null) {
+                    gate.update(frame);
+                    if (now - lastGateReport >= GATE_REPORT_INTERVAL_NANOS) {
+                        listener.onStatus(gate.summary());
+                        lastGateReport = now;
+                    }
+                }
+                boolean runInference = gate == null || gate.allowInference();
+
+                if (gate == null || gate.allowDisplay(now)) {
+                    PixelFrameExchange exchange = pixelFrames;
+                    if (exchange == null || exchange.getWidth() != frame.cols() || exchange.getHeight() != frame.rows()) {
+                        exchange = new PixelFrameExchange(frame.cols(), frame.rows());
+                        pixels = new byte[exchange.getFrameSize()];
+                        pixelFrames = exchange;
+                    }
+                    long encodeStarted = System.nanoTime();
+                    Imgproc.cvtColor(frame, bgra, Imgproc.COLOR_BGR2BGRA);
+                    bgra.get(0, 0, pixels);
+                    exchange.beginWrite().put(pixels);
+                    exchange.commitWrite(captureMicros);
+                    metrics.record(PipelineMetrics.Stage.ENCODE, (System.nanoTime() - encodeStarted) / 1000);
+                }
+
+                if (tracker != null && runInference) {
+                    Rect found = tracker.update(frame);
+                    if (!roiSent || (found == null ? roi != null : !found.equals(roi))) {
+                        roi = found;
+                        roiSent = true;
+                        listener.onHandRegion(roi == null ? HandRegion.NONE
+                                : new HandRegion(roi.x, roi.y, roi.width, roi.height, frame.cols(), frame.rows()));
+                    }
+                }
+                boolean handMissing = tracker != null && roi == null;
+
+                if (!runInference) {
+                    continue;
+                }
+                if (settings.isStreaming()) {
+                    if (frameIndex % settings.getStride() == 0) {
+                        float[] probabilities = nothingProbabilities;
+                        if (!handMissing) {
+                            probabilities = classify(frame, roi, resized, input, inputData, metrics);
+                        }
+                        if (topK > 0) {
+                            listener.onFrameScores(FrameScores.topK(frameIndex, captureMicros, probabilities, topK));
+                        }
+                        PredictionSmoother.Result result = smoother.update(probabilities);
+                        metrics.predictionReceived();
+                        listener.onPrediction(new Prediction(AslClasses.NAMES.get(result.index()), result.confidence(), captureMicros));
+                        if (result.isCommitted()) {
+                            commit(result.committed(), smoother.windowMean());
+                        }
+                    }
+                } else if (now - lastPrediction >= PREDICTION_INTERVAL_NANOS) {
+                    float[] probabilities = nothingProbabilities;
+                    if (!handMissing) {
+                        probabilities = classify(frame, roi, resized, input, inputData, metrics);
+                    }
+                    if (topK > 0) {
+                        listener.onFrameScores(FrameScores.topK(frameIndex, captureMicros, probabilities, topK));
+                    }
+                    int best = argmax(probabilities);
+                    Prediction prediction = new Prediction(AslClasses.NAMES.get(best), probabilities[best], captureMicros);
+                    metrics.predictionReceived();
+                    listener.onPrediction(prediction);
+                    commit(best, probabilities);
+                    lastPrediction = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (OrtException | RuntimeException e) {
+            if (running.get()) {
+                listener.onError("Recognition Error", "Prediction failed: " + e.getMessage());
+            }
+        } finally {
+            running.set(false);
+            capture.release();
+            frame.release();
+            bgra.release();
+            resized.release();
+            input.release();
+            if (tracker != null) {
+                tracker.release();
+            }
+            if (gate != null) {
+                listener.onStatus(gate.summary());
+                gate.release();
+            }
+            release();
+        }
+    }
+
+    /** Scales the hand region (or the whole frame if roi is null) to the model input. */
+    private static void preprocess(Mat frame, Rect roi, Mat resized, Mat input, float[] inputData) {
+        if (roi == null) {
+            Imgproc.resize(frame, resized, new Size(IMAGE_SIZE, IMAGE_SIZE));
+        } else {
+            Mat hand = frame.submat(roi);
+            Imgproc.resize(hand, resized, new Size(IMAGE_SIZE, IMAGE_SIZE));
+            hand.release();
+        }
+        resized.convertTo(input, CvType.CV_32FC3, 1.0 / 255.0);
+        input.get(0, 0, inputData);
+    }
+
+    /** Adds a committed class to the translation and sends its slot and the edit it makes, plus a snapshot when one is due. */
+    private void commit(int classIndex, float[] probabilities) {
+        String className = AslClasses.NAMES.get(classIndex);
+        if (!AslClasses.NOTHING.equals(className)) {
+            listener.onCommittedSlot(new CommittedSlot(classIndex, probabilities.clone()));
+        }
+        TranscriptEdit edit = translationHistory.apply(className);
+        if (edit != null) {
+            listener.onTranscriptEdit(edit);
+        }
+        sendSnapshotIfDue();
+    }
+
+    private void sendSnapshotIfDue() {
+        if (translationHistory.isSnapshotDue()) {
+            listener.onTranscriptEdit(translationHistory.snapshot());
+        }
+    }
+
+    /** Preprocesses and classifies the frame (or its hand region), recording the time taken as inference. */
+    private float[] classify(Mat frame, Rect roi, Mat resized, Mat input, float[] inputData, PipelineMetrics metrics) throws OrtException {
+        long started = System.nanoTime();
+        preprocess(frame, roi, resized, input, inputData);
+        float[] probabilities = classify(inputData);
+        metrics.record(PipelineMetrics.Stage.INFERENCE, (System.nanoTime() - started) / 1000);
+        return probabilities;
+    }
+
+    private float[] classify(float[] inputData) throws OrtException {
+        try (OnnxTensor tensor = OnnxTensor.createTensor(environment, FloatBuffer.wrap(inputData), INPUT_SHAPE);
+             OrtSession.Result result = session.run(Map.of(inputName, tensor))) {
+            return ((float[][]) result.get(0).getValue())[0];
+        }
+    }
+
+    private static int argmax(float[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        pixelFrames = null;
+        if (captureThread == null) {
+            release();
+            return;
+        }
+        // The capture thread releases the session and translation state itself once it leaves its loop,
+        // so a thread still inside session.run when the wait times out never sees them closed under it.
+        try {
+            captureThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Closes the session and forgets the translation; called by the capture thread as it exits, or by stop() if none started. */
+    private void release() {
+        try {
+            if (session != null) session.close();
+        } catch (OrtException ignored) {}
+        session = null;
+        translationHistory.clear();
+        smoother.reset();
+    }
+}
@@ -0,0 +1,259 @@
+package recognition;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency percentiles per pipeline stage and frame counters, shared by the recognizer and the
+ * camera view. Timestamps that cross the process boundary are wall-clock microseconds since the
+ * epoch ({@link #nowMicros()}), the same clock asl_recognition.py stamps frames with.
+ */
+public class PipelineMetrics implements PipelineMetricsMXBean {
+
+    public enum Stage {
+        /** Time spent in cap.read() / VideoCapture.read(). */
+        CAPTURE("capture", "us"),
+        /** JPEG encoding, or the copy into the frame ring / triple buffer. */
+        ENCODE("encode", "us"),
+        /** From capture plus encode time to the reader thread receiving the frame, mostly time spent in the pipe. */
+        PIPE("pipe", "us"),
+        /** JPEG decoding into a JavaFX Image. */
+        DECODE("decode", "us"),
+        /** From a frame being ready for display to the FX pulse that shows it. */
+        RENDER_WAIT("render wait", "us"),
+        /** From capture to the FX pulse that shows the frame. */
+        FRAME_LATENCY("frame e2e", "us"),
+        /** Time a frame waited for its inference batch to fill. */
+        BATCH_WAIT("batch wait", "us"),
+        INFERENCE("inference", "us"),
+        /** From capture to the prediction label being updated. */
+        PREDICTION_LATENCY("prediction e2e", "us"),
+        /** Word decoder step and completion search for one committed slot. */
+        WORD_DECODE("word decode", "us"),
+        /** Bytes waiting in the stdout pipe when a frame is read. */
+        PIPE_BACKLOG("pipe backlog", "bytes");
+
+        private final String label;
+        private final String unit;
+
+        Stage(String label, String unit) {
+            this.label = label;
+            this.unit = unit;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public String getUnit() {
+            return unit;
+        }
+    }
+
+    private static final PipelineMetrics INSTANCE = new PipelineMetrics();
+
+    private final Map<Stage, LatencyHistogram> histograms = new EnumMap<>(Stage.class);
+    private final AtomicLong framesReceived = new AtomicLong();
+    private final AtomicLong framesDisplayed = new AtomicLong();
+    private final AtomicLong framesDropped = new AtomicLong();
+    private final AtomicLong framesSkipped = new AtomicLong();
+    private final AtomicLong predictionsReceived = new AtomicLong();
+    private final AtomicLong pipeBacklog = new AtomicLong();
+    private final AtomicLong lastFrameSequence = new AtomicLong();
+    private volatile FrameFlowStatus frameFlow;
+
+    PipelineMetrics() {
+        for (Stage stage : Stage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    public static PipelineMetrics get() {
+        return INSTANCE;
+    }
+
+    public static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    /** Registers the metrics with the platform MBean server; failures are only logged. */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName("speakurhands:type=PipelineMetrics");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            System.err.println("Could not register pipeline metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    public void record(Stage stage, long value) {
+        histograms.get(stage).record(value);
+    }
+
+    /** Records the time from captureMicros until now, if the capture time is known. */
+    public void recordSince(Stage stage, long captureMicros) {
+        if (captureMicros > 0) {
+            record(stage, nowMicros() - captureMicros);
+        }
+    }
+
+    public void framesReceived(long count) {
+        framesReceived.addAndGet(count);
+    }
+
+    /**
+     * Called by the reader thread when an encoded frame arrives.
+     * @param timing the TIMING message sent ahead of the frame, or null if there was none
+     */
+    public void frameArrived(StageTiming timing) {
+        framesReceived(1);
+        if (timing == null) return;
+        record(Stage.PIPE, nowMicros() - timing.captureMicros() - timing.secondStageMicros());
+        long previous = lastFrameSequence.getAndSet(timing.sequence());
+        // A lower sequence means the recognizer was restarted and counts from 1 again.
+        if (previous > 0 && timing.sequence() > previous) {
+            framesSkipped(timing.sequence() - previous - 1);
+        }
+    }
+
+    public void frameDisplayed() {
+        framesDisplayed.incrementAndGet();
+    }
+
+    public void framesDropped(long count) {
+        if (count > 0) {
+            framesDropped.addAndGet(count);
+        }
+    }
+
+    public void framesSkipped(long count) {
+        if (count > 0) {
+            framesSkipped.addAndGet(count);
+        }
+    }
+
+    public void predictionReceived() {
+        predictionsReceived.incrementAndGet();
+    }
+
+    public void pipeBacklog(long bytes) {
+        pipeBacklog.set(bytes);
+        record(Stage.PIPE_BACKLOG, bytes);
+    }
+
+    /** Called with each FLOW report of the recognizer's frame flow control. */
+    public void frameFlow(FrameFlowStatus flow) {
+        frameFlow = flow;
+    }
+
+    @Override
+    public List<StageSnapshot> getStages() {
+        List<StageSnapshot> stages = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            stages.add(new StageSnapshot(stage.getLabel(), stage.getUnit(), histograms.get(stage)));
+        }
+        return stages;
+    }
+
+    @Override
+    public long getFramesReceived() {
+        return framesReceived.get();
+    }
+
+    @Override
+    public long getFramesDisplayed() {
+        return framesDisplayed.get();
+    }
+
+    @Override
+    public long getFramesDroppedBeforeDisplay() {
+        return framesDropped.get();
+    }
+
+    @Override
+    public long getFramesSkippedUpstream() {
+        return framesSkipped.get();
+    }
+
+    @Override
+    public long getPredictionsReceived() {
+        return predictionsReceived.get();
+    }
+
+    @Override
+    public long getPipeBacklogBytes() {
+        return pipeBacklog.get();
+    }
+
+    @Override
+    public int getFrameJpegQuality() {
+        FrameFlowStatus flow = frameFlow;
+        return flow == null ? 0 : flow.jpegQuality();
+    }
+
+    @Override
+    public String getFrameSize() {
+        FrameFlowStatus flow = frameFlow;
+        return flow == null ? "" : flow.width() + "x" + flow.height();
+    }
+
+    @Override
+    public float getFrameRateTarget() {
+        FrameFlowStatus flow = frameFlow;
+        return flow == null ? 0f : flow.fps();
+    }
+
+    @Override
+    public long getFrameCreditStalls() {
+        FrameFlowStatus flow = frameFlow;
+        return flow == null ? 0 : flow.creditStalls();
+    }
+
+    @Override
+    public int getFrameCredits() {
+        FrameFlowStatus flow = frameFlow;
+        return flow == null ? 0 : flow.credits();
+    }
+
+    @Override
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        framesReceived.set(0);
+        framesDisplayed.set(0);
+        framesDropped.set(0);
+        framesSkipped.set(0);
+        predictionsReceived.set(0);
+        pipeBacklog.set(0);
+        lastFrameSequence.set(0);
+        frameFlow = null;
+    }
+
+    /** Multi-line summary for the on-screen overlay and logs; stages without samples are left out. */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("frames %d received, %d shown, %d dropped, %d skipped upstream; %d predictions%n",
+                getFramesReceived(), getFramesDisplayed(), getFramesDroppedBeforeDisplay(),
+                getFramesSkippedUpstream(), getPredictionsReceived()));
+        FrameFlowStatus flow = frameFlow;
+        if (flow != null) {
+            text.append(String.format("sending %dx%d at JPEG quality %d, %.1f fps; %d credit stalls, %d credits%n",
+                    flow.width(), flow.height(), flow.jpegQuality(), flow.fps(), flow.creditStalls(), flow.credits()));
+        }
+        for (StageSnapshot stage : getStages()) {
+            if (stage.getCount() > 0) {
+                text.append(stage).append(System.lineSeparator());
+            }
+        }
+        return text.toString().trim();
+    }
+}
@@ -0,0 +1,38 @@
+package recognition;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link PipelineMetrics}, registered as speakurhands:type=PipelineMetrics.
+ */
+public interface PipelineMetricsMXBean {
+
+    List<StageSnapshot> getStages();
+
+    long getFramesReceived();
+
+    long getFramesDisplayed();
+
+    long getFramesDroppedBeforeDisplay();
+
+    long getFramesSkippedUpstream();
+
+    long getPredictionsReceived();
+
+    long getPipeBacklogBytes();
+
+    /** JPEG quality the recognizer currently sends frames at; 0 before its first FLOW report. */
+    int getFrameJpegQuality();
+
+    /** Size the recognizer currently scales frames to, as "widthxheight". */
+    String getFrameSize();
+
+    float getFrameRateTarget();
+
+    /** Frames the recognizer has skipped because the view had not returned enough credits. */
+    long getFrameCreditStalls();
+
+    int getFrameCredits();
+
+    void reset();
+}
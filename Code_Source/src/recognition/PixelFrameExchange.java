@@ -0,0 +1,91 @@
+package recognition;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer handing raw BGRA frames from one producer thread to the FX thread.
+ * The producer never waits for the consumer, and the consumer always gets the newest complete frame.
+ */
+public class PixelFrameExchange implements PixelFrameSource {
+
+    private static final class Slot {
+        final ByteBuffer pixels;
+        long sequence;
+        long captureMicros;
+
+        Slot(int size) {
+            pixels = ByteBuffer.allocateDirect(size);
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final AtomicReference<Slot> ready;
+    private Slot back;
+    private Slot front;
+    private long nextSequence;
+    // The slot in ready is the reader's old front after a swap, so the newest sequence is kept apart.
+    private volatile long latestSequence;
+    private long lastTimestampMicros;
+
+    public PixelFrameExchange(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int size = width * height * 4;
+        this.ready = new AtomicReference<>(new Slot(size));
+        this.back = new Slot(size);
+        this.front = new Slot(size);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /** Producer side: returns the buffer to fill with the next frame. */
+    public ByteBuffer beginWrite() {
+        back.pixels.clear();
+        return back.pixels;
+    }
+
+    /** Producer side: publishes the buffer returned by {@link #beginWrite()}. */
+    public void commitWrite() {
+        commitWrite(0);
+    }
+
+    /** Producer side: publishes the buffer returned by {@link #beginWrite()}, captured at captureMicros. */
+    public void commitWrite(long captureMicros) {
+        back.sequence = ++nextSequence;
+        back.captureMicros = captureMicros;
+        back = ready.getAndSet(back);
+        latestSequence = nextSequence;
+    }
+
+    @Override
+    public long latestSequence() {
+        return latestSequence;
+    }
+
+    @Override
+    public long readLatest(ByteBuffer target) {
+        if (ready.get().sequence <= front.sequence) {
+            return -1;
+        }
+        front = ready.getAndSet(front);
+        target.clear();
+        target.put(target.position(), front.pixels, 0, getFrameSize());
+        lastTimestampMicros = front.captureMicros;
+        return front.sequence;
+    }
+
+    @Override
+    public long getLastTimestampMicros() {
+        return lastTimestampMicros;
+    }
+}
@@ -0,0 +1,27 @@
+package recognition;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Newest-frame-wins access to raw BGRA frames that the view can copy straight into a PixelBuffer.
+ */
+public interface PixelFrameSource {
+
+    int getWidth();
+
+    int getHeight();
+
+    default int getFrameSize() {
+        return getWidth() * getHeight() * 4;
+    }
+
+    long latestSequence();
+
+    /** @return the sequence of the frame copied into target, or -1 if none was copied, leaving target as it was */
+    long readLatest(ByteBuffer target);
+
+    /** @return capture time of the frame last copied by {@link #readLatest}, in epoch microseconds, or 0 if unknown */
+    default long getLastTimestampMicros() {
+        return 0;
+    }
+}
@@ -0,0 +1,11 @@
+package recognition;
+
+/**
+ * @param captureMicros capture time of the classified frame in epoch microseconds, or 0 if unknown
+ */
+public record Prediction(String label, float confidence, long captureMicros) {
+
+    public Prediction(String label, float confidence) {
+        this(label, confidence, 0);
+    }
+}
@@ -0,0 +1,153 @@
+package recognition;
+
+import java.util.Arrays;
+
+/**
+ * Java port of PredictionSmoother in prediction_smoothing.py: smooths per-frame class
+ * probabilities over a sliding window and commits a class once it is confident and stable.
+ */
+public class PredictionSmoother {
+
+    public static final String EMA = "ema";
+    public static final String MEAN = "mean";
+    public static final String MAJORITY = "majority";
+
+    /** Result of one update; committed is -1 unless this update committed a class. */
+    public record Result(int index, float confidence, int committed) {
+        public boolean isCommitted() {
+            return committed >= 0;
+        }
+    }
+
+    private final int numClasses;
+    private final int window;
+    private final float threshold;
+    private final int stableFrames;
+    private final String method;
+    private final float alpha;
+
+    private final float[][] history;
+    private final int[] argmaxHistory;
+    private final int[] votes;
+    private final float[] ema;
+    private final float[] distribution;
+    private int count;
+    private int candidate;
+    private int stableCount;
+    private int lastCommitted;
+
+    public PredictionSmoother(int numClasses, int window, float threshold, int stableFrames, String method) {
+        if (!EMA.equals(method) && !MEAN.equals(method) && !MAJORITY.equals(method)) {
+            throw new IllegalArgumentException("Unknown smoothing method: " + method);
+        }
+        this.numClasses = numClasses;
+        this.window = Math.max(1, window);
+        this.threshold = threshold;
+        this.stableFrames = Math.max(1, stableFrames);
+        this.method = method;
+        this.alpha = 2.0f / (this.window + 1);
+        this.history = new float[this.window][numClasses];
+        this.argmaxHistory = new int[this.window];
+        this.votes = new int[numClasses];
+        this.ema = new float[numClasses];
+        this.distribution = new float[numClasses];
+        reset();
+    }
+
+    public void reset() {
+        Arrays.fill(votes, 0);
+        Arrays.fill(argmaxHistory, -1);
+        count = 0;
+        candidate = -1;
+        stableCount = 0;
+        lastCommitted = -1;
+    }
+
+    public Result update(float[] probabilities) {
+        int slot = count % window;
+        int top = argmax(probabilities);
+
+        if (count >= window) {
+            votes[argmaxHistory[slot]]--;
+        }
+        System.arraycopy(probabilities, 0, history[slot], 0, numClasses);
+        argmaxHistory[slot] = top;
+        votes[top]++;
+
+        if (count == 0) {
+            System.arraycopy(probabilities, 0, ema, 0, numClasses);
+        } else {
+            for (int i = 0; i < numClasses; i++) {
+                ema[i] += alpha * (probabilities[i] - ema[i]);
+            }
+        }
+        count++;
+
+        smoothed(distribution);
+        int index = argmax(distribution);
+        float confidence = distribution[index];
+
+        if (confidence < threshold) {
+            candidate = -1;
+            stableCount = 0;
+            return new Result(index, confidence, -1);
+        }
+        if (index == candidate) {
+            stableCount++;
+        } else {
+            candidate = index;
+            stableCount = 1;
+        }
+        if (stableCount == stableFrames && index != lastCommitted) {
+            lastCommitted = index;
+            return new Result(index, confidence, index);
+        }
+        return new Result(index, confidence, -1);
+    }
+
+    /** @return the mean of the raw probability vectors in the window, whatever the method; port of window_mean() */
+    public float[] windowMean() {
+        float[] out = new float[numClasses];
+        int filled = Math.min(count, window);
+        for (int row = 0; row < filled; row++) {
+            for (int i = 0; i < numClasses; i++) {
+                out[i] += history[row][i];
+            }
+        }
+        for (int i = 0; filled > 0 && i < numClasses; i++) {
+            out[i] /= filled;
+        }
+        return out;
+    }
+
+    private void smoothed(float[] out) {
+        int filled = Math.min(count, window);
+        if (EMA.equals(method)) {
+            System.arraycopy(ema, 0, out, 0, numClasses);
+        } else if (MEAN.equals(method)) {
+            Arrays.fill(out, 0f);
+            for (int row = 0; row < filled; row++) {
+                for (int i = 0; i < numClasses; i++) {
+                    out[i] += history[row][i];
+                }
+            }
+            for (int i = 0; i < numClasses; i++) {
+                out[i] /= filled;
+            }
+        } else {
+            for (int i = 0; i < numClasses; i++) {
+                out[i] = votes[i] / (float) filled;
+            }
+        }
+    }
+
+    private static int argmax(float[] values) {
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
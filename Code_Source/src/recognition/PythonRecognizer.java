@@ -0,0 +1,293 @@
+package recognition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs asl_recognition.py as a subprocess and relays its output.
+ */
+public class PythonRecognizer implements Recognizer {
+
+    public static final String PROTOCOL_BINARY = "binary";
+    public static final String PROTOCOL_TEXT = "text";
+    public static final String TRANSPORT_PIPE = "pipe";
+    public static final String TRANSPORT_SHM = "shm";
+
+    private static final String PYTHON_COMMAND = "python";
+    private static final String SCRIPT_PATH = "src/controllers/asl_recognition.py";
+
+    private final String protocol;
+    private final String transport;
+    private final int shmSlots;
+    // Null when frames are not flow controlled: with the shm transport, or -Dspeakurhands.frameCredits=0.
+    private final FrameCredits frameCredits;
+    private final boolean startPaused;
+    private final RecognitionSettings settings;
+
+    private RecognizerListener listener;
+    private Process pythonProcess;
+    private BufferedReader pythonInputReader;
+    private FramedMessageReader pythonMessageReader;
+    private Thread pythonOutputReaderThread;
+    private Thread pythonErrorReaderThread;
+    private Writer controlWriter;
+    private ExecutorService monitorExecutor;
+    private Future<?> monitorFuture;
+    private final AtomicBoolean isShuttingDownIntentionally = new AtomicBoolean(false);
+    private Path frameRingPath;
+    private SharedFrameRing frameRing;
+
+    public PythonRecognizer(boolean startPaused) {
+        this(System.getProperty("speakurhands.protocol", PROTOCOL_BINARY),
+                System.getProperty("speakurhands.transport", TRANSPORT_PIPE),
+                Integer.getInteger("speakurhands.shm.slots", 4),
+                Integer.getInteger("speakurhands.frameCredits", FrameCredits.DEFAULT_WINDOW),
+                startPaused,
+                RecognitionSettings.fromSystemProperties());
+    }
+
+    /**
+     * @param frameCredits frames the script may send ahead of the camera view showing them, or 0 for no flow control;
+     *                     ignored with the shm transport, which only ever keeps the newest frames
+     */
+    public PythonRecognizer(String protocol, String transport, int shmSlots, int frameCredits, boolean startPaused,
+                            RecognitionSettings settings) {
+        this.protocol = PROTOCOL_TEXT.equals(protocol) ? PROTOCOL_TEXT : PROTOCOL_BINARY;
+        this.transport = TRANSPORT_SHM.equals(transport) ? TRANSPORT_SHM : TRANSPORT_PIPE;
+        this.shmSlots = shmSlots;
+        this.frameCredits = TRANSPORT_PIPE.equals(this.transport) && frameCredits > 0 ? new FrameCredits(frameCredits) : null;
+        this.startPaused = startPaused;
+        this.settings = settings;
+    }
+
+    @Override
+    public void start(RecognizerListener listener) throws IOException {
+        this.listener = listener;
+        isShuttingDownIntentionally.set(false);
+
+        boolean binaryProtocol = PROTOCOL_BINARY.equals(protocol);
+        ProcessBuilder pb = new ProcessBuilder(PYTHON_COMMAND, SCRIPT_PATH, "--protocol", protocol, "--control");
+        if (startPaused) {
+            pb.command().add("--start-paused");
+        }
+        pb.command().addAll(settings.toPythonArgs());
+        if (frameCredits != null) {
+            pb.command().addAll(List.of("--frame-credits", String.valueOf(frameCredits.getWindow())));
+        }
+        int topK = EventLog.topKFromSystemProperties();
+        if (topK > 0) {
+            pb.command().addAll(List.of("--top-k", String.valueOf(topK)));
+        }
+        if (TRANSPORT_SHM.equals(transport)) {
+            frameRingPath = Files.createTempFile("speakurhands-frames", ".ring");
+            Files.delete(frameRingPath);
+            pb.command().addAll(List.of("--transport", TRANSPORT_SHM,
+                    "--shm-path", frameRingPath.toString(), "--shm-slots", String.valueOf(shmSlots)));
+        }
+        pythonProcess = pb.start();
+        controlWriter = new OutputStreamWriter(pythonProcess.getOutputStream(), StandardCharsets.UTF_8);
+
+        if (binaryProtocol) {
+            pythonMessageReader = new FramedMessageReader(pythonProcess.getInputStream(), 64 * 1024);
+            pythonOutputReaderThread = new Thread(this::readBinaryOutput, "python-recognizer-reader");
+        } else {
+            pythonInputReader = new BufferedReader(new InputStreamReader(pythonProcess.getInputStream()));
+            pythonOutputReaderThread = new Thread(this::readTextOutput, "python-recognizer-reader");
+        }
+        pythonOutputReaderThread.setDaemon(true);
+        pythonOutputReaderThread.start();
+        InputStream errorStream = pythonProcess.getErrorStream();
+        pythonErrorReaderThread = new Thread(() -> readErrorOutput(errorStream), "python-recognizer-stderr");
+        pythonErrorReaderThread.setDaemon(true);
+        pythonErrorReaderThread.start();
+
+        monitorExecutor = Executors.newSingleThreadExecutor();
+        monitorFuture = monitorExecutor.submit(() -> {
+            try {
+                int exitCode = pythonProcess.waitFor();
+                if (exitCode != 0 && !isShuttingDownIntentionally.get()) {
+                    listener.onError("Python Script Error", "Script terminated unexpectedly (code: " + exitCode + ")");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                if (!isShuttingDownIntentionally.get()) {
+                    listener.onError("Process Monitoring Error", "Unexpected error waiting for script: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean isRunning() {
+        return pythonProcess != null && pythonProcess.isAlive();
+    }
+
+    @Override
+    public void pause() {
+        sendControl("PAUSE");
+    }
+
+    @Override
+    public void resume() {
+        if (frameCredits != null) {
+            // Frames that were in flight when the view was hidden never come back as credits.
+            sendControl(frameCredits.restore());
+        }
+        sendControl("RESUME");
+    }
+
+    @Override
+    public void reset() {
+        sendControl("RESET");
+    }
+
+    @Override
+    public void acceptWord(String word) {
+        sendControl("ACCEPT " + word);
+    }
+
+    @Override
+    public void frameConsumed(long renderMicros) {
+        if (frameCredits == null) return;
+        String command = frameCredits.consumed(renderMicros);
+        if (command != null) {
+            sendControl(command);
+        }
+    }
+
+    private synchronized void sendControl(String command) {
+        if (controlWriter == null) return;
+        try {
+            controlWriter.write(command);
+            controlWriter.write('\n');
+            controlWriter.flush();
+        } catch (IOException e) {
+            // The process is gone; the health check notices and restarts it.
+        }
+    }
+
+    @Override
+    public synchronized PixelFrameSource openPixelFrames() throws IOException {
+        if (frameRing == null && frameRingPath != null) {
+            frameRing = SharedFrameRing.tryOpen(frameRingPath);
+        }
+        return frameRing;
+    }
+
+    private void readTextOutput() {
+        TextMessageParser parser = new TextMessageParser(listener);
+        String line;
+        try {
+            while (!isShuttingDownIntentionally.get() && (line = pythonInputReader.readLine()) != null) {
+                parser.parse(line);
+            }
+        } catch (IOException e) {
+            if (!isShuttingDownIntentionally.get()) {
+                listener.onError("Error Reading Python Output", "Failed to read data from script: " + e.getMessage());
+            }
+        } finally {
+            try {
+                if (pythonInputReader != null) pythonInputReader.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    /**
+     * Drains stderr so the script can never block on a full pipe. STATUS lines (the text protocol
+     * reports status there) are forwarded; tracebacks and library noise are dropped.
+     */
+    private void readErrorOutput(InputStream errorStream) {
+        try (BufferedReader errorReader = new BufferedReader(new InputStreamReader(errorStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = errorReader.readLine()) != null) {
+                if (line.startsWith("STATUS:")) {
+                    listener.onStatus(line.substring("STATUS:".length()).trim());
+                }
+            }
+        } catch (IOException ignored) {
+            // Closed when the process exits.
+        }
+    }
+
+    private void readBinaryOutput() {
+        FramedMessageDispatcher dispatcher = new FramedMessageDispatcher(listener);
+        try {
+            while (!isShuttingDownIntentionally.get() && pythonMessageReader.next()) {
+                dispatcher.dispatch(pythonMessageReader);
+            }
+        } catch (IOException e) {
+            if (!isShuttingDownIntentionally.get()) {
+                listener.onError("Error Reading Python Output", "Failed to read data from script: " + e.getMessage());
+            }
+        } finally {
+            try {
+                if (pythonMessageReader != null) pythonMessageReader.close();
+            } catch (IOException ignored) {}
+        }
+    }
+
+    @Override
+    public void stop() {
+        isShuttingDownIntentionally.set(true);
+
+        if (monitorFuture != null && !monitorFuture.isDone()) {
+            monitorFuture.cancel(true);
+        }
+        if (monitorExecutor != null && !monitorExecutor.isShutdown()) {
+            monitorExecutor.shutdownNow();
+            try {
+                monitorExecutor.awaitTermination(500, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (pythonProcess != null && pythonProcess.isAlive()) {
+            pythonProcess.destroy();
+            try {
+                if (!pythonProcess.waitFor(1, TimeUnit.SECONDS)) {
+                    pythonProcess.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                pythonProcess.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (pythonOutputReaderThread != null && pythonOutputReaderThread.isAlive()) {
+            pythonOutputReaderThread.interrupt();
+        }
+
+        try {
+            if (pythonInputReader != null) pythonInputReader.close();
+            if (pythonMessageReader != null) pythonMessageReader.close();
+        } catch (IOException ignored) {}
+        synchronized (this) {
+            try {
+                if (controlWriter != null) controlWriter.close();
+            } catch (IOException ignored) {}
+            controlWriter = null;
+
+            try {
+                if (frameRing != null) frameRing.close();
+                if (frameRingPath != null) Files.deleteIfExists(frameRingPath);
+            } catch (IOException ignored) {}
+            frameRing = null;
+            frameRingPath = null;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package recognition;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Frame source and prediction settings shared by all recognizer backends, read from speakurhands.* system properties.
+ */
+public class RecognitionSettings {
+
+    public static final String MODE_STREAM = "stream";
+    public static final String MODE_INTERVAL = "interval";
+    public static final String MODEL_KERAS = "keras";
+    public static final String MODEL_TFLITE = "tflite";
+    public static final String MODEL_ONNX = "onnx";
+    public static final String THREADING_PIPELINE = "pipeline";
+    public static final String THREADING_SINGLE = "single";
+
+    private final String mode;
+    private final int stride;
+    private final int window;
+    private final float threshold;
+    private final int stableFrames;
+    private final String smoothing;
+    private final int batchSize;
+    private final int batchWaitMs;
+    private final boolean handRoi;
+    private final int roiDetectEvery;
+    private final boolean motionGate;
+    private final int idleAfter;
+    private final double idleFps;
+    private String source = "camera:0";
+    private String pacing = FrameSource.PACING_REALTIME;
+    private double sourceFps;
+    private boolean loop;
+    private String modelFormat = MODEL_KERAS;
+    private String modelPath;
+    private String threading = THREADING_PIPELINE;
+    private int inferenceThreads;
+    private String inferenceCpus;
+    private String captureCpus;
+
+    public RecognitionSettings(String mode, int stride, int window, float threshold, int stableFrames, String smoothing,
+            int batchSize, int batchWaitMs, boolean handRoi, int roiDetectEvery,
+            boolean motionGate, int idleAfter, double idleFps) {
+        this.mode = MODE_INTERVAL.equals(mode) ? MODE_INTERVAL : MODE_STREAM;
+        this.stride = Math.max(1, stride);
+        this.window = Math.max(1, window);
+        this.threshold = threshold;
+        this.stableFrames = Math.max(1, stableFrames);
+        this.smoothing = smoothing;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchWaitMs = Math.max(0, batchWaitMs);
+        this.handRoi = handRoi;
+        this.roiDetectEvery = Math.max(1, roiDetectEvery);
+        this.motionGate = motionGate;
+        this.idleAfter = Math.max(1, idleAfter);
+        this.idleFps = idleFps;
+    }
+
+    public static RecognitionSettings fromSystemProperties() {
+        RecognitionSettings settings = new RecognitionSettings(
+                System.getProperty("speakurhands.mode", MODE_STREAM),
+                Integer.getInteger("speakurhands.stride", 2),
+                Integer.getInteger("speakurhands.window", 8),
+                Float.parseFloat(System.getProperty("speakurhands.threshold", "0.7")),
+                Integer.getInteger("speakurhands.stableFrames", 5),
+                System.getProperty("speakurhands.smoothing", PredictionSmoother.EMA),
+                Integer.getInteger("speakurhands.batchSize", 4),
+                Integer.getInteger("speakurhands.batchWaitMs", 50),
+                Boolean.parseBoolean(System.getProperty("speakurhands.handRoi", "false")),
+                Integer.getInteger("speakurhands.roiDetectEvery", 5),
+                Boolean.parseBoolean(System.getProperty("speakurhands.motionGate", "true")),
+                Integer.getInteger("speakurhands.idleAfter", 30),
+                Double.parseDouble(System.getProperty("speakurhands.idleFps", "2")));
+        settings.setSource(System.getProperty("speakurhands.source", "camera:" + Integer.getInteger("speakurhands.camera", 0)),
+                System.getProperty("speakurhands.pacing", FrameSource.PACING_REALTIME),
+                Double.parseDouble(System.getProperty("speakurhands.sourceFps", "0")),
+                Boolean.getBoolean("speakurhands.loop"));
+        settings.setModel(System.getProperty("speakurhands.modelFormat", MODEL_KERAS),
+                System.getProperty("speakurhands.modelPath"));
+        settings.setThreading(System.getProperty("speakurhands.threading", THREADING_PIPELINE),
+                Integer.getInteger("speakurhands.inferenceThreads", 0),
+                System.getProperty("speakurhands.inferenceCpus"),
+                System.getProperty("speakurhands.captureCpus"));
+        return settings;
+    }
+
+    /**
+     * @param source a frame source spec understood by {@link FrameSource#open}
+     * @param sourceFps replay frame rate, or 0 for the recording's own rate
+     */
+    public void setSource(String source, String pacing, double sourceFps, boolean loop) {
+        this.source = source;
+        this.pacing = FrameSource.PACING_FAST.equals(pacing) ? FrameSource.PACING_FAST : FrameSource.PACING_REALTIME;
+        this.sourceFps = sourceFps;
+        this.loop = loop;
+    }
+
+    /**
+     * Selects the model asl_recognition.py loads: the Keras model or one of the int8 exports of export_model.py.
+     * @param modelPath the model file, or null for the format's default path
+     */
+    public void setModel(String modelFormat, String modelPath) {
+        this.modelFormat = MODEL_TFLITE.equals(modelFormat) || MODEL_ONNX.equals(modelFormat) ? modelFormat : MODEL_KERAS;
+        this.modelPath = modelPath == null || modelPath.isBlank() ? null : modelPath;
+    }
+
+    /**
+     * How asl_recognition.py spreads its work over threads and cores.
+     * @param threading {@link #THREADING_PIPELINE} for capture, encode, inference and output threads, or {@link #THREADING_SINGLE}
+     * @param inferenceThreads intra-op threads of the inference runtime, or 0 for its default
+     * @param inferenceCpus CPUs to pin inference to, e.g. "2-3", or null to leave it unpinned
+     * @param captureCpus CPUs for the other stages, or null for the CPUs not used for inference
+     */
+    public void setThreading(String threading, int inferenceThreads, String inferenceCpus, String captureCpus) {
+        this.threading = THREADING_SINGLE.equals(threading) ? THREADING_SINGLE : THREADING_PIPELINE;
+        this.inferenceThreads = Math.max(0, inferenceThreads);
+        this.inferenceCpus = inferenceCpus == null || inferenceCpus.isBlank() ? null : inferenceCpus;
+        this.captureCpus = captureCpus == null || captureCpus.isBlank() ? null : captureCpus;
+    }
+
+    public String getModelFormat() {
+        return modelFormat;
+    }
+
+    public FrameSource openFrameSource() throws IOException {
+        return FrameSource.open(source, pacing, sourceFps, loop);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isStreaming() {
+        return MODE_STREAM.equals(mode);
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public float getThreshold() {
+        return threshold;
+    }
+
+    public int getStableFrames() {
+        return stableFrames;
+    }
+
+    public String getSmoothing() {
+        return smoothing;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getBatchWaitMs() {
+        return batchWaitMs;
+    }
+
+    public boolean isHandRoi() {
+        return handRoi;
+    }
+
+    public int getRoiDetectEvery() {
+        return roiDetectEvery;
+    }
+
+    public boolean isMotionGate() {
+        return motionGate;
+    }
+
+    public int getIdleAfter() {
+        return idleAfter;
+    }
+
+    public double getIdleFps() {
+        return idleFps;
+    }
+
+    public MotionGate createMotionGate() {
+        return motionGate ? new MotionGate(idleAfter, idleFps) : null;
+    }
+
+    public PredictionSmoother createSmoother(int numClasses) {
+        return new PredictionSmoother(numClasses, window, threshold, stableFrames, smoothing);
+    }
+
+    /** Command line options understood by asl_recognition.py. */
+    public List<String> toPythonArgs() {
+        List<String> args = new ArrayList<>();
+        args.add("--mode");
+        args.add(mode);
+        args.add("--stride");
+        args.add(String.valueOf(stride));
+        args.add("--window");
+        args.add(String.valueOf(window));
+        args.add("--threshold");
+        args.add(String.valueOf(threshold));
+        args.add("--stable-frames");
+        args.add(String.valueOf(stableFrames));
+        args.add("--smoothing");
+        args.add(smoothing);
+        args.add("--batch-size");
+        args.add(String.valueOf(batchSize));
+        args.add("--batch-wait-ms");
+        args.add(String.valueOf(batchWaitMs));
+        args.add("--hand-roi");
+        args.add(handRoi ? "skin" : "off");
+        args.add("--roi-detect-every");
+        args.add(String.valueOf(roiDetectEvery));
+        args.add("--motion-gate");
+        args.add(motionGate ? "on" : "off");
+        args.add("--idle-after");
+        args.add(String.valueOf(idleAfter));
+        args.add("--idle-fps");
+        args.add(String.valueOf(idleFps));
+        args.add("--source");
+        args.add(source);
+        args.add("--pacing");
+        args.add(pacing);
+        if (sourceFps > 0) {
+            args.add("--source-fps");
+            args.add(String.valueOf(sourceFps));
+        }
+        if (loop) {
+            args.add("--loop");
+        }
+        args.add("--model-format");
+        args.add(modelFormat);
+        if (modelPath != null) {
+            args.add("--model-path");
+            args.add(modelPath);
+        }
+        args.add("--threading");
+        args.add(threading);
+        if (inferenceThreads > 0) {
+            args.add("--inference-threads");
+            args.add(String.valueOf(inferenceThreads));
+        }
+        if (inferenceCpus != null) {
+            args.add("--inference-cpus");
+            args.add(inferenceCpus);
+        }
+        if (captureCpus != null) {
+            args.add("--capture-cpus");
+            args.add(captureCpus);
+        }
+        return args;
+    }
+}
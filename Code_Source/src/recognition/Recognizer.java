@@ -0,0 +1,42 @@
+package recognition;
+
+import java.io.IOException;
+
+/**
+ * A source of camera frames, predictions and translation updates for the camera view.
+ */
+public interface Recognizer {
+
+    void start(RecognizerListener listener) throws IOException;
+
+    void stop();
+
+    /** Stops capture and inference but keeps the model loaded and the camera open. */
+    void pause();
+
+    void resume();
+
+    /** Clears the translation built so far. */
+    void reset();
+
+    /** Replaces the word being signed with a completion the user picked, followed by a space. */
+    void acceptWord(String word);
+
+    boolean isRunning();
+
+    /**
+     * Called once for each encoded frame the listener has shown or dropped, so backends with
+     * frame credits can let the next one through.
+     * @param renderMicros time from the frame's arrival to its display, or a negative value if it was dropped
+     */
+    default void frameConsumed(long renderMicros) {
+    }
+
+    /**
+     * Raw pixel frames, for backends that do not send encoded frames through the listener.
+     * @return null if this backend has no pixel frames, or they are not available yet
+     */
+    default PixelFrameSource openPixelFrames() throws IOException {
+        return null;
+    }
+}
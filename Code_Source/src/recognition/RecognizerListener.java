@@ -0,0 +1,36 @@
+package recognition;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Callbacks from a {@link Recognizer}. They run on the recognizer's own threads, never on the FX thread.
+ */
+public interface RecognizerListener {
+
+    /**
+     * @param jpeg an encoded frame, only valid for the duration of the call
+     * @param captureMicros when the frame was captured, in epoch microseconds, or 0 if unknown
+     */
+    void onEncodedFrame(ByteBuffer jpeg, long captureMicros);
+
+    void onPrediction(Prediction prediction);
+
+    /**
+     * @param edit a change to the translated text; apply edits in order to a {@link TranscriptBuffer},
+     *             which resynchronizes from the periodic snapshots if any are missed
+     */
+    void onTranscriptEdit(TranscriptEdit edit);
+
+    /** @param slot a committed class with its probabilities, sent just before the edit it makes */
+    void onCommittedSlot(CommittedSlot slot);
+
+    /** @param region the tracked hand box, or {@link HandRegion#NONE} when no hand is in view */
+    void onHandRegion(HandRegion region);
+
+    /** @param scores a frame's top classes before smoothing; only sent while an {@link EventLog} asks for them */
+    default void onFrameScores(FrameScores scores) {}
+
+    void onStatus(String message);
+
+    void onError(String title, String message);
+}
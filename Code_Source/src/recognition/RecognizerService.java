@@ -0,0 +1,274 @@
+package recognition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Application-scoped owner of the recognizer. The model stays loaded across scene changes:
+ * views attach to resume capture and detach to pause it. A health check restarts the
+ * recognizer if it dies, so a crash does not require leaving and re-entering the camera page.
+ * While a view is attached, what it receives is also written to the {@link EventLog}, if any.
+ */
+public class RecognizerService implements RecognizerListener {
+
+    private static final long HEALTH_CHECK_PERIOD_MS = 2000;
+    private static final int MAX_CONSECUTIVE_RESTARTS = 3;
+    // Errors the recognizers report when their process, connection or capture thread dies; the health check restarts them.
+    private static final Set<String> CRASH_ERRORS = Set.of("Python Script Error", "Process Monitoring Error",
+            "Error Reading Python Output", "Recognition Server", "Recognition Error");
+
+    private final Function<Boolean, Recognizer> factory;
+    private final ScheduledExecutorService healthExecutor;
+    private final Object lock = new Object();
+    private final EventLog eventLog;
+
+    private Recognizer recognizer;
+    private volatile RecognizerListener attached;
+    private boolean started;
+    private boolean shutDown;
+    private int consecutiveRestarts;
+    private long lastRestartMillis;
+
+    /** @param factory creates a recognizer; its argument says whether it should start paused */
+    public RecognizerService(Function<Boolean, Recognizer> factory) {
+        this(factory, null);
+    }
+
+    /** @param eventLog where attached sessions are logged, or null; closed by {@link #shutdown()} */
+    public RecognizerService(Function<Boolean, Recognizer> factory, EventLog eventLog) {
+        this.factory = factory;
+        this.eventLog = eventLog;
+        this.healthExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "recognizer-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static RecognizerService fromSystemProperties() {
+        return new RecognizerService(backendFromSystemProperties(), EventLog.fromSystemProperties());
+    }
+
+    /** @return a factory for the backend named by speakurhands.recognizer: python (default), onnx or server */
+    public static Function<Boolean, Recognizer> backendFromSystemProperties() {
+        String backend = System.getProperty("speakurhands.recognizer", "python");
+        if ("onnx".equals(backend)) {
+            return OnnxRecognizer::new;
+        }
+        if ("server".equals(backend)) {
+            return ServerRecognizer::new;
+        }
+        return PythonRecognizer::new;
+    }
+
+    /** Starts the recognizer paused, so the first attach only has to resume it. Safe to call from any thread. */
+    public void preload() {
+        synchronized (lock) {
+            if (started || shutDown) return;
+            started = true;
+            healthExecutor.scheduleWithFixedDelay(this::checkHealth, HEALTH_CHECK_PERIOD_MS, HEALTH_CHECK_PERIOD_MS, TimeUnit.MILLISECONDS);
+        }
+        healthExecutor.execute(() -> startRecognizer(attached == null));
+    }
+
+    public void attach(RecognizerListener listener) {
+        if (eventLog != null && attached == null) eventLog.sessionStarted();
+        attached = listener;
+        preload();
+        synchronized (lock) {
+            if (recognizer != null) {
+                recognizer.reset();
+                recognizer.resume();
+            }
+        }
+    }
+
+    public void detach(RecognizerListener listener) {
+        if (attached != listener) return;
+        attached = null;
+        synchronized (lock) {
+            if (recognizer != null) {
+                recognizer.pause();
+            }
+        }
+        if (eventLog != null) eventLog.sessionEnded();
+    }
+
+    /** Asks the running recognizer to replace the word being signed with the given word. */
+    public void acceptWord(String word) {
+        synchronized (lock) {
+            if (recognizer != null) {
+                recognizer.acceptWord(word);
+            }
+        }
+        if (eventLog != null && attached != null) eventLog.accepted(word);
+    }
+
+    /** Passes a shown or dropped frame on to the running recognizer; see {@link Recognizer#frameConsumed(long)}. */
+    public void frameConsumed(long renderMicros) {
+        Recognizer current;
+        synchronized (lock) {
+            current = recognizer;
+        }
+        if (current != null) {
+            current.frameConsumed(renderMicros);
+        }
+    }
+
+    public PixelFrameSource openPixelFrames() throws IOException {
+        Recognizer current;
+        synchronized (lock) {
+            current = recognizer;
+        }
+        return current == null ? null : current.openPixelFrames();
+    }
+
+    private void startRecognizer(boolean paused) {
+        Recognizer created = factory.apply(paused);
+        try {
+            created.start(this);
+        } catch (IOException e) {
+            onError("Recognizer Error", "Could not start recognizer: " + e.getMessage());
+            created.stop();
+            return;
+        }
+        synchronized (lock) {
+            if (shutDown) {
+                created.stop();
+                return;
+            }
+            recognizer = created;
+            // The view may have attached or detached while the recognizer was starting.
+            if (attached == null) {
+                created.pause();
+            } else {
+                created.resume();
+            }
+        }
+    }
+
+    private void checkHealth() {
+        Recognizer current;
+        synchronized (lock) {
+            if (shutDown) return;
+            current = recognizer;
+        }
+        if (current != null && current.isRunning()) {
+            if (System.currentTimeMillis() - lastRestartMillis > 60_000) {
+                consecutiveRestarts = 0;
+            }
+            return;
+        }
+        if (consecutiveRestarts >= MAX_CONSECUTIVE_RESTARTS) {
+            return;
+        }
+        consecutiveRestarts++;
+        lastRestartMillis = System.currentTimeMillis();
+        onStatus("Recognizer not running, restarting (attempt " + consecutiveRestarts + ")");
+        if (current != null) {
+            current.stop();
+        }
+        synchronized (lock) {
+            recognizer = null;
+        }
+        startRecognizer(attached == null);
+        Recognizer restarted;
+        synchronized (lock) {
+            restarted = recognizer;
+        }
+        if (consecutiveRestarts == MAX_CONSECUTIVE_RESTARTS && (restarted == null || !restarted.isRunning())) {
+            RecognizerListener listener = attached;
+            if (listener != null) {
+                listener.onError("Recognizer Error", "The recognizer keeps stopping and was not restarted.");
+            }
+        }
+    }
+
+    public void shutdown() {
+        Recognizer current;
+        synchronized (lock) {
+            shutDown = true;
+            current = recognizer;
+            recognizer = null;
+        }
+        healthExecutor.shutdownNow();
+        if (current != null) {
+            current.stop();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+        }
+    }
+
+    @Override
+    public void onEncodedFrame(ByteBuffer jpeg, long captureMicros) {
+        RecognizerListener listener = attached;
+        if (listener != null) listener.onEncodedFrame(jpeg, captureMicros);
+    }
+
+    @Override
+    public void onPrediction(Prediction prediction) {
+        RecognizerListener listener = attached;
+        if (listener == null) return;
+        if (eventLog != null) eventLog.prediction(prediction);
+        listener.onPrediction(prediction);
+    }
+
+    @Override
+    public void onTranscriptEdit(TranscriptEdit edit) {
+        RecognizerListener listener = attached;
+        if (listener == null) return;
+        if (eventLog != null) eventLog.edit(edit);
+        listener.onTranscriptEdit(edit);
+    }
+
+    @Override
+    public void onCommittedSlot(CommittedSlot slot) {
+        RecognizerListener listener = attached;
+        if (listener == null) return;
+        if (eventLog != null) eventLog.slot(slot);
+        listener.onCommittedSlot(slot);
+    }
+
+    @Override
+    public void onFrameScores(FrameScores scores) {
+        RecognizerListener listener = attached;
+        if (listener == null) return;
+        if (eventLog != null) eventLog.scores(scores);
+        listener.onFrameScores(scores);
+    }
+
+    @Override
+    public void onHandRegion(HandRegion region) {
+        RecognizerListener listener = attached;
+        if (listener != null) listener.onHandRegion(region);
+    }
+
+    @Override
+    public void onStatus(String message) {
+        // The one place recognizer status is logged, whether or not a view is attached.
+        System.err.println("Recognizer status: " + message);
+        RecognizerListener listener = attached;
+        if (listener != null) listener.onStatus(message);
+    }
+
+    @Override
+    public void onError(String title, String message) {
+        // Crashes are handled by the health check; only report them as status here.
+        if (CRASH_ERRORS.contains(title)) {
+            onStatus("Error - " + title + ": " + message);
+            return;
+        }
+        RecognizerListener listener = attached;
+        if (listener != null) {
+            listener.onError(title, message);
+        } else {
+            System.err.println("Recognizer error: " + title + ": " + message);
+        }
+    }
+}
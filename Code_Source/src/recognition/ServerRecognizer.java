@@ -0,0 +1,361 @@
+package recognition;
+
+import org.opencv.core.Core;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfByte;
+import org.opencv.core.MatOfInt;
+import org.opencv.core.Size;
+import org.opencv.imgcodecs.Imgcodecs;
+import org.opencv.imgproc.Imgproc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Thin client of recognition_server.py, for hosts where several app instances share one model.
+ * Frames are captured and shown in process like {@link OnnxRecognizer} does; a downscaled JPEG
+ * of up to speakurhands.server.fps frames per second goes to the server, which classifies the
+ * frames of all its clients in shared batches and answers with the usual binary protocol
+ * messages. Configure it with -Dspeakurhands.recognizer=server and
+ * -Dspeakurhands.server=host:port (default {@value #DEFAULT_ADDRESS}).
+ */
+public class ServerRecognizer implements Recognizer {
+
+    public static final String DEFAULT_ADDRESS = "127.0.0.1:5099";
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int JPEG_QUALITY = 80;
+    private static final long GATE_REPORT_INTERVAL_NANOS = 60_000_000_000L;
+    // How long the sender waits for a frame before checking for control messages again.
+    private static final long CONTROL_POLL_MS = 20;
+
+    /** A frame on its way to the server, with the stamps its TIMING message carries. */
+    private record OutgoingFrame(byte[] jpeg, long sequence, long captureMicros, long captureDurationMicros, long encodeMicros) {
+    }
+
+    private final String host;
+    private final int port;
+    private final double sendFps;
+    private final int frameWidth;
+    private final RecognitionSettings settings;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean paused = new AtomicBoolean(false);
+    // Holds only the newest frame: if the server or the network falls behind, older frames are dropped here.
+    private final BlockingQueue<OutgoingFrame> outgoing = new ArrayBlockingQueue<>(1);
+    // Control messages from the FX thread, written by the sender so a slow connection never blocks the UI.
+    private final BlockingQueue<String> controls = new LinkedBlockingQueue<>();
+
+    private RecognizerListener listener;
+    private Socket socket;
+    private DataOutputStream out;
+    private Thread captureThread;
+    private Thread senderThread;
+    private Thread readerThread;
+    private volatile PixelFrameExchange pixelFrames;
+    private long framesDropped;
+
+    public ServerRecognizer(boolean startPaused) {
+        this(System.getProperty("speakurhands.server", DEFAULT_ADDRESS),
+                Double.parseDouble(System.getProperty("speakurhands.server.fps", "10")),
+                Integer.getInteger("speakurhands.server.width", 320),
+                RecognitionSettings.fromSystemProperties());
+        paused.set(startPaused);
+    }
+
+    /**
+     * @param address    host:port of the recognition server
+     * @param sendFps    most frames per second sent for classification
+     * @param frameWidth width frames are scaled down to before encoding; the height keeps the aspect ratio
+     */
+    public ServerRecognizer(String address, double sendFps, int frameWidth, RecognitionSettings settings) {
+        int colon = address.lastIndexOf(':');
+        this.host = colon < 0 ? address : address.substring(0, colon);
+        this.port = colon < 0 ? 5099 : Integer.parseInt(address.substring(colon + 1));
+        this.sendFps = Math.max(0.1, sendFps);
+        this.frameWidth = Math.max(64, frameWidth);
+        this.settings = settings;
+    }
+
+    @Override
+    public void start(RecognizerListener listener) throws IOException {
+        this.listener = listener;
+        OnnxRecognizer.loadOpenCv();
+        socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            socket.setTcpNoDelay(true);
+        } catch (IOException e) {
+            socket.close();
+            throw new IOException("Cannot connect to the recognition server at " + host + ":" + port + ": " + e.getMessage(), e);
+        }
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        FramedMessageReader reader = new FramedMessageReader(new BufferedInputStream(socket.getInputStream(), 64 * 1024), 4096);
+        listener.onStatus("Connected to the recognition server at " + host + ":" + port + ".");
+        if (paused.get()) {
+            sendControl("PAUSE");
+        }
+
+        running.set(true);
+        readerThread = startThread(() -> readMessages(reader), "server-recognizer-reader");
+        senderThread = startThread(this::sendFrames, "server-recognizer-sender");
+        captureThread = startThread(this::captureLoop, "server-recognizer-capture");
+    }
+
+    private static Thread startThread(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get() && readerThread != null && readerThread.isAlive();
+    }
+
+    @Override
+    public void pause() {
+        paused.set(true);
+        outgoing.clear();
+        sendControl("PAUSE");
+    }
+
+    @Override
+    public void resume() {
+        paused.set(false);
+        sendControl("RESUME");
+    }
+
+    @Override
+    public void reset() {
+        sendControl("RESET");
+    }
+
+    @Override
+    public void acceptWord(String word) {
+        sendControl("ACCEPT " + word);
+    }
+
+    @Override
+    public PixelFrameSource openPixelFrames() {
+        return pixelFrames;
+    }
+
+    /**
+     * Queues a control message for the sender thread. If the connection is gone, the reader
+     * notices and the health check restarts the recognizer.
+     */
+    private void sendControl(String command) {
+        controls.add(command);
+    }
+
+    /** Only called by the sender thread. */
+    private void writeMessage(MessageType type, byte[] payload) throws IOException {
+        out.writeByte(type.getCode());
+        out.writeInt(payload.length);
+        out.write(payload);
+    }
+
+    private void readMessages(FramedMessageReader reader) {
+        FramedMessageDispatcher dispatcher = new FramedMessageDispatcher(listener);
+        try {
+            while (running.get() && reader.next()) {
+                // Frames are shown from the local camera; the server only sends results.
+                if (reader.type() != MessageType.FRAME) {
+                    dispatcher.dispatch(reader);
+                }
+            }
+            if (running.get()) {
+                listener.onError("Recognition Server", "The recognition server closed the connection.");
+            }
+        } catch (IOException e) {
+            if (running.get()) {
+                listener.onError("Recognition Server", "Lost the connection to the recognition server: " + e.getMessage());
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void sendFrames() {
+        try {
+            while (running.get()) {
+                // Controls go first, so a PAUSE is not held up behind the frame it should stop.
+                String command;
+                boolean wrote = false;
+                while ((command = controls.poll()) != null) {
+                    writeMessage(MessageType.CONTROL, command.getBytes(StandardCharsets.UTF_8));
+                    wrote = true;
+                }
+                OutgoingFrame frame = outgoing.poll(wrote ? 0 : CONTROL_POLL_MS, TimeUnit.MILLISECONDS);
+                if (frame != null) {
+                    ByteBuffer timing = ByteBuffer.allocate(25);
+                    timing.put((byte) StageTiming.KIND_FRAME).putLong(frame.sequence()).putLong(frame.captureMicros())
+                            .putInt((int) Math.min(frame.captureDurationMicros(), 0xFFFFFFFFL))
+                            .putInt((int) Math.min(frame.encodeMicros(), 0xFFFFFFFFL));
+                    writeMessage(MessageType.TIMING, timing.array());
+                    writeMessage(MessageType.FRAME, frame.jpeg());
+                    wrote = true;
+                }
+                if (wrote) {
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            if (running.get()) {
+                listener.onError("Recognition Server", "Could not send frames to the recognition server: " + e.getMessage());
+            }
+            running.set(false);
+        }
+    }
+
+    private void captureLoop() {
+        FrameSource capture;
+        try {
+            capture = settings.openFrameSource();
+        } catch (IOException | RuntimeException e) {
+            running.set(false);
+            listener.onError("Camera Error", "Cannot open frame source " + settings.getSource() + ": " + e.getMessage());
+            return;
+        }
+        if (!capture.isOpened()) {
+            running.set(false);
+            listener.onError("Camera Error", "Cannot open frame source " + capture.describe() + ".");
+            return;
+        }
+        listener.onStatus("Opened " + capture.describe() + ". Sending frames to the recognition server.");
+
+        Mat frame = new Mat();
+        Mat bgra = new Mat();
+        Mat small = new Mat();
+        MatOfByte jpeg = new MatOfByte();
+        MatOfInt jpegParams = new MatOfInt(Imgcodecs.IMWRITE_JPEG_QUALITY, JPEG_QUALITY);
+        byte[] pixels = null;
+        long sendIntervalNanos = (long) (1e9 / sendFps);
+        long lastSent = 0;
+        long frameIndex = 0;
+        MotionGate gate = settings.createMotionGate();
+        long lastGateReport = System.nanoTime();
+        PipelineMetrics metrics = PipelineMetrics.get();
+        try {
+            while (running.get()) {
+                if (paused.get()) {
+                    Thread.sleep(50);
+                    if (gate != null) {
+                        gate.reset();
+                    }
+                    continue;
+                }
+                long readStarted = System.nanoTime();
+                boolean grabbed = capture.read(frame);
+                long captureMicros = PipelineMetrics.nowMicros();
+                if (!grabbed) {
+                    if (capture.isExhausted()) {
+                        listener.onStatus("Frame source finished after " + frameIndex + " frames.");
+                        break;
+                    }
+                    listener.onStatus("Warning - Failed to grab frame. Retrying...");
+                    Thread.sleep(100);
+                    continue;
+                }
+                if (capture.isMirrored()) {
+                    Core.flip(frame, frame, 1);
+                }
+                frameIndex++;
+                long now = System.nanoTime();
+                long captureDuration = (now - readStarted) / 1000;
+                metrics.record(PipelineMetrics.Stage.CAPTURE, captureDuration);
+                if (gate != null) {
+                    gate.update(frame);
+                    if (now - lastGateReport >= GATE_REPORT_INTERVAL_NANOS) {
+                        listener.onStatus(gate.summary());
+                        lastGateReport = now;
+                    }
+                }
+
+                if (gate == null || gate.allowDisplay(now)) {
+                    PixelFrameExchange exchange = pixelFrames;
+                    if (exchange == null || exchange.getWidth() != frame.cols() || exchange.getHeight() != frame.rows()) {
+                        exchange = new PixelFrameExchange(frame.cols(), frame.rows());
+                        pixels = new byte[exchange.getFrameSize()];
+                        pixelFrames = exchange;
+                    }
+                    Imgproc.cvtColor(frame, bgra, Imgproc.COLOR_BGR2BGRA);
+                    bgra.get(0, 0, pixels);
+                    exchange.beginWrite().put(pixels);
+                    exchange.commitWrite(captureMicros);
+                }
+
+                if ((gate == null || gate.allowInference()) && now - lastSent >= sendIntervalNanos) {
+                    long encodeStarted = System.nanoTime();
+                    double scale = Math.min(1.0, frameWidth / (double) frame.cols());
+                    Imgproc.resize(frame, small, new Size(Math.round(frame.cols() * scale), Math.round(frame.rows() * scale)),
+                            0, 0, Imgproc.INTER_AREA);
+                    Imgcodecs.imencode(".jpg", small, jpeg, jpegParams);
+                    long encodeMicros = (System.nanoTime() - encodeStarted) / 1000;
+                    metrics.record(PipelineMetrics.Stage.ENCODE, encodeMicros);
+                    OutgoingFrame outgoingFrame = new OutgoingFrame(jpeg.toArray(), frameIndex, captureMicros, captureDuration, encodeMicros);
+                    if (!outgoing.offer(outgoingFrame)) {
+                        outgoing.poll();
+                        outgoing.offer(outgoingFrame);
+                        framesDropped++;
+                    }
+                    lastSent = now;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            if (running.get()) {
+                listener.onError("Camera Error", "Capture failed: " + e.getMessage());
+            }
+        } finally {
+            capture.release();
+            frame.release();
+            bgra.release();
+            small.release();
+            jpeg.release();
+            if (gate != null) {
+                gate.release();
+            }
+            if (framesDropped > 0) {
+                listener.onStatus(framesDropped + " frames were replaced by newer ones before they could be sent to the server.");
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running.set(false);
+        for (Thread thread : new Thread[] {captureThread, senderThread}) {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+        try {
+            if (socket != null) socket.close();
+        } catch (IOException ignored) {}
+        for (Thread thread : new Thread[] {captureThread, senderThread, readerThread}) {
+            if (thread != null) {
+                try {
+                    thread.join(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
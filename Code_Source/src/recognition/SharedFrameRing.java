@@ -0,0 +1,162 @@
+package recognition;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read side of the memory-mapped frame ring written by shared_frame_ring.py.
+ * Slots hold raw BGRA pixels bracketed by sequence counters; a copy is only
+ * accepted if both counters still match the sequence that was requested.
+ */
+public class SharedFrameRing implements Closeable, PixelFrameSource {
+
+    public static final int MAGIC = 0x52485553;
+    public static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_HEADER_SIZE = 64;
+    private static final int LATEST_SEQ_OFFSET = 32;
+    private static final int SLOT_SEQ_END_OFFSET = 16;
+    // The writer pads slots to this, so the acquire reads of their sequence counters are aligned.
+    private static final int SLOT_ALIGNMENT = 8;
+    private static final int MAX_READ_ATTEMPTS = 3;
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int slotCount;
+    private final int width;
+    private final int height;
+    private final int channels;
+    private final long slotSize;
+    // Frames are validated here before reaching the caller's buffer, which may be a live PixelBuffer.
+    private ByteBuffer scratch;
+    private long lastTimestampMicros;
+    private long tornReads;
+
+    private SharedFrameRing(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotCount = buffer.getInt(8);
+        this.width = buffer.getInt(12);
+        this.height = buffer.getInt(16);
+        this.channels = buffer.getInt(20);
+        this.slotSize = buffer.getLong(24);
+    }
+
+    /**
+     * Maps the ring once the producer has finished writing its header.
+     * @return null while the file does not exist or is not initialised yet
+     */
+    public static SharedFrameRing tryOpen(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+            return null;
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != MAGIC) {
+                channel.close();
+                return null;
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported frame ring version: " + header.getInt(4));
+            }
+            long slotSize = header.getLong(24);
+            if (slotSize % SLOT_ALIGNMENT != 0) {
+                throw new IOException("Frame ring slots of " + slotSize + " bytes are not " + SLOT_ALIGNMENT + "-byte aligned");
+            }
+            long total = HEADER_SIZE + slotSize * header.getInt(8);
+            if (channel.size() < total) {
+                channel.close();
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, total);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return new SharedFrameRing(channel, mapped);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getFrameSize() {
+        return width * height * channels;
+    }
+
+    @Override
+    public long latestSequence() {
+        return (long) LONG_VIEW.getAcquire(buffer, LATEST_SEQ_OFFSET);
+    }
+
+    @Override
+    public long getLastTimestampMicros() {
+        return lastTimestampMicros;
+    }
+
+    public long getTornReads() {
+        return tornReads;
+    }
+
+    /**
+     * Copies the newest complete frame into target (BGRA, width * height * 4 bytes); target is
+     * left untouched unless a frame passed the sequence check.
+     * @return the sequence number of the copied frame, or -1 if no consistent frame could be read
+     */
+    @Override
+    public long readLatest(ByteBuffer target) {
+        for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            long sequence = latestSequence();
+            if (sequence == 0) {
+                return -1;
+            }
+            int slotOffset = (int) (HEADER_SIZE + (sequence % slotCount) * slotSize);
+            if ((long) LONG_VIEW.getAcquire(buffer, slotOffset) != sequence) {
+                tornReads++;
+                continue;
+            }
+            long timestamp = buffer.getLong(slotOffset + 8);
+            int frameSize = getFrameSize();
+            if (scratch == null) {
+                scratch = ByteBuffer.allocateDirect(frameSize);
+            }
+            scratch.put(0, buffer, slotOffset + SLOT_HEADER_SIZE, frameSize);
+            VarHandle.fullFence();
+            if ((long) LONG_VIEW.getAcquire(buffer, slotOffset) == sequence
+                    && (long) LONG_VIEW.getAcquire(buffer, slotOffset + SLOT_SEQ_END_OFFSET) == sequence) {
+                target.clear();
+                target.put(target.position(), scratch, 0, frameSize);
+                lastTimestampMicros = timestamp;
+                return sequence;
+            }
+            tornReads++;
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
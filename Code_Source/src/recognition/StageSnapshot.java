@@ -0,0 +1,74 @@
+package recognition;
+
+/**
+ * Percentiles of one pipeline stage at the time of the snapshot. Exposed over JMX as composite data.
+ */
+public class StageSnapshot {
+
+    private final String name;
+    private final String unit;
+    private final long count;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    public StageSnapshot(String name, String unit, LatencyHistogram histogram) {
+        this.name = name;
+        this.unit = unit;
+        this.count = histogram.getCount();
+        this.mean = histogram.getMean();
+        this.p50 = histogram.getValueAtPercentile(50);
+        this.p90 = histogram.getValueAtPercentile(90);
+        this.p99 = histogram.getValueAtPercentile(99);
+        this.p999 = histogram.getValueAtPercentile(99.9);
+        this.max = histogram.getMax();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        if ("us".equals(unit)) {
+            return String.format("%-16s n=%-7d p50=%6.1fms p99=%6.1fms max=%6.1fms",
+                    name, count, p50 / 1000.0, p99 / 1000.0, max / 1000.0);
+        }
+        return String.format("%-16s n=%-7d p50=%6d p99=%6d max=%6d %s", name, count, p50, p99, max, unit);
+    }
+}
@@ -0,0 +1,22 @@
+package recognition;
+
+/**
+ * Per-frame timing sent by asl_recognition.py just before the FRAME or PREDICTION it describes.
+ * For frames the two stage durations are capture and encode; for predictions, batch wait and inference.
+ */
+public record StageTiming(int kind, long sequence, long captureMicros, long firstStageMicros, long secondStageMicros) {
+
+    public static final int KIND_FRAME = 1;
+    public static final int KIND_PREDICTION = 2;
+
+    /** Records the stage durations carried by this timing. */
+    public void recordTo(PipelineMetrics metrics) {
+        if (kind == KIND_FRAME) {
+            metrics.record(PipelineMetrics.Stage.CAPTURE, firstStageMicros);
+            metrics.record(PipelineMetrics.Stage.ENCODE, secondStageMicros);
+        } else if (kind == KIND_PREDICTION) {
+            metrics.record(PipelineMetrics.Stage.BATCH_WAIT, firstStageMicros);
+            metrics.record(PipelineMetrics.Stage.INFERENCE, secondStageMicros);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package recognition;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Parses the legacy line protocol of asl_recognition.py (--protocol text): KEY:value lines,
+ * with frames as Base64-encoded JPEG. Holds the TIMING line that precedes a frame or
+ * prediction until that message arrives, so one parser is needed per stream.
+ */
+public final class TextMessageParser {
+
+    private final RecognizerListener listener;
+    private final PipelineMetrics metrics;
+    private StageTiming pendingTiming;
+
+    public TextMessageParser(RecognizerListener listener) {
+        this(listener, PipelineMetrics.get());
+    }
+
+    public TextMessageParser(RecognizerListener listener, PipelineMetrics metrics) {
+        this.listener = listener;
+        this.metrics = metrics;
+    }
+
+    /** Dispatches one line to the listener; unknown or malformed lines are ignored. */
+    public void parse(String line) {
+        String[] parts = line.split(":", 2);
+        if (parts.length != 2) return;
+
+        String key = parts[0].trim();
+        String value = parts[1].trim();
+
+        switch (key) {
+            case "FRAME_B64":
+                StageTiming frameTiming = takeTiming(StageTiming.KIND_FRAME);
+                metrics.frameArrived(frameTiming);
+                try {
+                    listener.onEncodedFrame(ByteBuffer.wrap(Base64.getDecoder().decode(value)),
+                            frameTiming == null ? 0 : frameTiming.captureMicros());
+                } catch (IllegalArgumentException e) {
+                    listener.onError("Image Display Error", "Could not decode frame: " + e.getMessage());
+                }
+                break;
+            case "PREDICTION":
+                StageTiming predictionTiming = takeTiming(StageTiming.KIND_PREDICTION);
+                metrics.predictionReceived();
+                listener.onPrediction(new Prediction(value, Float.NaN,
+                        predictionTiming == null ? 0 : predictionTiming.captureMicros()));
+                break;
+            // An edit or snapshot may end in a space, so these are parsed from the untrimmed line.
+            case "EDIT":
+                TranscriptEdit edit = TranscriptEdit.parseEdit(parts[1].stripLeading());
+                if (edit != null) listener.onTranscriptEdit(edit);
+                break;
+            case "SNAPSHOT":
+                TranscriptEdit snapshot = TranscriptEdit.parseSnapshot(parts[1].stripLeading());
+                if (snapshot != null) listener.onTranscriptEdit(snapshot);
+                break;
+            case "SLOT":
+                CommittedSlot slot = CommittedSlot.parse(value);
+                if (slot != null) listener.onCommittedSlot(slot);
+                break;
+            case "TRANSLATION":
+                listener.onTranscriptEdit(TranscriptEdit.snapshot(-1, value));
+                break;
+            case "HAND_REGION":
+                listener.onHandRegion(parseHandRegion(value));
+                break;
+            case "SCORES":
+                FrameScores scores = FrameScores.parse(value);
+                if (scores != null) listener.onFrameScores(scores);
+                break;
+            case "FLOW":
+                FrameFlowStatus flow = FrameFlowStatus.parse(value);
+                if (flow != null) flow.recordTo(metrics);
+                break;
+            case "TIMING":
+                pendingTiming = parseTiming(value);
+                if (pendingTiming != null) {
+                    pendingTiming.recordTo(metrics);
+                }
+                break;
+        }
+    }
+
+    private StageTiming takeTiming(int kind) {
+        StageTiming timing = pendingTiming;
+        pendingTiming = null;
+        return timing != null && timing.kind() == kind ? timing : null;
+    }
+
+    private static HandRegion parseHandRegion(String value) {
+        String[] fields = value.split(",");
+        if (fields.length != 6) return HandRegion.NONE;
+        try {
+            HandRegion region = new HandRegion(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                    Integer.parseInt(fields[4]), Integer.parseInt(fields[5]));
+            return region.isEmpty() ? HandRegion.NONE : region;
+        } catch (NumberFormatException e) {
+            return HandRegion.NONE;
+        }
+    }
+
+    private static StageTiming parseTiming(String value) {
+        String[] fields = value.split(",");
+        if (fields.length != 5) return null;
+        try {
+            return new StageTiming(Integer.parseInt(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    Long.parseLong(fields[3]), Long.parseLong(fields[4]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package recognition;
+
+import java.util.Arrays;
+
+/**
+ * Receiver-side copy of the translated text, kept in a gap buffer and updated from
+ * {@link TranscriptEdit}s. Edits happen at the cursor, which stays at the end of the text
+ * unless moved, so each append or delete is O(1) however long the session runs.
+ *
+ * An edit whose sequence number does not follow the last one applied means edits were lost;
+ * the buffer then ignores edits until the next snapshot resynchronizes it. Not thread-safe.
+ */
+public class TranscriptBuffer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private char[] chars = new char[INITIAL_CAPACITY];
+    private int gapStart;
+    private int gapEnd = INITIAL_CAPACITY;
+    private long sequence = -1;
+    private boolean synced = true;
+    private long missedEdits;
+
+    /**
+     * Applies an edit or snapshot.
+     * @return false if the edit was ignored because the buffer is waiting for a snapshot
+     */
+    public boolean apply(TranscriptEdit edit) {
+        if (edit.kind() == TranscriptEdit.Kind.SNAPSHOT) {
+            setText(edit.text());
+            sequence = edit.sequence();
+            synced = true;
+            return true;
+        }
+        if (synced && sequence >= 0 && edit.sequence() != sequence + 1) {
+            synced = false;
+        }
+        if (!synced) {
+            missedEdits++;
+            return false;
+        }
+        if (edit.kind() == TranscriptEdit.Kind.APPEND) {
+            insert(edit.character());
+        } else {
+            deleteBefore();
+        }
+        sequence = edit.sequence();
+        return true;
+    }
+
+    public void insert(char c) {
+        if (gapStart == gapEnd) {
+            grow();
+        }
+        chars[gapStart++] = c;
+    }
+
+    /** Deletes the character before the cursor, if there is one. */
+    public void deleteBefore() {
+        if (gapStart > 0) {
+            gapStart--;
+        }
+    }
+
+    /** Moves the cursor, and with it the gap, to a position between 0 and {@link #length()}. */
+    public void moveCursor(int position) {
+        if (position < 0 || position > length()) {
+            throw new IndexOutOfBoundsException(position);
+        }
+        if (position < gapStart) {
+            int count = gapStart - position;
+            System.arraycopy(chars, position, chars, gapEnd - count, count);
+            gapStart -= count;
+            gapEnd -= count;
+        } else if (position > gapStart) {
+            int count = position - gapStart;
+            System.arraycopy(chars, gapEnd, chars, gapStart, count);
+            gapStart += count;
+            gapEnd += count;
+        }
+    }
+
+    private void grow() {
+        int tail = chars.length - gapEnd;
+        char[] grown = Arrays.copyOf(chars, chars.length * 2);
+        System.arraycopy(chars, gapEnd, grown, grown.length - tail, tail);
+        gapEnd = grown.length - tail;
+        chars = grown;
+    }
+
+    private void setText(String text) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < text.length() + 1) {
+            capacity *= 2;
+        }
+        if (chars.length < capacity) {
+            chars = new char[capacity];
+        }
+        text.getChars(0, text.length(), chars, 0);
+        gapStart = text.length();
+        gapEnd = chars.length;
+    }
+
+    public int length() {
+        return chars.length - (gapEnd - gapStart);
+    }
+
+    public char charAt(int index) {
+        return index < gapStart ? chars[index] : chars[index + gapEnd - gapStart];
+    }
+
+    /** @return the last {@code max} characters; copying them costs O(max), not O(length) */
+    public String tail(int max) {
+        int length = length();
+        int start = Math.max(0, length - max);
+        StringBuilder text = new StringBuilder(length - start);
+        for (int i = start; i < length; i++) {
+            text.append(charAt(i));
+        }
+        return text.toString();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    /** @return false while edits are being ignored until the next snapshot */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    public long getMissedEdits() {
+        return missedEdits;
+    }
+
+    public void clear() {
+        gapStart = 0;
+        gapEnd = chars.length;
+        sequence = -1;
+        synced = true;
+    }
+
+    @Override
+    public String toString() {
+        return tail(length());
+    }
+}
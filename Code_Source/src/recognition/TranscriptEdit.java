@@ -0,0 +1,59 @@
+package recognition;
+
+/**
+ * One change to the translated text, numbered so a receiver can tell when it missed one.
+ * A snapshot carries the full text and the sequence number of the last edit it contains;
+ * a sequence number below 0 marks an unnumbered snapshot, such as a legacy TRANSLATION message.
+ */
+public record TranscriptEdit(long sequence, Kind kind, char character, String text) {
+
+    public enum Kind {
+        APPEND,
+        DELETE,
+        SNAPSHOT
+    }
+
+    public static TranscriptEdit append(long sequence, char character) {
+        return new TranscriptEdit(sequence, Kind.APPEND, character, null);
+    }
+
+    public static TranscriptEdit delete(long sequence) {
+        return new TranscriptEdit(sequence, Kind.DELETE, '\0', null);
+    }
+
+    public static TranscriptEdit snapshot(long sequence, String text) {
+        return new TranscriptEdit(sequence, Kind.SNAPSHOT, '\0', text);
+    }
+
+    /**
+     * Parses the value of a text protocol EDIT line: "sequence,+c" or "sequence,-".
+     * @return the edit, or null if the value is malformed
+     */
+    public static TranscriptEdit parseEdit(String value) {
+        int comma = value.indexOf(',');
+        if (comma < 0 || comma + 1 >= value.length()) return null;
+        try {
+            long sequence = Long.parseLong(value.substring(0, comma));
+            char op = value.charAt(comma + 1);
+            if (op == '-') return delete(sequence);
+            if (op == '+' && comma + 2 < value.length()) return append(sequence, value.charAt(comma + 2));
+            return null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the value of a text protocol SNAPSHOT line: "sequence,text".
+     * @return the snapshot, or null if the value is malformed
+     */
+    public static TranscriptEdit parseSnapshot(String value) {
+        int comma = value.indexOf(',');
+        if (comma < 0) return null;
+        try {
+            return snapshot(Long.parseLong(value.substring(0, comma)), value.substring(comma + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
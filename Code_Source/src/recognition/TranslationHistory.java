@@ -0,0 +1,97 @@
+package recognition;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Java port of the Transcript class in transcript.py, used by in-process backends. Each
+ * committed prediction is turned into a numbered {@link TranscriptEdit} in constant time,
+ * and a snapshot falls due every {@link #SNAPSHOT_EVERY} edits or {@link #SNAPSHOT_INTERVAL_NANOS}.
+ */
+public class TranslationHistory {
+
+    public static final int SNAPSHOT_EVERY = 64;
+    public static final long SNAPSHOT_INTERVAL_NANOS = 10_000_000_000L;
+
+    private final StringBuilder text = new StringBuilder();
+    // lastLetters.charAt(i) is the last non-space character of text up to and including i.
+    private final StringBuilder lastLetters = new StringBuilder();
+    private long sequence;
+    private int editsSinceSnapshot;
+    private long lastSnapshot = System.nanoTime();
+
+    /** @return the edit the prediction makes, or null if it leaves the text unchanged */
+    public TranscriptEdit apply(String prediction) {
+        if (AslClasses.DELETE.equals(prediction)) {
+            if (text.length() == 0) {
+                return null;
+            }
+            text.setLength(text.length() - 1);
+            lastLetters.setLength(lastLetters.length() - 1);
+            return TranscriptEdit.delete(nextSequence());
+        } else if (AslClasses.SPACE.equals(prediction)) {
+            if (text.length() > 0 && text.charAt(text.length() - 1) == ' ') {
+                return null;
+            }
+            return push(' ');
+        } else if (AslClasses.NOTHING.equals(prediction) || prediction.isEmpty()) {
+            return null;
+        }
+        char letter = prediction.charAt(0);
+        if (lastLetters.length() > 0 && lastLetters.charAt(lastLetters.length() - 1) == letter) {
+            return null;
+        }
+        return push(letter);
+    }
+
+    /** Replaces the word being signed, everything after the last space, with the word and a space; port of accept_word(). */
+    public List<TranscriptEdit> acceptWord(String word) {
+        List<TranscriptEdit> edits = new ArrayList<>();
+        while (text.length() > 0 && text.charAt(text.length() - 1) != ' ') {
+            text.setLength(text.length() - 1);
+            lastLetters.setLength(lastLetters.length() - 1);
+            edits.add(TranscriptEdit.delete(nextSequence()));
+        }
+        for (char c : word.toUpperCase().toCharArray()) {
+            if (c != ' ') {
+                edits.add(push(c));
+            }
+        }
+        edits.add(push(' '));
+        return edits;
+    }
+
+    private TranscriptEdit push(char c) {
+        char previous = lastLetters.length() > 0 ? lastLetters.charAt(lastLetters.length() - 1) : ' ';
+        text.append(c);
+        lastLetters.append(c == ' ' ? previous : c);
+        return TranscriptEdit.append(nextSequence(), c);
+    }
+
+    private long nextSequence() {
+        editsSinceSnapshot++;
+        return ++sequence;
+    }
+
+    public boolean isSnapshotDue() {
+        return editsSinceSnapshot > 0 && (editsSinceSnapshot >= SNAPSHOT_EVERY
+                || System.nanoTime() - lastSnapshot >= SNAPSHOT_INTERVAL_NANOS);
+    }
+
+    /** @return the full text, numbered with the last edit it contains; restarts the snapshot schedule */
+    public TranscriptEdit snapshot() {
+        editsSinceSnapshot = 0;
+        lastSnapshot = System.nanoTime();
+        return TranscriptEdit.snapshot(sequence, text.toString());
+    }
+
+    public String getText() {
+        return text.toString();
+    }
+
+    /** Clears the text. Sequence numbers keep counting, so the next snapshot replaces the old text. */
+    public void clear() {
+        text.setLength(0);
+        lastLetters.setLength(0);
+    }
+}
@@ -0,0 +1,74 @@
+package recognition;
+
+import org.opencv.core.Mat;
+import org.opencv.videoio.VideoCapture;
+import org.opencv.videoio.Videoio;
+
+/**
+ * Replays a video file, in real time at the file's frame rate or as fast as it decodes.
+ */
+public class VideoFileFrameSource implements FrameSource {
+
+    private final String path;
+    private final boolean loop;
+    private final VideoCapture capture;
+    private final FramePacer pacer;
+    private boolean exhausted;
+
+    public VideoFileFrameSource(String path, boolean realtime, double fps, boolean loop) {
+        this.path = path;
+        this.loop = loop;
+        this.capture = new VideoCapture(path);
+        double fileFps = capture.isOpened() ? capture.get(Videoio.CAP_PROP_FPS) : 0;
+        this.pacer = new FramePacer(realtime, fps > 0 ? fps : fileFps > 0 ? fileFps : 30);
+    }
+
+    @Override
+    public boolean isOpened() {
+        return capture.isOpened();
+    }
+
+    @Override
+    public boolean read(Mat frame) {
+        try {
+            pacer.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        boolean read = capture.read(frame) && !frame.empty();
+        if (!read && loop) {
+            capture.set(Videoio.CAP_PROP_POS_FRAMES, 0);
+            read = capture.read(frame) && !frame.empty();
+        }
+        if (!read) {
+            exhausted = true;
+        }
+        return read;
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public boolean isMirrored() {
+        return false;
+    }
+
+    @Override
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    @Override
+    public String describe() {
+        return "video " + path;
+    }
+
+    @Override
+    public void release() {
+        capture.release();
+    }
+}
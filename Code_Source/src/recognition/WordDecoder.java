@@ -0,0 +1,245 @@
+package recognition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Decodes the word being signed from the committed slots, using each slot's whole probability
+ * vector rather than only its letter, and suggests the words it most likely becomes.
+ *
+ * A beam of up to {@code beamWidth} prefixes of the {@link Lexicon} is kept per slot, ranked by
+ * the log probability of their letters plus {@code lmWeight} times the log probability of the
+ * best word each prefix can still become. A misread letter therefore only costs its runner-up's
+ * probability instead of the word. 'del' steps back one slot, 'space' ends the word and 'nothing'
+ * is ignored. Since the translation collapses a repeated letter, one slot may also stand for a
+ * double letter, as in "HELLO". Each step costs about beamWidth x 26 x 2 trie lookups whatever
+ * the size of the lexicon; completions are found best-first using the subtree maxima the
+ * lexicon stores. Not thread-safe.
+ */
+public class WordDecoder {
+
+    public static final int DEFAULT_BEAM_WIDTH = 16;
+    public static final float DEFAULT_LM_WEIGHT = 1.0f;
+    /** Floor for a letter's probability, so one badly misread slot costs a bounded penalty instead of ruling a word out. */
+    private static final float MIN_PROBABILITY = 1e-3f;
+    /** Log penalty for taking one slot as a double letter. */
+    private static final float DOUBLE_LETTER_PENALTY = (float) Math.log(0.5);
+    /** Upper bound on trie nodes expanded per call to {@link #completions(int)}. */
+    private static final int MAX_EXPANSIONS = 4096;
+
+    /** A suggested word and its log score; higher is more likely. */
+    public record Candidate(String word, float score) {
+    }
+
+    /** A lexicon prefix reached by the slots so far, with the log probability of their letters. */
+    private record Hypothesis(int node, String prefix, float acoustic) {
+    }
+
+    /** A node or word waiting in the best-first completion search; its text is rebuilt from the parent chain. */
+    private record Entry(int node, Entry parent, String prefix, int depth, float acoustic, float rank, boolean word) {
+
+        String text(Lexicon lexicon) {
+            StringBuilder text = new StringBuilder();
+            Entry entry = this;
+            while (entry.parent != null) {
+                text.append((char) ('A' + lexicon.letter(entry.node)));
+                entry = entry.parent;
+            }
+            return entry.prefix + text.reverse();
+        }
+    }
+
+    private final Lexicon lexicon;
+    private final int beamWidth;
+    private final float lmWeight;
+    private final int[] letterClasses = new int[26];
+    private final float[] letterScores = new float[26];
+    private final Hypothesis[] rootBeam;
+    private final Deque<Hypothesis[]> steps = new ArrayDeque<>();
+
+    // The next beam while it is being built, sorted by rank, best first.
+    private final int[] nextNodes;
+    private final Hypothesis[] nextParents;
+    private final int[] nextLetters;
+    private final float[] nextAcoustic;
+    private final float[] nextRanks;
+    private int nextSize;
+
+    public WordDecoder(Lexicon lexicon) {
+        this(lexicon, DEFAULT_BEAM_WIDTH, DEFAULT_LM_WEIGHT);
+    }
+
+    public WordDecoder(Lexicon lexicon, int beamWidth, float lmWeight) {
+        this.lexicon = lexicon;
+        this.beamWidth = Math.max(1, beamWidth);
+        this.lmWeight = lmWeight;
+        for (int letter = 0; letter < 26; letter++) {
+            letterClasses[letter] = AslClasses.NAMES.indexOf(String.valueOf((char) ('A' + letter)));
+        }
+        rootBeam = new Hypothesis[] {new Hypothesis(Lexicon.ROOT, "", 0f)};
+        nextNodes = new int[this.beamWidth];
+        nextParents = new Hypothesis[this.beamWidth];
+        nextLetters = new int[this.beamWidth];
+        nextAcoustic = new float[this.beamWidth];
+        nextRanks = new float[this.beamWidth];
+    }
+
+    /** Adds one committed slot: a letter extends the word, 'del' steps back, 'space' starts a new word. */
+    public void update(CommittedSlot slot) {
+        String label = slot.label();
+        if (AslClasses.DELETE.equals(label)) {
+            steps.poll();
+            return;
+        }
+        if (AslClasses.SPACE.equals(label)) {
+            reset();
+            return;
+        }
+        if (AslClasses.NOTHING.equals(label)) {
+            return;
+        }
+        scoreLetters(slot.probabilities());
+        Hypothesis[] beam = steps.isEmpty() ? rootBeam : steps.peek();
+        nextSize = 0;
+        for (Hypothesis hypothesis : beam) {
+            int first = lexicon.firstChild(hypothesis.node());
+            int end = first + lexicon.childCount(hypothesis.node());
+            for (int child = first; child < end; child++) {
+                int letter = lexicon.letter(child);
+                float acoustic = hypothesis.acoustic() + letterScores[letter];
+                offer(child, hypothesis, 1, acoustic);
+                int doubled = lexicon.child(child, letter);
+                if (doubled != Lexicon.NO_NODE) {
+                    offer(doubled, hypothesis, 2, acoustic + DOUBLE_LETTER_PENALTY);
+                }
+            }
+        }
+        Hypothesis[] next = new Hypothesis[nextSize];
+        for (int i = 0; i < nextSize; i++) {
+            Hypothesis parent = nextParents[i];
+            String letter = String.valueOf((char) ('A' + lexicon.letter(nextNodes[i])));
+            next[i] = new Hypothesis(nextNodes[i], parent.prefix() + letter.repeat(nextLetters[i]), nextAcoustic[i]);
+        }
+        steps.push(next);
+    }
+
+    /** Turns the slot's letter probabilities into log probabilities renormalized over the 26 letters. */
+    private void scoreLetters(float[] probabilities) {
+        float sum = 0f;
+        for (int letter = 0; letter < 26; letter++) {
+            sum += Math.max(0f, probabilities[letterClasses[letter]]);
+        }
+        for (int letter = 0; letter < 26; letter++) {
+            float probability = sum > 0f ? Math.max(0f, probabilities[letterClasses[letter]]) / sum : 1f / 26;
+            letterScores[letter] = (float) Math.log(Math.max(probability, MIN_PROBABILITY));
+        }
+    }
+
+    /**
+     * Inserts a candidate into the next beam if it ranks among the best {@code beamWidth}. A node
+     * reached twice, once as a single and once as a double letter, keeps only its better entry.
+     */
+    private void offer(int node, Hypothesis parent, int letters, float acoustic) {
+        float rank = acoustic + lmWeight * lexicon.bestScore(node);
+        if (nextSize == beamWidth && rank <= nextRanks[nextSize - 1]) {
+            return;
+        }
+        int position = nextSize == beamWidth ? beamWidth - 1 : nextSize;
+        for (int i = 0; i < nextSize; i++) {
+            if (nextNodes[i] == node) {
+                if (nextRanks[i] >= rank) {
+                    return;
+                }
+                position = i;
+                break;
+            }
+        }
+        if (position == nextSize) {
+            nextSize++;
+        }
+        while (position > 0 && nextRanks[position - 1] < rank) {
+            nextNodes[position] = nextNodes[position - 1];
+            nextParents[position] = nextParents[position - 1];
+            nextLetters[position] = nextLetters[position - 1];
+            nextAcoustic[position] = nextAcoustic[position - 1];
+            nextRanks[position] = nextRanks[position - 1];
+            position--;
+        }
+        nextNodes[position] = node;
+        nextParents[position] = parent;
+        nextLetters[position] = letters;
+        nextAcoustic[position] = acoustic;
+        nextRanks[position] = rank;
+    }
+
+    /**
+     * @return up to {@code max} distinct words the current prefixes can become, most likely first;
+     *         empty at the start of a word or when no lexicon word fits the slots
+     */
+    public List<Candidate> completions(int max) {
+        Hypothesis[] beam = steps.peek();
+        if (beam == null || beam.length == 0 || max <= 0) {
+            return Collections.emptyList();
+        }
+        // Every word in a subtree scores at most the subtree's best, so words come out in order. Among
+        // equal ranks, finished words and then deeper nodes go first, which heads straight for the word
+        // a rank came from instead of widening the search across every subtree with the same score.
+        PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> {
+            int byRank = Float.compare(b.rank(), a.rank());
+            if (byRank != 0) return byRank;
+            if (a.word() != b.word()) return a.word() ? -1 : 1;
+            return Integer.compare(b.depth(), a.depth());
+        });
+        for (Hypothesis hypothesis : beam) {
+            queue.add(new Entry(hypothesis.node(), null, hypothesis.prefix(), 0, hypothesis.acoustic(),
+                    hypothesis.acoustic() + lmWeight * lexicon.bestScore(hypothesis.node()), false));
+        }
+        List<Candidate> candidates = new ArrayList<>(max);
+        Set<String> seen = new HashSet<>();
+        int expansions = 0;
+        while (!queue.isEmpty() && candidates.size() < max && expansions < MAX_EXPANSIONS) {
+            Entry entry = queue.poll();
+            if (entry.word()) {
+                String word = entry.text(lexicon);
+                if (seen.add(word)) {
+                    candidates.add(new Candidate(word, entry.rank()));
+                }
+                continue;
+            }
+            expansions++;
+            int node = entry.node();
+            float acoustic = entry.acoustic();
+            if (lexicon.isWord(node)) {
+                queue.add(new Entry(node, entry.parent(), entry.prefix(), entry.depth(), acoustic, acoustic + lmWeight * lexicon.wordScore(node), true));
+            }
+            int first = lexicon.firstChild(node);
+            int end = first + lexicon.childCount(node);
+            for (int child = first; child < end; child++) {
+                queue.add(new Entry(child, entry, null, entry.depth() + 1, acoustic, acoustic + lmWeight * lexicon.bestScore(child), false));
+            }
+        }
+        return candidates;
+    }
+
+    /** @return the most likely prefix of the word being signed, or "" at the start of a word */
+    public String bestPrefix() {
+        Hypothesis[] beam = steps.peek();
+        return beam == null || beam.length == 0 ? "" : beam[0].prefix();
+    }
+
+    /** @return the number of letter slots in the word being signed */
+    public int depth() {
+        return steps.size();
+    }
+
+    /** Forgets the word being signed, as after a space or an accepted suggestion. */
+    public void reset() {
+        steps.clear();
+    }
+}
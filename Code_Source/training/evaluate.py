@@ -0,0 +1,287 @@
+import os
+os.environ['TF_CPP_MIN_LOG_LEVEL'] = '2'
+import argparse
+import csv
+import json
+import time
+from collections import deque
+from concurrent.futures import ThreadPoolExecutor
+
+import cv2
+import numpy as np
+import tensorflow as tf
+
+from pack_shards import PackedImages
+
+# Configuration
+ROOT_DIR = os.getcwd()
+IMG_SIZE = (128, 128)
+CLASS_NAMES = [chr(i) for i in range(ord('A'), ord('Z') + 1)] + ['nothing', 'del', 'space']
+KERAS_MODEL = os.path.join(ROOT_DIR, 'best_model.keras')
+DATA_CSV = os.path.join(ROOT_DIR, 'train_verified.csv')
+IMAGE_EXTENSIONS = ('.jpg', '.jpeg', '.png', '.bmp')
+PROGRESS_EVERY = 5000
+
+
+def iter_samples(source, limit=None, resolve_paths=True):
+    """Yield (path, label) pairs from a CSV with path/phrase columns or a directory of class folders.
+
+    The CSV is streamed row by row; its paths are resolved relative to the CSV file and may use
+    Windows separators. With resolve_paths=False they are yielded as written, which is how
+    packed shards look them up. In a directory, the name of each image's parent folder is its label.
+    """
+    count = 0
+    if os.path.isdir(source):
+        for root, dirs, files in os.walk(source):
+            dirs.sort()
+            label = normalize_label(os.path.basename(root))
+            for name in sorted(files):
+                if name.lower().endswith(IMAGE_EXTENSIONS):
+                    yield os.path.join(root, name), label
+                    count += 1
+                    if limit and count >= limit:
+                        return
+        return
+
+    base = os.path.dirname(os.path.abspath(source))
+    with open(source, newline='', encoding='utf-8') as f:
+        for row in csv.DictReader(f):
+            path = row['path']
+            if resolve_paths:
+                path = path.replace('\\', os.sep).replace('/', os.sep)
+                path = path if os.path.isabs(path) else os.path.join(base, path)
+            yield path, normalize_label(row['phrase'])
+            count += 1
+            if limit and count >= limit:
+                return
+
+
+def normalize_label(label):
+    label = label.strip()
+    return label.upper() if len(label) == 1 else label
+
+
+def load_image(path, channels='bgr'):
+    """Decode and preprocess one image the way the recognizer does; None if it cannot be read."""
+    img = cv2.imread(path)
+    if img is None:
+        return None
+    img = cv2.resize(img, IMG_SIZE)
+    if channels == 'rgb':
+        img = cv2.cvtColor(img, cv2.COLOR_BGR2RGB)
+    return img.astype(np.float32) / 255.0
+
+
+def load_batch(samples, channels):
+    """Worker task: decode a batch of (path, label) samples into an array plus the class indices."""
+    started = time.perf_counter()
+    images, labels, unreadable = [], [], []
+    for path, label in samples:
+        img = load_image(path, channels)
+        if img is None:
+            unreadable.append(path)
+            continue
+        images.append(img)
+        labels.append(CLASS_NAMES.index(label))
+    batch = np.stack(images) if images else None
+    return batch, np.array(labels, dtype=np.int64), unreadable, time.perf_counter() - started
+
+
+def load_packed_batch(samples, channels, packed):
+    """Worker task for --shards: copy a batch out of the memory-mapped shards instead of decoding it."""
+    started = time.perf_counter()
+    locations = packed.locate([path for path, _ in samples])
+    found = locations[:, 0] >= 0
+    images = packed.gather(locations[found])
+    if channels == 'bgr':
+        images = images[..., ::-1]
+    batch = images.astype(np.float32) / 255.0 if len(images) else None
+    labels = np.array([CLASS_NAMES.index(label) for (_, label), ok in zip(samples, found) if ok], dtype=np.int64)
+    not_packed = [path for (path, _), ok in zip(samples, found) if not ok]
+    return batch, labels, not_packed, time.perf_counter() - started
+
+
+def chunked(samples, size, skipped):
+    """Group samples into lists of `size`; samples whose label the app does not know go to `skipped`."""
+    chunk = []
+    for path, label in samples:
+        if label not in CLASS_NAMES:
+            skipped[label] = skipped.get(label, 0) + 1
+            continue
+        chunk.append((path, label))
+        if len(chunk) == size:
+            yield chunk
+            chunk = []
+    if chunk:
+        yield chunk
+
+
+def evaluate(model, samples, batch_size=64, workers=None, prefetch=4, channels='bgr', packed=None):
+    """Score the model over `samples`, decoding batches on a thread pool while the previous ones run.
+
+    OpenCV releases the GIL while decoding and resizing, so threads keep several cores busy
+    without copying batches between processes. At most `prefetch + workers` batches are
+    submitted ahead of inference at any time, decoding or decoded, so every worker stays busy
+    while memory stays bounded on the full 44k-image CSV. With `packed`
+    shards the workers only copy records out of the memory maps.
+    """
+    workers = workers or os.cpu_count() or 4
+    input_spec = tf.TensorSpec(shape=(None, IMG_SIZE[1], IMG_SIZE[0], 3), dtype=tf.float32)
+
+    @tf.function(input_signature=[input_spec])
+    def infer(x):
+        return model(x, training=False)
+
+    confusion = np.zeros((len(CLASS_NAMES), len(CLASS_NAMES)), dtype=np.int64)
+    stats = {'images': 0, 'unreadable': [], 'skipped_labels': {}, 'decode_seconds': 0.0, 'inference_seconds': 0.0}
+    started = time.perf_counter()
+
+    with ThreadPoolExecutor(max_workers=workers) as pool:
+        pending = deque()
+        chunks = chunked(samples, batch_size, stats['skipped_labels'])
+        for chunk in chunks:
+            if packed is None:
+                pending.append(pool.submit(load_batch, chunk, channels))
+            else:
+                pending.append(pool.submit(load_packed_batch, chunk, channels, packed))
+            if len(pending) >= prefetch + workers:
+                run_batch(infer, pending.popleft().result(), confusion, stats)
+        while pending:
+            run_batch(infer, pending.popleft().result(), confusion, stats)
+
+    stats['wall_seconds'] = time.perf_counter() - started
+    stats['workers'] = workers
+    stats['batch_size'] = batch_size
+    return confusion, stats
+
+
+def run_batch(infer, loaded, confusion, stats):
+    batch, labels, unreadable, decode_seconds = loaded
+    stats['unreadable'].extend(unreadable)
+    stats['decode_seconds'] += decode_seconds
+    if batch is None:
+        return
+    started = time.perf_counter()
+    predicted = np.argmax(infer(tf.constant(batch)).numpy(), axis=1)
+    stats['inference_seconds'] += time.perf_counter() - started
+    np.add.at(confusion, (labels, predicted), 1)
+    stats['images'] += len(labels)
+    if stats['images'] // PROGRESS_EVERY != (stats['images'] - len(labels)) // PROGRESS_EVERY:
+        print(f"  {stats['images']} images scored")
+
+
+def per_class_metrics(confusion):
+    """Return [(class, support, precision, recall, f1), ...] for classes that occur or are predicted."""
+    rows = []
+    for i, name in enumerate(CLASS_NAMES):
+        true_positive = confusion[i, i]
+        support = confusion[i].sum()
+        predicted = confusion[:, i].sum()
+        if support == 0 and predicted == 0:
+            continue
+        precision = true_positive / predicted if predicted else 0.0
+        recall = true_positive / support if support else 0.0
+        f1 = 2 * precision * recall / (precision + recall) if precision + recall else 0.0
+        rows.append((name, int(support), float(precision), float(recall), float(f1)))
+    return rows
+
+
+def top_confusions(confusion, count=10):
+    off_diagonal = confusion.copy()
+    np.fill_diagonal(off_diagonal, 0)
+    order = np.argsort(off_diagonal, axis=None)[::-1][:count]
+    pairs = []
+    for flat in order:
+        actual, predicted = np.unravel_index(flat, off_diagonal.shape)
+        if off_diagonal[actual, predicted] == 0:
+            break
+        pairs.append((CLASS_NAMES[actual], CLASS_NAMES[predicted], int(off_diagonal[actual, predicted])))
+    return pairs
+
+
+def write_report(output_dir, confusion, stats, model_path, data_path):
+    """Write confusion_matrix.csv, per_class.csv and summary.json to output_dir and return the summary."""
+    os.makedirs(output_dir, exist_ok=True)
+    with open(os.path.join(output_dir, 'confusion_matrix.csv'), 'w', newline='', encoding='utf-8') as f:
+        out = csv.writer(f)
+        out.writerow(['actual \\ predicted'] + CLASS_NAMES)
+        for name, row in zip(CLASS_NAMES, confusion):
+            out.writerow([name] + row.tolist())
+
+    classes = per_class_metrics(confusion)
+    with open(os.path.join(output_dir, 'per_class.csv'), 'w', newline='', encoding='utf-8') as f:
+        out = csv.writer(f)
+        out.writerow(['class', 'support', 'precision', 'recall', 'f1'])
+        for name, support, precision, recall, f1 in classes:
+            out.writerow([name, support, f"{precision:.4f}", f"{recall:.4f}", f"{f1:.4f}"])
+
+    images = stats['images']
+    summary = {
+        'model': model_path,
+        'data': data_path,
+        'images': images,
+        'accuracy': float(np.trace(confusion) / images) if images else 0.0,
+        'macro_f1': float(np.mean([row[4] for row in classes])) if classes else 0.0,
+        'unreadable': len(stats['unreadable']),
+        'skipped_labels': stats['skipped_labels'],
+        'wall_seconds': round(stats['wall_seconds'], 2),
+        'images_per_second': round(images / stats['wall_seconds'], 1) if stats['wall_seconds'] else 0.0,
+        'decode_seconds': round(stats['decode_seconds'], 2),
+        'inference_seconds': round(stats['inference_seconds'], 2),
+        'workers': stats['workers'],
+        'batch_size': stats['batch_size'],
+        'top_confusions': [{'actual': a, 'predicted': p, 'count': n} for a, p, n in top_confusions(confusion)],
+    }
+    with open(os.path.join(output_dir, 'summary.json'), 'w', encoding='utf-8') as f:
+        json.dump(summary, f, indent=2)
+    return summary, classes
+
+
+def print_report(summary, classes):
+    print(f"\nScored {summary['images']} images in {summary['wall_seconds']:.1f} s "
+          f"({summary['images_per_second']:.1f} images/s, {summary['workers']} decode workers)")
+    print(f"Decode time (summed over workers): {summary['decode_seconds']:.1f} s, "
+          f"inference time: {summary['inference_seconds']:.1f} s")
+    if summary['unreadable']:
+        print(f"Unreadable or unpacked images: {summary['unreadable']}")
+    for label, count in summary['skipped_labels'].items():
+        print(f"Skipped {count} samples labelled '{label}' (not a class of the app)")
+    print(f"\nAccuracy: {summary['accuracy']:.2%}   Macro F1: {summary['macro_f1']:.3f}\n")
+    print(f"{'class':<8}{'support':>8}{'precision':>11}{'recall':>8}{'f1':>8}")
+    for name, support, precision, recall, f1 in classes:
+        print(f"{name:<8}{support:>8}{precision:>11.3f}{recall:>8.3f}{f1:>8.3f}")
+    if summary['top_confusions']:
+        print("\nMost frequent confusions:")
+        for pair in summary['top_confusions']:
+            print(f"  {pair['actual']} -> {pair['predicted']}: {pair['count']}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Score a trained model over a labelled CSV or image directory.")
+    parser.add_argument('--model', default=KERAS_MODEL)
+    parser.add_argument('--data', default=DATA_CSV,
+                        help="CSV with path and phrase columns, or a directory with one folder per class")
+    parser.add_argument('--output', default=os.path.join(ROOT_DIR, 'evaluation'),
+                        help="directory for confusion_matrix.csv, per_class.csv and summary.json")
+    parser.add_argument('--batch-size', type=int, default=64)
+    parser.add_argument('--workers', type=int, default=None, help="decode threads (default: one per CPU)")
+    parser.add_argument('--prefetch', type=int, default=4, help="batches decoded ahead of inference on top of one per worker")
+    parser.add_argument('--limit', type=int, default=None, help="only score the first N samples")
+    parser.add_argument('--shards', help="read images from shards written by pack_shards.py instead of decoding them")
+    parser.add_argument('--channels', choices=['bgr', 'rgb'], default='bgr',
+                        help="'bgr' feeds images as the recognizer does (OpenCV order), 'rgb' as train.py decodes them")
+    args = parser.parse_args()
+
+    model = tf.keras.models.load_model(args.model)
+    print(f"Evaluating {args.model} on {args.data}")
+    packed = PackedImages(args.shards) if args.shards else None
+    samples = iter_samples(args.data, args.limit, resolve_paths=packed is None)
+    confusion, stats = evaluate(model, samples, max(1, args.batch_size),
+                                args.workers, max(1, args.prefetch), args.channels, packed)
+    summary, classes = write_report(args.output, confusion, stats, args.model, args.data)
+    print_report(summary, classes)
+    print(f"\nReport written to {args.output}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,231 @@
+import os
+os.environ['TF_CPP_MIN_LOG_LEVEL'] = '2'
+import argparse
+import csv
+import json
+import random
+import sys
+import time
+import numpy as np
+import tensorflow as tf
+
+from evaluate import CLASS_NAMES, DATA_CSV, iter_samples, load_image
+
+# The runners asl_recognition.py loads models with, so the report measures what the app runs.
+sys.path.append(os.path.join(os.path.dirname(os.path.abspath(__file__)), '..', 'src', 'controllers'))
+from model_runtime import KerasRunner, OnnxRunner, TFLiteRunner
+
+# Configuration
+ROOT_DIR = os.getcwd()
+IMG_SIZE = (128, 128)
+KERAS_MODEL = os.path.join(ROOT_DIR, 'best_model.keras')
+ONNX_MODEL = os.path.join(ROOT_DIR, 'best_model.onnx')
+ONNX_INT8_MODEL = os.path.join(ROOT_DIR, 'best_model.int8.onnx')
+TFLITE_INT8_MODEL = os.path.join(ROOT_DIR, 'best_model.int8.tflite')
+REPORT = os.path.join(ROOT_DIR, 'export_report.json')
+OPSET = 13
+LATENCY_RUNS = 100
+LATENCY_BATCH = 8
+
+
+def export_onnx(model, output_path, opset=OPSET):
+    """Convert the Keras classifier to ONNX for the in-process Java recognizer (OnnxRecognizer)."""
+    import tf2onnx
+
+    # NHWC float32 images with a free batch dimension; OnnxRecognizer feeds batches of one.
+    spec = (tf.TensorSpec((None, *IMG_SIZE, 3), tf.float32, name='input'),)
+    tf2onnx.convert.from_keras(model, input_signature=spec, opset=opset, output_path=output_path)
+    print(f"Exported ONNX model to {output_path} ({os.path.getsize(output_path) / 1e6:.1f} MB)")
+
+
+def verify_onnx(model, onnx_path, samples=8):
+    """Check that ONNX Runtime reproduces the Keras predictions on random inputs."""
+    import onnxruntime as ort
+
+    session = ort.InferenceSession(onnx_path, providers=['CPUExecutionProvider'])
+    input_name = session.get_inputs()[0].name
+    max_diff = 0.0
+    for _ in range(samples):
+        x = np.random.rand(1, *IMG_SIZE, 3).astype(np.float32)
+        expected = model(x, training=False).numpy()
+        actual = session.run(None, {input_name: x})[0]
+        max_diff = max(max_diff, float(np.abs(expected - actual).max()))
+    print(f"Max absolute difference Keras vs ONNX Runtime: {max_diff:.2e}")
+    return max_diff
+
+
+def training_split(data):
+    """Split a training CSV exactly as train.py does; returns (training samples, validation samples)."""
+    from sklearn.model_selection import train_test_split
+
+    samples = list(iter_samples(data))
+    # Stratify on the labels as written, like train.py's dataset_df['phrase'], so the split is identical.
+    with open(data, newline='', encoding='utf-8') as f:
+        phrases = [row['phrase'] for row in csv.DictReader(f)]
+    train_idx, val_idx = train_test_split(list(range(len(samples))), test_size=0.2, stratify=phrases, random_state=42)
+    return [samples[i] for i in train_idx], [samples[i] for i in val_idx]
+
+
+def load_sample_sets(data, calibration_count, eval_count, channels='bgr', seed=42):
+    """Draw random calibration and held-out evaluation images from the dataset.
+
+    For a training CSV, evaluation images come from train.py's validation split and calibration
+    images from its training split, so the reported accuracy is not measured on images the model
+    was trained on. A directory is taken to be a separate test set, and both are drawn from it
+    without overlap. Returns (calibration images, evaluation images, evaluation labels). Images
+    are preprocessed like the recognizer's input, so the quantization ranges match what the app feeds.
+    """
+    rng = random.Random(seed)
+    if os.path.isdir(data):
+        samples = [sample for sample in iter_samples(data) if sample[1] in CLASS_NAMES]
+        rng.shuffle(samples)
+        calibration_samples = samples[:calibration_count]
+        eval_samples = samples[calibration_count:calibration_count + eval_count]
+    else:
+        train_samples, val_samples = training_split(data)
+        calibration_samples = [sample for sample in train_samples if sample[1] in CLASS_NAMES]
+        eval_samples = [sample for sample in val_samples if sample[1] in CLASS_NAMES]
+        rng.shuffle(calibration_samples)
+        rng.shuffle(eval_samples)
+        calibration_samples = calibration_samples[:calibration_count]
+        eval_samples = eval_samples[:eval_count]
+
+    def load(selected):
+        images, labels = [], []
+        for path, label in selected:
+            img = load_image(path, channels)
+            if img is not None:
+                images.append(img)
+                labels.append(CLASS_NAMES.index(label))
+        return np.stack(images), np.array(labels)
+
+    calibration, _ = load(calibration_samples)
+    evaluation, labels = load(eval_samples)
+    print(f"Loaded {len(calibration)} calibration and {len(evaluation)} evaluation images from {data}")
+    return calibration, evaluation, labels
+
+
+def export_tflite_int8(model, output_path, calibration):
+    """Post-training full-integer quantization. Input and output stay float32, so callers feed
+    the same normalized images as for the Keras model."""
+    converter = tf.lite.TFLiteConverter.from_keras_model(model)
+    converter.optimizations = [tf.lite.Optimize.DEFAULT]
+    converter.representative_dataset = lambda: ([calibration[i:i + 1]] for i in range(len(calibration)))
+    converter.target_spec.supported_ops = [tf.lite.OpsSet.TFLITE_BUILTINS_INT8]
+    with open(output_path, 'wb') as f:
+        f.write(converter.convert())
+    print(f"Exported int8 TFLite model to {output_path} ({os.path.getsize(output_path) / 1e6:.1f} MB)")
+
+
+def export_onnx_int8(float_path, output_path, calibration):
+    """Static int8 quantization (QDQ, per-channel weights) of the float ONNX export."""
+    from onnxruntime.quantization import CalibrationDataReader, QuantFormat, QuantType, quantize_static
+
+    class Calibration(CalibrationDataReader):
+        def __init__(self, input_name):
+            self.batches = iter([{input_name: calibration[i:i + 1]} for i in range(len(calibration))])
+
+        def get_next(self):
+            return next(self.batches, None)
+
+    import onnxruntime as ort
+    input_name = ort.InferenceSession(float_path, providers=['CPUExecutionProvider']).get_inputs()[0].name
+    quantize_static(float_path, output_path, Calibration(input_name), quant_format=QuantFormat.QDQ,
+                    per_channel=True, activation_type=QuantType.QInt8, weight_type=QuantType.QInt8)
+    print(f"Exported int8 ONNX model to {output_path} ({os.path.getsize(output_path) / 1e6:.1f} MB)")
+
+
+def measure_latency(runner, images, batch_size, runs=LATENCY_RUNS):
+    """Median and 95th percentile milliseconds per call for batches of batch_size images."""
+    batch = np.ascontiguousarray(images[:batch_size])
+    for _ in range(5):
+        runner(batch)
+    times = []
+    for _ in range(runs):
+        started = time.perf_counter()
+        runner(batch)
+        times.append((time.perf_counter() - started) * 1000)
+    return float(np.percentile(times, 50)), float(np.percentile(times, 95))
+
+
+def predict_all(runner, images, batch_size=32):
+    return np.concatenate([runner(images[i:i + batch_size]) for i in range(0, len(images), batch_size)])
+
+
+def compare(artifacts, evaluation, labels, reference):
+    """Accuracy, agreement with the Keras model, size and latency for each artifact."""
+    rows = []
+    reference_top1 = None
+    for name, path, runner in artifacts:
+        top1 = np.argmax(predict_all(runner, evaluation), axis=1)
+        if reference_top1 is None and name == reference:
+            reference_top1 = top1
+        single_p50, single_p95 = measure_latency(runner, evaluation, 1)
+        batch_p50, _ = measure_latency(runner, evaluation, LATENCY_BATCH)
+        rows.append({
+            'format': name,
+            'path': path,
+            'size_mb': round(os.path.getsize(path) / 1e6, 2),
+            'accuracy': float(np.mean(top1 == labels)),
+            'agreement_with_keras': float(np.mean(top1 == reference_top1)) if reference_top1 is not None else None,
+            'single_frame_ms_p50': round(single_p50, 2),
+            'single_frame_ms_p95': round(single_p95, 2),
+            f'batch{LATENCY_BATCH}_ms_per_frame_p50': round(batch_p50 / LATENCY_BATCH, 2),
+        })
+    return rows
+
+
+def print_comparison(rows):
+    batch_key = f'batch{LATENCY_BATCH}_ms_per_frame_p50'
+    print(f"\n{'format':<14}{'size MB':>9}{'accuracy':>10}{'agree':>8}{'1 frame ms':>12}{'p95':>8}"
+          f"{f'batch {LATENCY_BATCH} ms/frame':>20}")
+    for row in rows:
+        agreement = f"{row['agreement_with_keras']:.3f}" if row['agreement_with_keras'] is not None else '-'
+        print(f"{row['format']:<14}{row['size_mb']:>9.2f}{row['accuracy']:>10.3f}{agreement:>8}"
+              f"{row['single_frame_ms_p50']:>12.2f}{row['single_frame_ms_p95']:>8.2f}{row[batch_key]:>20.2f}")
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Export best_model.keras for CPU inference runtimes.")
+    parser.add_argument('--model', default=KERAS_MODEL)
+    parser.add_argument('--onnx', default=ONNX_MODEL)
+    parser.add_argument('--onnx-int8', default=ONNX_INT8_MODEL)
+    parser.add_argument('--tflite-int8', default=TFLITE_INT8_MODEL)
+    parser.add_argument('--skip-verify', action='store_true')
+    parser.add_argument('--quantize', choices=['int8', 'none'], default='int8',
+                        help="'int8' also writes quantized TFLite and ONNX models and a comparison report")
+    parser.add_argument('--data', default=DATA_CSV, help="train.py's CSV, whose validation split is evaluated, or a directory of held-out test images")
+    parser.add_argument('--calibration-samples', type=int, default=300)
+    parser.add_argument('--eval-samples', type=int, default=2000)
+    parser.add_argument('--channels', choices=['bgr', 'rgb'], default='bgr',
+                        help="channel order of calibration images; 'bgr' is what the recognizer feeds")
+    parser.add_argument('--report', default=REPORT)
+    args = parser.parse_args()
+
+    model = tf.keras.models.load_model(args.model)
+    export_onnx(model, args.onnx)
+    if not args.skip_verify:
+        verify_onnx(model, args.onnx)
+    if args.quantize == 'none':
+        return
+
+    calibration, evaluation, labels = load_sample_sets(args.data, args.calibration_samples, args.eval_samples, args.channels)
+    export_tflite_int8(model, args.tflite_int8, calibration)
+    export_onnx_int8(args.onnx, args.onnx_int8, calibration)
+
+    artifacts = [
+        ('keras', args.model, KerasRunner(model, IMG_SIZE)),
+        ('onnx', args.onnx, OnnxRunner(args.onnx)),
+        ('onnx-int8', args.onnx_int8, OnnxRunner(args.onnx_int8)),
+        ('tflite-int8', args.tflite_int8, TFLiteRunner(args.tflite_int8)),
+    ]
+    rows = compare(artifacts, evaluation, labels, reference='keras')
+    print_comparison(rows)
+    with open(args.report, 'w', encoding='utf-8') as f:
+        json.dump({'data': args.data, 'calibration_samples': len(calibration), 'eval_samples': len(evaluation),
+                   'channels': args.channels, 'models': rows}, f, indent=2)
+    print(f"\nReport written to {args.report}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,251 @@
+import os
+import argparse
+import csv
+import json
+import time
+from concurrent.futures import ThreadPoolExecutor
+
+import cv2
+import numpy as np
+
+# Configuration
+ROOT_DIR = os.getcwd()
+IMG_SIZE = (128, 128)
+RECORD_SHAPE = (IMG_SIZE[1], IMG_SIZE[0], 3)
+RECORD_BYTES = int(np.prod(RECORD_SHAPE))
+SHARD_RECORDS = 4096
+DECODE_CHUNK = 512
+DATA_CSV = os.path.join(ROOT_DIR, 'train_verified.csv')
+SHARD_DIR = os.path.join(ROOT_DIR, 'shards')
+MANIFEST = 'manifest.json'
+
+
+def sample_key(path):
+    """Manifest key of a CSV path: the path as written in the CSV, with forward slashes."""
+    return path.replace('\\', '/')
+
+
+def resolve(path, base):
+    path = path.replace('\\', os.sep).replace('/', os.sep)
+    return path if os.path.isabs(path) else os.path.join(base, path)
+
+
+def load_manifest(shard_dir):
+    path = os.path.join(shard_dir, MANIFEST)
+    if not os.path.exists(path):
+        return {'image_size': list(IMG_SIZE), 'shards': [], 'entries': {}}
+    with open(path, encoding='utf-8') as f:
+        manifest = json.load(f)
+    if tuple(manifest['image_size']) != IMG_SIZE:
+        raise ValueError(f"{shard_dir} was packed at {manifest['image_size']}, not {IMG_SIZE}; use another directory")
+    return manifest
+
+
+def save_manifest(shard_dir, manifest):
+    """Replace the manifest atomically, so an interrupted pack never leaves it half written."""
+    path = os.path.join(shard_dir, MANIFEST)
+    with open(path + '.tmp', 'w', encoding='utf-8') as f:
+        json.dump(manifest, f)
+    os.replace(path + '.tmp', path)
+
+
+def load_record(path):
+    """Decode and resize one image into an RGB uint8 record, the channel order train.py feeds; None if unreadable."""
+    img = cv2.imread(path)
+    if img is None:
+        return None
+    img = cv2.resize(img, IMG_SIZE, interpolation=cv2.INTER_LINEAR)
+    return cv2.cvtColor(img, cv2.COLOR_BGR2RGB)
+
+
+def shard_name(manifest, index):
+    """File name of a new shard; each compaction starts a generation, so its shards never reuse a live file name."""
+    generation = manifest.get('generation', 0)
+    return f'shard-{index:05d}.bin' if not generation else f'shard-g{generation}-{index:05d}.bin'
+
+
+class ShardWriter:
+    """Appends fixed-size records to new shard files and registers them in the manifest."""
+
+    def __init__(self, shard_dir, manifest, shard_records=SHARD_RECORDS):
+        self.shard_dir = shard_dir
+        self.manifest = manifest
+        self.shard_records = shard_records
+        self.file = None
+        self.index = None
+        self.records = 0
+
+    def append(self, record):
+        if self.file is None:
+            self.index = len(self.manifest['shards'])
+            name = shard_name(self.manifest, self.index)
+            self.file = open(os.path.join(self.shard_dir, name), 'wb')
+            self.manifest['shards'].append({'file': name, 'records': 0})
+            self.records = 0
+        self.file.write(np.ascontiguousarray(record, dtype=np.uint8).tobytes())
+        row = self.records
+        self.records += 1
+        if self.records == self.shard_records:
+            self.close()
+        return self.index, row
+
+    def close(self):
+        """Finish the current shard, if one is open."""
+        if self.file is None:
+            return
+        self.file.close()
+        self.manifest['shards'][self.index]['records'] = self.records
+        self.file = None
+
+
+def pack(csv_path, shard_dir, workers=None, shard_records=SHARD_RECORDS):
+    """Pack the images listed in csv_path into shard_dir, processing only new or changed files.
+
+    An image is reused while its size and modification time match the manifest. New and
+    changed images are decoded on a thread pool and appended to new shards; the records they
+    replace stay in their old shards until --compact rewrites them. Unreadable files are
+    remembered too, so they are not decoded again on every run.
+    """
+    os.makedirs(shard_dir, exist_ok=True)
+    manifest = load_manifest(shard_dir)
+    entries = manifest['entries']
+    base = os.path.dirname(os.path.abspath(csv_path))
+    started = time.time()
+
+    # train_verified.csv lists oversampled images more than once; each file is packed once.
+    todo, queued, missing, reused = [], set(), 0, 0
+    with open(csv_path, newline='', encoding='utf-8') as f:
+        for row in csv.DictReader(f):
+            key = sample_key(row['path'])
+            full = resolve(row['path'], base)
+            try:
+                stat = os.stat(full)
+            except OSError:
+                missing += 1
+                continue
+            entry = entries.get(key)
+            if key in queued or (entry and entry['size'] == stat.st_size and entry['mtime'] == stat.st_mtime_ns):
+                reused += 1
+                continue
+            queued.add(key)
+            todo.append((key, full, stat, row['phrase']))
+
+    writer = ShardWriter(shard_dir, manifest, shard_records)
+    unreadable = 0
+    with ThreadPoolExecutor(max_workers=workers or os.cpu_count() or 4) as pool:
+        # Decode a chunk at a time so finished records never pile up in memory.
+        for start in range(0, len(todo), DECODE_CHUNK):
+            chunk = todo[start:start + DECODE_CHUNK]
+            for (key, full, stat, label), record in zip(chunk, pool.map(load_record, [item[1] for item in chunk])):
+                entry = {'size': stat.st_size, 'mtime': stat.st_mtime_ns, 'label': label, 'shard': None, 'row': None}
+                if record is None:
+                    unreadable += 1
+                else:
+                    entry['shard'], entry['row'] = writer.append(record)
+                entries[key] = entry
+                if record is not None and writer.file is None:
+                    # A shard was just completed: checkpoint, so an interrupted run keeps it.
+                    save_manifest(shard_dir, manifest)
+    writer.close()
+    save_manifest(shard_dir, manifest)
+
+    live = sum(1 for entry in entries.values() if entry['shard'] is not None)
+    stored = sum(shard['records'] for shard in manifest['shards'])
+    print(f"Packed {len(todo) - unreadable} images, reused {reused}, {unreadable} unreadable, "
+          f"{missing} missing in {time.time() - started:.1f} s")
+    print(f"{shard_dir}: {live} live records in {len(manifest['shards'])} shards "
+          f"({stored * RECORD_BYTES / 1e9:.2f} GB)")
+    if stored > live * 1.25:
+        print(f"{stored - live} records are superseded; run with --compact to reclaim the space.")
+    return manifest
+
+
+def compact(shard_dir, shard_records=SHARD_RECORDS):
+    """Rewrite the live records into fresh shards by copying them; nothing is decoded again.
+
+    The new shards are written next to the old ones under the next generation's names, then
+    the manifest is replaced atomically, and only then are shards it does not reference
+    deleted. An interrupted compaction therefore leaves either the old or the new manifest,
+    each with all its shards, and the next one removes whatever it left behind.
+    """
+    old = PackedImages(shard_dir)
+    manifest = {'image_size': list(IMG_SIZE), 'shards': [], 'entries': {},
+                'generation': old.manifest.get('generation', 0) + 1}
+    writer = ShardWriter(shard_dir, manifest, shard_records)
+    for key, entry in old.manifest['entries'].items():
+        entry = dict(entry)
+        if entry['shard'] is not None:
+            entry['shard'], entry['row'] = writer.append(old.shards[entry['shard']][entry['row']])
+        manifest['entries'][key] = entry
+    writer.close()
+    save_manifest(shard_dir, manifest)
+    old.close()
+    live = {shard['file'] for shard in manifest['shards']}
+    leftover = 0
+    for name in os.listdir(shard_dir):
+        if not name.startswith('shard-') or not name.endswith('.bin') or name in live:
+            continue
+        try:
+            os.remove(os.path.join(shard_dir, name))
+        except OSError:
+            # Windows refuses to delete a file that is still memory-mapped; it is no longer referenced.
+            leftover += 1
+    print(f"Compacted {shard_dir} to {len(manifest['shards'])} shards")
+    if leftover:
+        print(f"{leftover} old shards could not be deleted yet; they are unused and can be removed by hand.")
+
+
+class PackedImages:
+    """Read-only, memory-mapped view of a packed shard directory.
+
+    Records are RGB uint8 arrays of RECORD_SHAPE. After the first pass they are served from
+    the page cache, so reading a batch costs a memory copy instead of JPEG decoding.
+    """
+
+    def __init__(self, shard_dir):
+        self.shard_dir = shard_dir
+        self.manifest = load_manifest(shard_dir)
+        self.shards = []
+        for shard in self.manifest['shards']:
+            path = os.path.join(shard_dir, shard['file'])
+            self.shards.append(np.memmap(path, dtype=np.uint8, mode='r', shape=(shard['records'], *RECORD_SHAPE))
+                               if shard['records'] else np.zeros((0, *RECORD_SHAPE), dtype=np.uint8))
+
+    def locate(self, paths):
+        """Return an (n, 2) array of (shard, row) for CSV paths; -1 where an image is not packed."""
+        locations = np.full((len(paths), 2), -1, dtype=np.int64)
+        entries = self.manifest['entries']
+        for i, path in enumerate(paths):
+            entry = entries.get(sample_key(path))
+            if entry and entry['shard'] is not None:
+                locations[i] = (entry['shard'], entry['row'])
+        return locations
+
+    def gather(self, locations):
+        """Copy the records at (shard, row) locations into one (n, height, width, 3) batch."""
+        batch = np.empty((len(locations), *RECORD_SHAPE), dtype=np.uint8)
+        for i, (shard, row) in enumerate(locations):
+            batch[i] = self.shards[shard][row]
+        return batch
+
+    def close(self):
+        # The maps are released once the arrays are no longer referenced.
+        self.shards = []
+
+
+def main():
+    parser = argparse.ArgumentParser(description="Pack resized training images into memory-mappable shards.")
+    parser.add_argument('--data', default=DATA_CSV, help="CSV with path and phrase columns")
+    parser.add_argument('--output', default=SHARD_DIR, help="shard directory, reused between runs")
+    parser.add_argument('--workers', type=int, default=None, help="decode threads (default: one per CPU)")
+    parser.add_argument('--shard-records', type=int, default=SHARD_RECORDS, help="images per shard file")
+    parser.add_argument('--compact', action='store_true', help="rewrite live records into fresh shards afterwards")
+    args = parser.parse_args()
+
+    pack(args.data, args.output, args.workers, max(1, args.shard_records))
+    if args.compact:
+        compact(args.output, max(1, args.shard_records))
+
+
+if __name__ == "__main__":
+    main()
@@ -1,5 +1,9 @@
 import os
 os.environ['TF_CPP_MIN_LOG_LEVEL'] = '2'
+import argparse
+import hashlib
+import json
+import time
 import pandas as pd
 import numpy as np
 import tensorflow as tf
@@ -7,6 +11,7 @@ from tensorflow.keras import layers, models, callbacks as kcallbacks
 from sklearn.model_selection import train_test_split
 from sklearn.utils.class_weight import compute_class_weight
 import matplotlib.pyplot as plt
+from pack_shards import PackedImages
 
 
 # Configuration
@@ -15,6 +20,9 @@ BATCH_SIZE = 64
 IMG_SIZE = (128, 128)
 EPOCHS = 50
 NUM_CLASSES = 29  
+AUTOTUNE = tf.data.AUTOTUNE
+CACHE_SHARDS = 16
+SHUFFLE_BUFFER = 8192
 
 # Dataset Preparation
 def generate_verified_csv():
@@ -112,6 +120,154 @@ class ASLDataGenerator(tf.keras.utils.Sequence):
         self.image_paths = self.image_paths[indices]
         self.labels = self.labels[indices]
 
+# tf.data Pipeline
+def build_augmentation():
+    """Same moderate augmentation as ASLDataGenerator, applied to whole batches at once."""
+    return tf.keras.Sequential([
+        layers.RandomFlip("horizontal"),
+        layers.RandomRotation(0.1),
+        layers.RandomZoom(0.1),
+        layers.RandomContrast(0.1)
+    ])
+
+def decode_and_resize(path, label):
+    """Read one image and resize it to IMG_SIZE, kept as uint8 so cached tensors stay small."""
+    img = tf.io.read_file(path)
+    img = tf.io.decode_image(img, channels=3, expand_animations=False)
+    img = tf.image.resize(img, IMG_SIZE)
+    img = tf.cast(tf.clip_by_value(tf.round(img), 0, 255), tf.uint8)
+    return img, label
+
+CACHE_FEATURES = {
+    'image': tf.io.FixedLenFeature([], tf.string),
+    'label': tf.io.FixedLenFeature([], tf.int64),
+}
+
+def parse_cached_example(record):
+    parsed = tf.io.parse_single_example(record, CACHE_FEATURES)
+    image = tf.reshape(tf.io.decode_raw(parsed['image'], tf.uint8), (*IMG_SIZE, 3))
+    return image, parsed['label']
+
+def cache_fingerprint(paths, labels):
+    digest = hashlib.sha1()
+    for path, label in zip(paths, labels):
+        digest.update(f"{path}\t{label}\n".encode('utf-8'))
+    digest.update(str(IMG_SIZE).encode('utf-8'))
+    return digest.hexdigest()
+
+def write_tfrecord_cache(paths, labels, cache_dir, shards=CACHE_SHARDS):
+    """Decode every image once and write the 128x128 uint8 tensors to TFRecord shards in cache_dir.
+
+    The manifest is written last, so an interrupted run leaves a cache that is rebuilt next time.
+    """
+    os.makedirs(cache_dir, exist_ok=True)
+    manifest_path = os.path.join(cache_dir, 'manifest.json')
+    if os.path.exists(manifest_path):
+        os.remove(manifest_path)
+    files = [os.path.join(cache_dir, f'shard-{i:03d}.tfrecord') for i in range(shards)]
+    writers = [tf.io.TFRecordWriter(f) for f in files]
+    started = time.time()
+    decoded = tf.data.Dataset.from_tensor_slices((paths, labels)).map(decode_and_resize, num_parallel_calls=AUTOTUNE)
+    try:
+        for i, (image, label) in enumerate(decoded.as_numpy_iterator()):
+            example = tf.train.Example(features=tf.train.Features(feature={
+                'image': tf.train.Feature(bytes_list=tf.train.BytesList(value=[image.tobytes()])),
+                'label': tf.train.Feature(int64_list=tf.train.Int64List(value=[int(label)])),
+            }))
+            writers[i % shards].write(example.SerializeToString())
+    finally:
+        for writer in writers:
+            writer.close()
+    with open(manifest_path, 'w', encoding='utf-8') as f:
+        json.dump({'count': len(paths), 'fingerprint': cache_fingerprint(paths, labels), 'files': files}, f)
+    print(f"Cached {len(paths)} decoded images in {cache_dir} ({time.time() - started:.1f} s)")
+    return files
+
+def cached_dataset(paths, labels, cache_dir):
+    """Dataset of (uint8 image, label) read from the TFRecord cache, (re)building it if it is missing or stale."""
+    manifest_path = os.path.join(cache_dir, 'manifest.json')
+    files = None
+    if os.path.exists(manifest_path):
+        with open(manifest_path, encoding='utf-8') as f:
+            manifest = json.load(f)
+        if manifest.get('fingerprint') == cache_fingerprint(paths, labels):
+            files = manifest['files']
+    if files is None:
+        files = write_tfrecord_cache(paths, labels, cache_dir)
+    return tf.data.TFRecordDataset(files, num_parallel_reads=AUTOTUNE).map(parse_cached_example, num_parallel_calls=AUTOTUNE)
+
+def packed_batches(packed, paths, labels, batch_size, shuffle):
+    """Batches of (uint8 image, label) gathered from memory-mapped shards written by pack_shards.py."""
+    locations = packed.locate(paths)
+    found = locations[:, 0] >= 0
+    if not found.all():
+        print(f"{int((~found).sum())} images are not in the shards and are skipped; re-run pack_shards.py")
+    locations, labels = locations[found], labels[found]
+
+    def gather(index):
+        images = tf.numpy_function(lambda i: packed.gather(locations[i]), [index], tf.uint8)
+        images.set_shape((None, *IMG_SIZE, 3))
+        return images
+
+    ds = tf.data.Dataset.from_tensor_slices((np.arange(len(labels)), labels))
+    if shuffle:
+        ds = ds.shuffle(len(labels), reshuffle_each_iteration=True)
+    return ds.batch(batch_size).map(lambda i, y: (gather(i), y), num_parallel_calls=AUTOTUNE)
+
+def build_dataset(df, label_encoder, batch_size=BATCH_SIZE, augment=True, shuffle=True, cache_dir=None, packed=None):
+    """tf.data replacement for ASLDataGenerator.
+
+    Images are decoded and resized by a parallel map, read back from the TFRecord cache, or
+    gathered from packed shards. They are batched, normalized and augmented a batch at a
+    time, and prefetched while the model trains.
+    """
+    paths = df['path'].values.astype(str)
+    labels = label_encoder(df['phrase']).numpy()
+    if packed is not None:
+        ds = packed_batches(packed, paths, labels, batch_size, shuffle)
+    elif cache_dir:
+        ds = cached_dataset(paths, labels, cache_dir)
+        if shuffle:
+            ds = ds.shuffle(SHUFFLE_BUFFER, reshuffle_each_iteration=True)
+        ds = ds.batch(batch_size)
+    else:
+        ds = tf.data.Dataset.from_tensor_slices((paths, labels))
+        if shuffle:
+            ds = ds.shuffle(len(paths), reshuffle_each_iteration=True)
+        ds = ds.map(decode_and_resize, num_parallel_calls=AUTOTUNE, deterministic=not shuffle)
+        ds = ds.batch(batch_size)
+    ds = ds.map(lambda x, y: (tf.cast(x, tf.float32) / 255.0, y), num_parallel_calls=AUTOTUNE)
+    if augment:
+        augmentation = build_augmentation()
+        ds = ds.map(lambda x, y: (augmentation(x, training=True), y), num_parallel_calls=AUTOTUNE)
+    return ds.prefetch(AUTOTUNE)
+
+def measure_input(batches, name, limit=None):
+    """Time one pass over an input pipeline without training and print images per second."""
+    started = time.time()
+    images = 0
+    for i, (x, _) in enumerate(batches):
+        if limit is not None and i >= limit:
+            break
+        images += int(x.shape[0])
+    elapsed = time.time() - started
+    print(f"{name}: {images} images in {elapsed:.1f} s ({images / max(elapsed, 1e-6):.1f} images/s)")
+    return elapsed
+
+class EpochTimer(kcallbacks.Callback):
+    """Prints wall time and throughput of every epoch, to compare input pipelines."""
+
+    def __init__(self, images_per_epoch):
+        super().__init__()
+        self.images_per_epoch = images_per_epoch
+
+    def on_epoch_begin(self, epoch, logs=None):
+        self.started = time.time()
+
+    def on_epoch_end(self, epoch, logs=None):
+        elapsed = time.time() - self.started
+        print(f"Epoch {epoch + 1} took {elapsed:.1f} s ({self.images_per_epoch / max(elapsed, 1e-6):.1f} images/s)")
+
 # Model Architecture
 def build_optimized_model():
     base_model = tf.keras.applications.MobileNetV2(
@@ -145,7 +301,20 @@ def build_optimized_model():
     return model
 
 # Training Workflow
-def main():
+def parse_args(argv=None):
+    parser = argparse.ArgumentParser(description="Train the ASL classifier.")
+    parser.add_argument('--input-pipeline', choices=['tfdata', 'generator'], default='tfdata',
+                        help="'tfdata' uses the parallel tf.data pipeline, 'generator' the original ASLDataGenerator")
+    parser.add_argument('--cache-dir', help="tf.data: keep decoded 128x128 images in TFRecord shards under this directory")
+    parser.add_argument('--shards', help="tf.data: read images from shards written by pack_shards.py (overrides --cache-dir)")
+    parser.add_argument('--epochs', type=int, default=EPOCHS)
+    parser.add_argument('--compare-input', action='store_true',
+                        help="time one epoch of both input pipelines without training, then exit")
+    parser.add_argument('--compare-batches', type=int, help="with --compare-input, only time this many batches")
+    return parser.parse_args(argv)
+
+def main(argv=None):
+    args = parse_args(argv)
     print("\nSample data verification:")
     sample = dataset_df.sample(5)
     for idx, row in sample.iterrows():
@@ -159,9 +328,25 @@ def main():
         random_state=42
     )
     
-    # Create generators
-    train_gen = ASLDataGenerator(train_df, augment=True)
-    val_gen = ASLDataGenerator(val_df, augment=False)
+    # Create input pipelines
+    label_encoder = layers.StringLookup(num_oov_indices=0, vocabulary=sorted(dataset_df['phrase'].unique()))
+    train_cache = os.path.join(args.cache_dir, 'train') if args.cache_dir else None
+    val_cache = os.path.join(args.cache_dir, 'val') if args.cache_dir else None
+    packed = PackedImages(args.shards) if args.shards else None
+    if args.compare_input:
+        measure_input(ASLDataGenerator(train_df, augment=True), "ASLDataGenerator", args.compare_batches)
+        measure_input(build_dataset(train_df, label_encoder, cache_dir=train_cache), "tf.data", args.compare_batches)
+        if train_cache:
+            measure_input(build_dataset(train_df, label_encoder, cache_dir=train_cache), "tf.data (cached)", args.compare_batches)
+        if packed is not None:
+            measure_input(build_dataset(train_df, label_encoder, packed=packed), "tf.data (shards)", args.compare_batches)
+        return
+    if args.input_pipeline == 'generator':
+        train_gen = ASLDataGenerator(train_df, augment=True)
+        val_gen = ASLDataGenerator(val_df, augment=False)
+    else:
+        train_gen = build_dataset(train_df, label_encoder, augment=True, shuffle=True, cache_dir=train_cache, packed=packed)
+        val_gen = build_dataset(val_df, label_encoder, augment=False, shuffle=False, cache_dir=val_cache, packed=packed)
     
     # Class weighting
     class_weights = compute_class_weight(
@@ -186,7 +371,8 @@ def main():
         ),
         kcallbacks.LearningRateScheduler(
             lambda epoch, lr: lr * 0.9 if epoch > 10 else lr
-        )
+        ),
+        EpochTimer(len(train_df))
     ]
     
     # Initialize model
@@ -197,7 +383,7 @@ def main():
     history = model.fit(
         train_gen,
         validation_data=val_gen,
-        epochs=EPOCHS,
+        epochs=args.epochs,
         callbacks=model_callbacks,
         class_weight=class_weight_dict,
         verbose=1